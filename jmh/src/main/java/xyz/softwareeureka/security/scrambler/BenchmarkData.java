@@ -0,0 +1,43 @@
+package xyz.softwareeureka.security.scrambler;
+
+/**
+ * Data shared by the benchmarks, created during setup.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ */
+final class BenchmarkData
+{
+
+	static final int KB = 1024, MB = 1024 * KB;
+
+	private BenchmarkData(){}
+
+	/**
+	 * Creates 'size' Bytes of repeated Test String, which every
+	 * {@link Type} can scramble.
+	 * @param size - Amount of Bytes.
+	 * @return Repeated Test String.
+	 */
+	static byte[] repeated(final int size)
+	{
+		final byte[] test_bytes = ByteTools.TEST_STR.getBytes(), data = new byte[size];
+		for(int i = 0; i < size; i += test_bytes.length)
+			System.arraycopy(test_bytes, 0, data, i, Math.min(test_bytes.length, size - i));
+		return data;
+	}
+
+	/**
+	 * Creates Text of 'length' Characters of repeated Test String.
+	 * @param length - Amount of Characters.
+	 * @return Repeated Test String.
+	 */
+	static String text(final int length)
+	{
+		final StringBuilder builder = new StringBuilder(length + ByteTools.TEST_STR.length());
+		while(builder.length() < length)
+			builder.append(ByteTools.TEST_STR);
+		return builder.substring(0, length);
+	}
+}
@@ -0,0 +1,107 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the Binary String tools of {@link ByteTools} against the
+ * {@link BinaryCodec} they delegate to, over 1 KB, and a 1 MB Stream
+ * round trip through the codec.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see BinaryCodec
+ * @see ByteTools
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BinaryBenchmark
+{
+
+	private byte[] data, decoded, streamData;
+	private String text, binary;
+	private char[] chars;
+	private Blueprint key;
+
+	@Setup
+	public void setup()
+	{
+		data = BenchmarkData.repeated(BenchmarkData.KB);
+		decoded = new byte[data.length];
+		streamData = BenchmarkData.repeated(BenchmarkData.MB);
+		text = new String(data);
+		binary = ByteTools.arrayToBinaryString(data);
+		chars = new char[BinaryCodec.encodedLength(data, 0, data.length)];
+		key = new Smartprint(binary);
+	}
+
+	@Benchmark
+	public StringBuilder stringToBinary()
+	{
+		return ByteTools.stringtoBinary(text);
+	}
+
+	@Benchmark
+	public String arrayToBinaryString()
+	{
+		return ByteTools.arrayToBinaryString(data);
+	}
+
+	@Benchmark
+	public byte[] array()
+	{
+		return ByteTools.array(binary);
+	}
+
+	@Benchmark
+	public String scramble()
+	{
+		return ByteTools.scramble(binary, key);
+	}
+
+	@Benchmark
+	public char[] codecEncode()
+	{
+		BinaryCodec.encode(data, 0, data.length, chars, 0);
+		return chars;
+	}
+
+	@Benchmark
+	public byte[] codecDecode()
+	{
+		BinaryCodec.decode(binary, decoded, 0);
+		return decoded;
+	}
+
+	@Benchmark
+	public ByteArrayOutputStream codecStream() throws IOException
+	{
+		final StringWriter encoded = new StringWriter(streamData.length * 9);
+		BinaryCodec.encode(new ByteArrayInputStream(streamData), encoded);
+		final ByteArrayOutputStream restored = new ByteArrayOutputStream(streamData.length);
+		BinaryCodec.decode(new StringReader(encoded.toString()), restored);
+		return restored;
+	}
+
+}
@@ -0,0 +1,169 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the derived and generated keys. {@link CyclicBlueprint} and
+ * {@link Rounds} scrambling of 1 MB, {@link Smartprint} generation, and
+ * {@link MessageBatch} encoding against encoding each record on its own.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see CyclicBlueprint
+ * @see Rounds
+ * @see KeyGenerator
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlueprintBenchmark
+{
+
+	/**
+	 * 1 MB scrambled with a {@link CyclicBlueprint} of each period.
+	 */
+	@State(Scope.Thread)
+	public static class Cyclic
+	{
+		@Param({"1", "64", "4096"})
+		public int period;
+
+		private byte[] data;
+		private Blueprint key;
+
+		@Setup
+		public void setup()
+		{
+			data = BenchmarkData.repeated(BenchmarkData.MB);
+			key = new CyclicBlueprint(new SeededBlueprint(period));
+		}
+	}
+
+	@Benchmark
+	public byte[] cyclic(final Cyclic cyclic)
+	{
+		return ByteTools.scramble(cyclic.data, cyclic.key);
+	}
+
+	/**
+	 * Three rounds of 1 MB, few enough distinct rows to fuse, and three
+	 * with too many.
+	 */
+	@State(Scope.Thread)
+	public static class Layers
+	{
+		private byte[] data, scrambled;
+		private Blueprint[] keys;
+		private Rounds fused, blocked;
+
+		@Setup
+		public void setup()
+		{
+			data = BenchmarkData.repeated(BenchmarkData.MB);
+			scrambled = new byte[BenchmarkData.MB];
+			keys = new Blueprint[] {new CyclicBlueprint(new SeededBlueprint(16), BenchmarkData.MB),
+					new CyclicBlueprint(new SeededBlueprint(24), BenchmarkData.MB), new CyclicBlueprint(new SeededBlueprint(48), BenchmarkData.MB)};
+			fused = new Rounds(keys);
+			blocked = new Rounds(new CyclicBlueprint(new SeededBlueprint(64), BenchmarkData.MB),
+					new CyclicBlueprint(new SeededBlueprint(96), BenchmarkData.MB), new CyclicBlueprint(new SeededBlueprint(128), BenchmarkData.MB));
+		}
+	}
+
+	/**
+	 * Unchecked, later rounds fault on the scrambled Bytes.
+	 */
+	@Benchmark
+	public byte[] roundsSequential(final Layers layers)
+	{
+		byte[] scrambled = layers.data;
+		for(final Blueprint key : layers.keys)
+			scrambled = ByteTools.scrambleUnchecked(scrambled, key);
+		return scrambled;
+	}
+
+	@Benchmark
+	public byte[] roundsFused(final Layers layers)
+	{
+		layers.fused.run(layers.data, 0, layers.scrambled, 0, BenchmarkData.MB, 0, BenchmarkData.MB);
+		return layers.scrambled;
+	}
+
+	@Benchmark
+	public byte[] roundsBlocked(final Layers layers)
+	{
+		layers.blocked.run(layers.data, 0, layers.scrambled, 0, BenchmarkData.MB, 0, BenchmarkData.MB);
+		return layers.scrambled;
+	}
+
+	/**
+	 * Data to generate a {@link Smartprint} for.
+	 */
+	@State(Scope.Thread)
+	public static class Generation
+	{
+		@Param({"1024", "1048576"})
+		public int size;
+
+		private byte[] data;
+
+		@Setup
+		public void setup()
+		{
+			data = BenchmarkData.repeated(size);
+		}
+	}
+
+	@Benchmark
+	public Blueprint generate(final Generation generation)
+	{
+		return new Smartprint(generation.data);
+	}
+
+	/**
+	 * A thousand records of 1 KB.
+	 */
+	@State(Scope.Thread)
+	public static class Batch
+	{
+		private byte[][] records;
+
+		@Setup
+		public void setup()
+		{
+			records = new byte[1000][];
+			for(int i = 0; i < records.length; i ++)
+				records[i] = BenchmarkData.repeated(BenchmarkData.KB);
+		}
+	}
+
+	@Benchmark
+	public MessageBatch batchEncode(final Batch batch)
+	{
+		return MessageBatch.encode(batch.records);
+	}
+
+	@Benchmark
+	public void batchSequential(final Batch batch, final Blackhole hole)
+	{
+		for(final byte[] record : batch.records)
+			hole.consume(new EncodedMessage(record, new Smartprint(record)));
+	}
+
+}
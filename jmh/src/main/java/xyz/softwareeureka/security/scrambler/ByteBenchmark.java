@@ -0,0 +1,47 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures scrambling a single Byte with each {@link Type}. The Byte and
+ * Index are held in fields, so the JIT can't fold them into constants.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see ByteTools
+ * @see Type
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ByteBenchmark
+{
+
+	@Param
+	public Type type;
+
+	public byte value = 'e', index = 2;
+
+	@Benchmark
+	public byte scramble() throws BitException
+	{
+		return ByteTools.scramble(value, index, type);
+	}
+
+}
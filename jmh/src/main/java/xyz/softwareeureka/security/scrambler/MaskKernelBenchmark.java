@@ -0,0 +1,82 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Compares the Vector API {@link WordKernel} of {@link MaskPlanes} with
+ * the scalar word loop. Every fork adds the 'jdk.incubator.vector'
+ * module. 'vector' runs whichever kernel was loaded, and fails unless it's
+ * the vectorised one. 'scalar' passes the scalar kernel directly within
+ * the same JVM. 'scalarProperty' forks with '-Dscrambler.scalar=true', so
+ * the scalar kernel is the one loaded.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see MaskPlanes
+ * @see WordKernel
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class MaskKernelBenchmark
+{
+
+	@Param({"1024", "1048576", "104857600"})
+	public int size;
+
+	private byte[] data, scrambled;
+	private MaskPlanes planes;
+
+	@Setup
+	public void setup(final BenchmarkParams params)
+	{
+		final String benchmark = params.getBenchmark();
+		final boolean loaded_scalar = MaskPlanes.kernelName().equals("scalar");
+		if((benchmark.endsWith(".vector") && loaded_scalar) || (benchmark.endsWith(".scalarProperty") && !loaded_scalar))
+			throw new IllegalStateException("Unexpected kernel for " + benchmark + ": " + MaskPlanes.kernelName());
+		data = BenchmarkData.repeated(size);
+		scrambled = new byte[size];
+		planes = MaskPlanes.compile(new Smartprint(data));
+	}
+
+	@Benchmark
+	public byte[] vector()
+	{
+		planes.run(data, 0, scrambled, 0, size, 0, size);
+		return scrambled;
+	}
+
+	@Benchmark
+	public byte[] scalar()
+	{
+		planes.run(data, 0, scrambled, 0, size, 0, size, MaskPlanes.SCALAR);
+		return scrambled;
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-D" + MaskPlanes.SCALAR_PROPERTY + "=true"})
+	public byte[] scalarProperty()
+	{
+		planes.run(data, 0, scrambled, 0, size, 0, size);
+		return scrambled;
+	}
+
+}
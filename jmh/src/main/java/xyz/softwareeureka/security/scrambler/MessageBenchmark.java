@@ -0,0 +1,160 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link EncodedMessage} encoding and decoding of 1 MB of Bytes
+ * and 1 KB of Text, legacy, by Charset and pooled within a
+ * {@link ScratchArena}, along with a 64 KB {@link Safe} file round trip.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see EncodedMessage
+ * @see Safe
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageBenchmark
+{
+
+	/**
+	 * 1 MB of Bytes with its key.
+	 */
+	@State(Scope.Thread)
+	public static class Bytes
+	{
+		private byte[] data;
+		private Blueprint key;
+		private EncodedMessage encoded;
+
+		@Setup
+		public void setup()
+		{
+			data = BenchmarkData.repeated(BenchmarkData.MB);
+			key = new Smartprint(data);
+			encoded = new EncodedMessage(data, key);
+		}
+	}
+
+	@Benchmark
+	public EncodedMessage encode(final Bytes bytes)
+	{
+		return new EncodedMessage(bytes.data, bytes.key);
+	}
+
+	@Benchmark
+	public byte[] decode(final Bytes bytes)
+	{
+		return bytes.encoded.getDecoded(bytes.key);
+	}
+
+	/**
+	 * 1 KB of Text, encoded as UTF-8.
+	 */
+	@State(Scope.Thread)
+	public static class Text
+	{
+		private String text;
+		private EncodedMessage encoded;
+		private CharBuffer chars;
+
+		@Setup
+		public void setup()
+		{
+			text = BenchmarkData.text(BenchmarkData.KB);
+			encoded = new EncodedMessage(text, StandardCharsets.UTF_8);
+			chars = CharBuffer.allocate(BenchmarkData.KB);
+		}
+	}
+
+	@Benchmark
+	public EncodedMessage textLegacy(final Text text)
+	{
+		return new EncodedMessage(text.text);
+	}
+
+	@Benchmark
+	public EncodedMessage textUtf8(final Text text)
+	{
+		return new EncodedMessage(text.text, StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public String textDecodeLegacy(final Text text)
+	{
+		return new String(text.encoded.getDecoded(text.encoded.getMap()), StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public int textDecodeUtf8(final Text text)
+	{
+		text.chars.clear();
+		return text.encoded.getDecoded(text.encoded.getMap(), StandardCharsets.UTF_8, text.chars);
+	}
+
+	@Benchmark
+	public byte textPooled(final Text text)
+	{
+		try(ScratchArena arena = ScratchArena.open())
+		{
+			final EncodedMessage pooled = new EncodedMessage(text.text, StandardCharsets.UTF_8, arena);
+			return pooled.getDecoded(pooled.getMap(), arena)[0];
+		}
+	}
+
+	/**
+	 * 64 KB stored within a temporary {@link Safe} file.
+	 */
+	@State(Scope.Thread)
+	public static class Stored
+	{
+		private Blueprint key;
+		private EncodedMessage message;
+		private File file;
+
+		@Setup
+		public void setup() throws IOException
+		{
+			final byte[] data = BenchmarkData.repeated(64 * BenchmarkData.KB);
+			key = new Smartprint(data);
+			message = new EncodedMessage(data, key);
+			file = File.createTempFile("benchmark", ".safe");
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown()
+		{
+			file.delete();
+		}
+	}
+
+	@Benchmark
+	public EncodedMessage safeRoundTrip(final Stored stored)
+	{
+		new Safe(stored.file.getAbsolutePath(), stored.message, stored.key).toFile();
+		return new Safe(stored.file).getMsg();
+	}
+
+}
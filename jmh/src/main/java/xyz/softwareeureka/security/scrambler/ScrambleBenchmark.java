@@ -0,0 +1,75 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures Byte Array scrambling through {@link ByteTools}, whole, in
+ * place, and through compiled {@link MaskPlanes}.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see ByteTools
+ * @see MaskPlanes
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScrambleBenchmark
+{
+
+	@Param({"1024", "1048576", "104857600"})
+	public int size;
+
+	private byte[] data, inPlace;
+	private Blueprint key;
+	private MaskPlanes planes;
+
+	@Setup
+	public void setup()
+	{
+		data = BenchmarkData.repeated(size);
+		inPlace = data.clone();
+		key = new Smartprint(data);
+		planes = MaskPlanes.compile(key);
+	}
+
+	@Benchmark
+	public byte[] array()
+	{
+		return ByteTools.scramble(data, key);
+	}
+
+	/**
+	 * Alternates between scrambled and unscrambled.
+	 */
+	@Benchmark
+	public byte[] inPlace()
+	{
+		ByteTools.scrambleInPlace(inPlace, key);
+		return inPlace;
+	}
+
+	@Benchmark
+	public byte[] masks()
+	{
+		return planes.scramble(data);
+	}
+
+}
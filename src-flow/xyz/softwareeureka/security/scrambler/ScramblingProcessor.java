@@ -0,0 +1,554 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link Flow.Processor} which scrambles every Byte passing through it
+ * with a {@link Blueprint}, for reactive pipelines. The position within the
+ * {@link Blueprint} carries over between Buffers, as with
+ * {@link ScramblingOutputStream}. Scrambling with a {@link Blueprint} is its
+ * own inverse, a second {@link ScramblingProcessor} with the same
+ * {@link Blueprint} unscrambles, see 'unscrambling'. <br><br>
+ *
+ * Demand is honoured both ways. Up to 'prefetch' Buffers are requested
+ * from upstream ahead of downstream demand, and replenished as they're
+ * used, so no more than 'prefetch' Buffers and one batch are held under
+ * any load. Buffers waiting when demand arrives, as they do when
+ * downstream falls behind a burst, are batched up to 'batchSize' Bytes and
+ * scrambled together into a single new Buffer. A Buffer larger than a
+ * batch is passed on alone. Received Buffers are never modified. <br><br>
+ *
+ * Scrambling runs on the Thread signalling it, or on a supplied
+ * {@link Executor}, never on two Threads at once. An unbounded
+ * {@link CyclicBlueprint} never runs out, any other {@link Blueprint}
+ * shorter than the stream fails it with an {@link IOException}. <br><br>
+ *
+ * Lives within its own source root as {@link Flow} requires Java 9, the
+ * rest of the library targets Java 8.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see ScramblingOutputStream
+ * @see ScramblingWritableByteChannel
+ * @see Blueprint
+ */
+public final class ScramblingProcessor implements Flow.Processor<ByteBuffer, ByteBuffer>
+{
+
+	/**
+	 * Default most Bytes scrambled into one Buffer.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 8192;
+
+	/**
+	 * Default most Buffers requested from upstream at a time.
+	 */
+	public static final int DEFAULT_PREFETCH = 16;
+
+	/**
+	 * {@link Blueprint} to scramble with.
+	 */
+	private final Blueprint cipher;
+
+	/**
+	 * Runs the scrambling, Null to run on the signalling Thread.
+	 */
+	private final Executor executor;
+
+	private final int batchSize, prefetch;
+
+	/**
+	 * Buffers received but not yet scrambled.
+	 */
+	private final ConcurrentLinkedQueue<ByteBuffer> inbound = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Signals not yet seen by 'drain'. Only the caller raising it from Zero
+	 * drains, so scrambling and downstream signals are never concurrent.
+	 */
+	private final AtomicInteger pending = new AtomicInteger();
+
+	/**
+	 * Buffers requested by downstream and not yet passed on.
+	 */
+	private final AtomicLong demand = new AtomicLong();
+
+	private final AtomicReference<Flow.Subscription> upstream = new AtomicReference<>();
+	private final AtomicReference<Flow.Subscriber<? super ByteBuffer>> downstream = new AtomicReference<>();
+
+	private volatile boolean upstreamDone = false, cancelled = false;
+	private volatile Throwable error = null;
+
+	/**
+	 * Position within the {@link Blueprint} of the next Byte.
+	 */
+	private volatile int keyPosition;
+
+	/**
+	 * Buffers requested from upstream and not yet scrambled, at most
+	 * 'prefetch'. Only used by 'drain'.
+	 */
+	private int outstanding = 0;
+
+	/**
+	 * True once downstream was completed, failed or cancelled. Only used by
+	 * 'drain'.
+	 */
+	private boolean terminated = false;
+
+	/**
+	 * Creates a {@link ScramblingProcessor} scrambling with the parameter
+	 * 'cipher' from its first entry, on the signalling Thread, with the
+	 * default batch size and prefetch.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher with.
+	 */
+	public ScramblingProcessor(final Blueprint cipher)
+	{
+		this(cipher, 0, null, DEFAULT_BATCH_SIZE, DEFAULT_PREFETCH);
+	}
+
+	/**
+	 * Creates a {@link ScramblingProcessor} scrambling with the parameter
+	 * 'cipher' from entry 'key_offset'.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher with.
+	 * @param key_offset - Entry of the {@link Blueprint} used by the first Byte.
+	 * @param executor - Runs the scrambling, Null for the signalling Thread.
+	 * @param batch_size - Most Bytes scrambled into one Buffer.
+	 * @param prefetch - Most Buffers requested from upstream at a time.
+	 * @throws IllegalArgumentException - If 'cipher' is Null, or a size
+	 * isn't positive.
+	 */
+	public ScramblingProcessor(final Blueprint cipher, final int key_offset, final Executor executor,
+			final int batch_size, final int prefetch)
+	{
+		if(cipher == null || batch_size <= 0 || prefetch <= 0)
+			throw new IllegalArgumentException("Null Blueprint, or invalid batch size or prefetch.");
+		ByteTools.checkRegion(cipher.length(), key_offset, 0);
+		this.cipher = cipher;
+		this.executor = executor;
+		this.batchSize = batch_size;
+		this.prefetch = prefetch;
+		keyPosition = cipher.wrap(key_offset);
+	}
+
+	/**
+	 * Creates a {@link ScramblingProcessor} unscrambling what was scrambled
+	 * with 'cipher' from its first entry. The same as scrambling again, the
+	 * name documents intent within a pipeline.
+	 * @param cipher - {@link Blueprint} the Bytes were scrambled with.
+	 * @param executor - Runs the unscrambling, Null for the signalling Thread.
+	 * @return Unscrambling {@link ScramblingProcessor}.
+	 */
+	public static ScramblingProcessor unscrambling(final Blueprint cipher, final Executor executor)
+	{
+		return new ScramblingProcessor(cipher, 0, executor, DEFAULT_BATCH_SIZE, DEFAULT_PREFETCH);
+	}
+
+	/**
+	 * Returns the position within the {@link Blueprint} of the next Byte.
+	 * An unbounded {@link CyclicBlueprint} wraps back within its first
+	 * period.
+	 * @return Position of the next Byte within the {@link Blueprint}.
+	 */
+	public int getKeyPosition()
+	{
+		return keyPosition;
+	}
+
+	@Override
+	public void subscribe(final Flow.Subscriber<? super ByteBuffer> subscriber)
+	{
+		if(subscriber == null)
+			throw new NullPointerException("Null Subscriber.");
+		if(!downstream.compareAndSet(null, subscriber))
+		{
+			subscriber.onSubscribe(new Flow.Subscription() {
+				public void request(final long n) {}
+				public void cancel() {}
+			});
+			subscriber.onError(new IllegalStateException("ScramblingProcessor allows a single Subscriber."));
+			return;
+		}
+		subscriber.onSubscribe(new Flow.Subscription() {
+			@Override
+			public void request(final long n)
+			{
+				if(n <= 0)
+					fail(new IllegalArgumentException("Non positive request: " + n));
+				else
+					demand.getAndUpdate(current -> (Long.MAX_VALUE - current < n) ? Long.MAX_VALUE : current + n);
+				signal();
+			}
+
+			@Override
+			public void cancel()
+			{
+				cancelled = true;
+				signal();
+			}
+		});
+		signal();
+	}
+
+	@Override
+	public void onSubscribe(final Flow.Subscription subscription)
+	{
+		if(!upstream.compareAndSet(null, subscription))
+		{
+			subscription.cancel();
+			return;
+		}
+		signal();
+	}
+
+	@Override
+	public void onNext(final ByteBuffer item)
+	{
+		inbound.offer(item);
+		signal();
+	}
+
+	@Override
+	public void onError(final Throwable throwable)
+	{
+		fail(throwable);
+		signal();
+	}
+
+	@Override
+	public void onComplete()
+	{
+		upstreamDone = true;
+		signal();
+	}
+
+	/**
+	 * Records the first failure, ending the stream.
+	 * @param throwable - Failure.
+	 */
+	private void fail(final Throwable throwable)
+	{
+		if(error == null)
+			error = throwable;
+		upstreamDone = true;
+	}
+
+	/**
+	 * Schedules 'drain', on the {@link Executor} if there is one.
+	 */
+	private void signal()
+	{
+		if(pending.getAndIncrement() != 0)
+			return;
+		if(executor == null)
+			drain();
+		else
+			executor.execute(this::drain);
+	}
+
+	/**
+	 * Passes on batches while there's demand, then requests more from
+	 * upstream. Repeats while signals arrived meanwhile.
+	 */
+	private void drain()
+	{
+		int missed = 1;
+		do
+		{
+			if(!terminated)
+				step();
+			missed = pending.addAndGet(-missed);
+		}
+		while(missed != 0);
+	}
+
+	private void step()
+	{
+		final Flow.Subscriber<? super ByteBuffer> subscriber = downstream.get();
+		if(subscriber == null)
+			return;
+		if(cancelled || error != null)
+		{
+			terminate();
+			if(!cancelled)
+				subscriber.onError(error);
+			return;
+		}
+
+		long emitted = 0;
+		final long requested = demand.get();
+		while(emitted < requested && !inbound.isEmpty())
+		{
+			final ByteBuffer batch;
+			try
+			{
+				batch = batch();
+			}
+			catch (IOException e)
+			{
+				fail(e);
+				terminate();
+				subscriber.onError(e);
+				return;
+			}
+			subscriber.onNext(batch);
+			emitted ++;
+			if(cancelled)
+			{
+				terminate();
+				return;
+			}
+		}
+		if(emitted > 0 && requested != Long.MAX_VALUE)
+			demand.addAndGet(-emitted);
+
+		if(inbound.isEmpty() && upstreamDone)
+		{
+			terminated = true;
+			if(error != null)
+				subscriber.onError(error);
+			else
+				subscriber.onComplete();
+			return;
+		}
+		// Replenish once half of the prefetched Buffers were used.
+		final Flow.Subscription subscription = upstream.get();
+		if(subscription != null && !upstreamDone && outstanding <= prefetch / 2)
+		{
+			final int missing = prefetch - outstanding;
+			outstanding = prefetch;
+			subscription.request(missing);
+		}
+	}
+
+	/**
+	 * Scrambles the waiting Buffers, up to a batch, into a new Buffer.
+	 * @return Scrambled Bytes, between position and limit.
+	 * @throws IOException - If the {@link Blueprint} runs out.
+	 */
+	private ByteBuffer batch() throws IOException
+	{
+		int total = 0, count = 0;
+		for(final ByteBuffer item : inbound)
+		{
+			if(count > 0 && total + item.remaining() > batchSize)
+				break;
+			total += item.remaining();
+			count ++;
+		}
+		final ByteBuffer batch = ByteBuffer.allocate(total);
+		int written = 0;
+		for(int i = 0; i < count; i ++)
+		{
+			final ByteBuffer item = inbound.poll();
+			outstanding = Math.max(0, outstanding - 1);
+			final int length = item.remaining();
+			if(length > cipher.length() - keyPosition)
+				throw new IOException("Blueprint exhausted at Byte " + keyPosition + " of " + cipher.length());
+			ByteTools.scramble(item, item.position(), batch, written, length, cipher, keyPosition);
+			keyPosition = cipher.wrap(keyPosition + length);
+			written += length;
+		}
+		return batch;
+	}
+
+	/**
+	 * Ends the stream, cancelling upstream and dropping waiting Buffers.
+	 */
+	private void terminate()
+	{
+		terminated = true;
+		inbound.clear();
+		final Flow.Subscription subscription = upstream.getAndSet(new Flow.Subscription() {
+			public void request(final long n) {}
+			public void cancel() {}
+		});
+		if(subscription != null)
+			subscription.cancel();
+	}
+
+	/**
+	 * Collects every Buffer of a stream, requesting 'per_request' at a time.
+	 */
+	private static final class Collector implements Flow.Subscriber<ByteBuffer>
+	{
+		private final int perRequest;
+		private final boolean startNow;
+		private final List<ByteBuffer> received = new ArrayList<>();
+		private final CountDownLatch done = new CountDownLatch(1);
+		private Flow.Subscription subscription;
+		private long unmet = 0;
+		private volatile boolean overflowed = false;
+		private volatile Throwable error = null;
+
+		Collector(final int per_request, final boolean start_now)
+		{
+			perRequest = per_request;
+			startNow = start_now;
+		}
+
+		@Override
+		public void onSubscribe(final Flow.Subscription subscription)
+		{
+			this.subscription = subscription;
+			if(startNow)
+				start();
+		}
+
+		/**
+		 * Makes the first request.
+		 */
+		void start()
+		{
+			unmet = perRequest;
+			subscription.request(perRequest);
+		}
+
+		@Override
+		public void onNext(final ByteBuffer item)
+		{
+			received.add(item);
+			overflowed |= -- unmet < 0;
+			if(unmet == 0)
+			{
+				unmet = perRequest;
+				subscription.request(perRequest);
+			}
+		}
+
+		@Override
+		public void onError(final Throwable throwable)
+		{
+			error = throwable;
+			done.countDown();
+		}
+
+		@Override
+		public void onComplete()
+		{
+			done.countDown();
+		}
+
+		byte[] bytes()
+		{
+			int total = 0;
+			for(final ByteBuffer buffer : received)
+				total += buffer.remaining();
+			final byte[] bytes = new byte[total];
+			int offset = 0;
+			for(final ByteBuffer buffer : received)
+			{
+				final int length = buffer.remaining();
+				buffer.duplicate().get(bytes, offset, length);
+				offset += length;
+			}
+			return bytes;
+		}
+	}
+
+	/**
+	 * Tests the {@link ScramblingProcessor}. Many small Buffers, and a few
+	 * larger than a batch, are published through a scrambling then an
+	 * unscrambling {@link ScramblingProcessor}, the first on an
+	 * {@link Executor}, to a Subscriber requesting a couple at a time. The
+	 * same are scrambled for a Subscriber starting after a burst. If no
+	 * more than requested arrives, the burst is batched, the
+	 * scrambled stream matches the whole Data scrambled at once, the Data
+	 * comes back and a short {@link Blueprint} fails the stream, our code
+	 * works.
+	 *
+	 * @return True if {@link ScramblingProcessor} works as intended.
+	 */
+	public static boolean test()
+	{
+		System.out.println("Beginning Scrambling Processor Tests...");
+		final byte[] original_bytes = ByteTools.repeatedTestBytes(2000);
+		final CyclicBlueprint cipher = new CyclicBlueprint(new SeededBlueprint(97));
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		boolean success = false;
+		try
+		{
+			final ScramblingProcessor scrambler = new ScramblingProcessor(cipher, 0, executor, 4096, 8);
+			final ScramblingProcessor unscrambler = unscrambling(cipher, null);
+			final Collector scrambled = new Collector(2, false), unscrambled = new Collector(3, true);
+			final SubmissionPublisher<ByteBuffer> publisher = new SubmissionPublisher<>(executor, 64);
+			publisher.subscribe(scrambler);
+			scrambler.subscribe(unscrambler);
+			unscrambler.subscribe(unscrambled);
+
+			final SubmissionPublisher<ByteBuffer> tapped = new SubmissionPublisher<>(executor, 128);
+			final ScramblingProcessor tap = new ScramblingProcessor(cipher, 0, null, 4096, 8);
+			tapped.subscribe(tap);
+			tap.subscribe(scrambled);
+
+			final Random random = new Random(7);
+			int offset = 0, items = 0;
+			while(offset < original_bytes.length)
+			{
+				final int length = Math.min(original_bytes.length - offset, (random.nextInt(10) == 0) ? 10000 : 1 + random.nextInt(300));
+				publisher.submit(ByteBuffer.wrap(original_bytes, offset, length).asReadOnlyBuffer());
+				tapped.submit(ByteBuffer.wrap(original_bytes, offset, length));
+				offset += length;
+				items ++;
+			}
+			publisher.close();
+			tapped.close();
+			// Downstream only starts once a burst is waiting, to be batched.
+			for(int waited = 0; tap.inbound.size() < 8 && waited < 1000; waited ++)
+				Thread.sleep(10);
+			scrambled.start();
+			final boolean finished = scrambled.done.await(30, TimeUnit.SECONDS) && unscrambled.done.await(30, TimeUnit.SECONDS);
+
+			final ScramblingProcessor short_key = new ScramblingProcessor(new SeededBlueprint(100));
+			final Collector exhausted = new Collector(1, true);
+			final SubmissionPublisher<ByteBuffer> short_publisher = new SubmissionPublisher<>(executor, 4);
+			short_publisher.subscribe(short_key);
+			short_key.subscribe(exhausted);
+			short_publisher.submit(ByteBuffer.wrap(original_bytes, 0, 60));
+			short_publisher.submit(ByteBuffer.wrap(original_bytes, 60, 60));
+			short_publisher.close();
+			final boolean fails = exhausted.done.await(30, TimeUnit.SECONDS) && exhausted.error instanceof IOException;
+
+			final boolean match = finished && scrambled.error == null && unscrambled.error == null
+					&& Arrays.equals(scrambled.bytes(), ByteTools.scramble(original_bytes, cipher))
+					&& Arrays.equals(unscrambled.bytes(), original_bytes);
+			final boolean batched = scrambled.received.size() < items;
+			final boolean bounded = !scrambled.overflowed && !unscrambled.overflowed;
+			success = match && batched && bounded && fails;
+
+			System.out.println("Match: " + match);
+			System.out.println("Batched: " + items + " into " + scrambled.received.size());
+			System.out.println("Bounded: " + bounded);
+			System.out.println("Exhausted: " + fails);
+		}
+		catch (InterruptedException e)
+		{
+			e.printStackTrace();
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+		System.out.println("Success: " + success + "\n");
+		return success;
+	}
+}
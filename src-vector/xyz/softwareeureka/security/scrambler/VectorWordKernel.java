@@ -0,0 +1,99 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.nio.ByteOrder;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A {@link WordKernel} built upon the incubating Vector API, scrambling
+ * as many words at once as the widest Vector of the machine holds (4 with
+ * AVX2, 8 with AVX-512). The masks are applied exactly as
+ * {@link MaskPlanes#apply(long, long, long, long)} does, lane by lane.
+ * A block of words holding any Byte the masks aren't exact for is handed
+ * to the scalar kernel. It runs for {@link MaskPlanes} compiled by the
+ * caller, and for long runs of {@link ByteTools} scrambling with a
+ * {@link CyclicBlueprint}. <br><br>
+ *
+ * Requires Java 16 or later, compiled and run with
+ * '--add-modules jdk.incubator.vector'. {@link MaskPlanes} loads this
+ * Class only if that module is present, so the rest of the library runs
+ * without it.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see MaskPlanes
+ * @see WordKernel
+ */
+final class VectorWordKernel implements WordKernel
+{
+
+	private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+	private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+
+	/**
+	 * Only little endian machines are supported, as the masks hold the
+	 * first Byte of a word within its lowest Bits. The preferred long and
+	 * Byte Vectors must be the same width, as the Bytes are reinterpreted
+	 * as longs.
+	 */
+	VectorWordKernel()
+	{
+		if(ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN)
+			throw new UnsupportedOperationException("Vector kernel needs a little endian machine.");
+		if(LONGS.vectorBitSize() != BYTES.vectorBitSize())
+			throw new UnsupportedOperationException("Vector kernel needs long and Byte Vectors of the same width, not "
+					+ LONGS.vectorBitSize() + " and " + BYTES.vectorBitSize() + " Bits.");
+	}
+
+	@Override
+	public ValidationReport words(final MaskPlanes planes, final byte[] source, final int source_offset,
+			final byte[] target, final int target_offset, final int first_word, final int words,
+			final int data_length, ValidationReport report)
+	{
+		final int step = LONGS.length(), first_plane = (words > 0) ? planes.plane(first_word) : 0;
+		int w = 0;
+		for(; w + step <= words; w += step)
+		{
+			final int offset = w * MaskPlanes.LANES, word = first_word + w, plane = first_plane + w;
+			final LongVector x = ByteVector.fromArray(BYTES, source, source_offset + offset).reinterpretAsLongs();
+
+			final LongVector y = x.and(LongVector.fromArray(LONGS, planes.need, plane))
+					.or(LongVector.fromArray(LONGS, planes.always, plane));
+			final LongVector invalid = y.and(MaskPlanes.LOW_BITS).add(MaskPlanes.LOW_BITS).or(y)
+					.lanewise(VectorOperators.NOT).and(MaskPlanes.HIGH_BITS)
+					.or(x.and(LongVector.fromArray(LONGS, planes.forbid, plane)).and(MaskPlanes.HIGH_BITS));
+			if(invalid.reduceLanes(VectorOperators.OR) != 0)
+			{
+				report = planes.words(source, source_offset + offset, target, target_offset + offset, word, step,
+						data_length, report);
+				continue;
+			}
+
+			final LongVector t = x.lanewise(VectorOperators.LSHR, 1).lanewise(VectorOperators.XOR, x)
+					.and(LongVector.fromArray(LONGS, planes.swap, plane));
+			LongVector filled = x.or(x.lanewise(VectorOperators.LSHR, 1).and(MaskPlanes.LOW_BITS));
+			filled = filled.or(filled.lanewise(VectorOperators.LSHR, 2).and(0x3F3F3F3F3F3F3F3FL));
+			filled = filled.or(filled.lanewise(VectorOperators.LSHR, 4).and(0x0F0F0F0F0F0F0F0FL));
+			final LongVector inverse_all = filled.lanewise(VectorOperators.LSHR, 1).and(0x7E7E7E7E7E7E7E7EL);
+
+			x.lanewise(VectorOperators.XOR, t.or(t.lanewise(VectorOperators.LSHL, 1)))
+				.lanewise(VectorOperators.XOR, LongVector.fromArray(LONGS, planes.xor, plane))
+				.lanewise(VectorOperators.XOR, inverse_all.and(LongVector.fromArray(LONGS, planes.dynamic, plane)))
+				.reinterpretAsBytes().intoArray(target, target_offset + offset);
+		}
+		return planes.words(source, source_offset + (w * MaskPlanes.LANES), target,
+				target_offset + (w * MaskPlanes.LANES), first_word + w, words - w, data_length, report);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "vector (" + LONGS.length() + " words)";
+	}
+}
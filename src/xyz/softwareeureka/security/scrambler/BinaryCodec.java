@@ -0,0 +1,473 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * Converts Data to and from the Binary String form used by
+ * {@link ByteTools}, where each Byte or Character is written in Binary
+ * without leading Zeroes and delimited by '~'. The Binary digits of every
+ * Byte value are precomputed within a Table, so encoding copies digits
+ * straight into a caller supplied Array or {@link Appendable}, and
+ * decoding reads each digit once. Neither creates a String per Byte,
+ * splits with a regular expression or boxes. <br><br>
+ *
+ * The output matches the older {@link ByteTools} conversions exactly. A
+ * negative Byte is written as its Character, 16 digits, and any digits
+ * past the lowest 8 are dropped when decoding. Streams of any length may
+ * be converted a Buffer at a time.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see ByteTools
+ */
+public final class BinaryCodec
+{
+
+	/**
+	 * Delimiter between Bytes.
+	 */
+	public static final char DELIMITER = '~';
+
+	/**
+	 * The 8 Binary digits of every Byte value, padded with leading Zeroes,
+	 * laid out as [Byte][digit].
+	 */
+	private static final char[] DIGITS = new char[ScrambleTable.BYTE_VALUES * Byte.SIZE];
+
+	/**
+	 * Amount of digits of every Byte value, without leading Zeroes.
+	 */
+	private static final byte[] LENGTHS = new byte[ScrambleTable.BYTE_VALUES];
+
+	static
+	{
+		for(int value = 0; value < ScrambleTable.BYTE_VALUES; value ++)
+		{
+			for(int digit = 0; digit < Byte.SIZE; digit ++)
+				DIGITS[(value * Byte.SIZE) + digit] = (((value >>> (Byte.SIZE - 1 - digit)) & 1) != 0)
+						? ByteTools.BIT_ONE : ByteTools.BIT_ZERO;
+			LENGTHS[value] = (byte) ((value == 0) ? 1 : Integer.SIZE - Integer.numberOfLeadingZeros(value));
+		}
+	}
+
+	/**
+	 * Characters converted per Buffer when streaming.
+	 */
+	private static final int STREAM_BUFFER = 8192;
+
+	/**
+	 * Private Constructor as this is a Static Class.
+	 */
+	private BinaryCodec(){}
+
+	/**
+	 * Returns the amount of digits of a Character, without leading Zeroes.
+	 * @param char_ - Character to measure.
+	 * @return Amount of digits, 1 - 16.
+	 */
+	public static int digits(final char char_)
+	{
+		return (char_ > 0xFF) ? Byte.SIZE + LENGTHS[char_ >>> Byte.SIZE] : LENGTHS[char_];
+	}
+
+	/**
+	 * Returns the length of the Binary String of a region of Bytes.
+	 * @param bytes - Bytes to measure.
+	 * @param offset - Position of the first Byte.
+	 * @param length - Amount of Bytes.
+	 * @return Amount of Characters, delimiters included.
+	 */
+	public static int encodedLength(final byte[] bytes, final int offset, final int length)
+	{
+		ByteTools.checkRegion(bytes.length, offset, length);
+		long total = Math.max(0, length - 1);
+		for(int i = 0; i < length; i ++)
+			total += digits((char) bytes[offset + i]);
+		return checkedLength(total);
+	}
+
+	/**
+	 * Returns the length of the Binary String of some Text.
+	 * @param text - Text to measure.
+	 * @return Amount of Characters, delimiters included.
+	 */
+	public static int encodedLength(final CharSequence text)
+	{
+		long total = Math.max(0, text.length() - 1);
+		for(int i = 0; i < text.length(); i ++)
+			total += digits(text.charAt(i));
+		return checkedLength(total);
+	}
+
+	/**
+	 * Checks a Binary String fits within an Array.
+	 */
+	private static int checkedLength(final long length)
+	{
+		if(length > Integer.MAX_VALUE - 8)
+			throw new OutOfMemoryError("Binary String too long: " + length);
+		return (int) length;
+	}
+
+	/**
+	 * Writes the digits of a Character into 'target'.
+	 * @param char_ - Character to write.
+	 * @param target - Array to write into.
+	 * @param offset - Position of the first digit.
+	 * @return Position after the last digit.
+	 */
+	static int put(final char char_, final char[] target, int offset)
+	{
+		if(char_ > 0xFF)
+		{
+			final int high = char_ >>> Byte.SIZE, high_length = LENGTHS[high];
+			System.arraycopy(DIGITS, (high * Byte.SIZE) + Byte.SIZE - high_length, target, offset, high_length);
+			System.arraycopy(DIGITS, (char_ & 0xFF) * Byte.SIZE, target, offset + high_length, Byte.SIZE);
+			return offset + high_length + Byte.SIZE;
+		}
+		final int length = LENGTHS[char_];
+		System.arraycopy(DIGITS, (char_ * Byte.SIZE) + Byte.SIZE - length, target, offset, length);
+		return offset + length;
+	}
+
+	/**
+	 * Encodes a region of Bytes into 'target', which must hold
+	 * 'encodedLength' Characters from 'target_offset'.
+	 * @param bytes - Bytes to encode.
+	 * @param offset - Position of the first Byte.
+	 * @param length - Amount of Bytes.
+	 * @param target - Array to write the Binary String into.
+	 * @param target_offset - Position of the first Character within 'target'.
+	 * @return Amount of Characters written.
+	 */
+	public static int encode(final byte[] bytes, final int offset, final int length, final char[] target, final int target_offset)
+	{
+		ByteTools.checkRegion(bytes.length, offset, length);
+		int position = target_offset;
+		for(int i = 0; i < length; i ++)
+		{
+			if(i > 0)
+				target[position ++] = DELIMITER;
+			position = put((char) bytes[offset + i], target, position);
+		}
+		return position - target_offset;
+	}
+
+	/**
+	 * Encodes some Text into 'target', which must hold 'encodedLength'
+	 * Characters from 'target_offset'.
+	 * @param text - Text to encode.
+	 * @param target - Array to write the Binary String into.
+	 * @param target_offset - Position of the first Character within 'target'.
+	 * @return Amount of Characters written.
+	 */
+	public static int encode(final CharSequence text, final char[] target, final int target_offset)
+	{
+		int position = target_offset;
+		for(int i = 0; i < text.length(); i ++)
+		{
+			if(i > 0)
+				target[position ++] = DELIMITER;
+			position = put(text.charAt(i), target, position);
+		}
+		return position - target_offset;
+	}
+
+	/**
+	 * Encodes a region of Bytes onto 'out', a Buffer at a time.
+	 * @param bytes - Bytes to encode.
+	 * @param offset - Position of the first Byte.
+	 * @param length - Amount of Bytes.
+	 * @param out - Where to append the Binary String.
+	 * @throws IOException - If 'out' fails.
+	 */
+	public static void encode(final byte[] bytes, final int offset, final int length, final Appendable out) throws IOException
+	{
+		ByteTools.checkRegion(bytes.length, offset, length);
+		final char[] buffer = new char[Math.min(STREAM_BUFFER, 17 * Math.max(1, length))];
+		int position = 0;
+		for(int i = 0; i < length; i ++)
+		{
+			if(position > buffer.length - 17)
+			{
+				append(out, buffer, position);
+				position = 0;
+			}
+			if(i > 0)
+				buffer[position ++] = DELIMITER;
+			position = put((char) bytes[offset + i], buffer, position);
+		}
+		append(out, buffer, position);
+	}
+
+	/**
+	 * Encodes some Text onto 'out', a Buffer at a time.
+	 * @param text - Text to encode.
+	 * @param out - Where to append the Binary String.
+	 * @throws IOException - If 'out' fails.
+	 */
+	public static void encode(final CharSequence text, final Appendable out) throws IOException
+	{
+		final char[] buffer = new char[Math.min(STREAM_BUFFER, 17 * Math.max(1, text.length()))];
+		int position = 0;
+		for(int i = 0; i < text.length(); i ++)
+		{
+			if(position > buffer.length - 17)
+			{
+				append(out, buffer, position);
+				position = 0;
+			}
+			if(i > 0)
+				buffer[position ++] = DELIMITER;
+			position = put(text.charAt(i), buffer, position);
+		}
+		append(out, buffer, position);
+	}
+
+	/**
+	 * Appends Characters to 'out', in bulk where it's able to.
+	 */
+	private static void append(final Appendable out, final char[] buffer, final int length) throws IOException
+	{
+		if(out instanceof StringBuilder)
+			((StringBuilder) out).append(buffer, 0, length);
+		else if(out instanceof Writer)
+			((Writer) out).write(buffer, 0, length);
+		else
+			out.append(CharBuffer.wrap(buffer, 0, length));
+	}
+
+	/**
+	 * Encodes every Byte of 'in' onto 'out', a Buffer at a time. Neither
+	 * Stream is closed.
+	 * @param in - Bytes to encode.
+	 * @param out - Where to write the Binary String.
+	 * @throws IOException - If either Stream fails.
+	 */
+	public static void encode(final InputStream in, final Writer out) throws IOException
+	{
+		final byte[] bytes = new byte[STREAM_BUFFER / 4];
+		final char[] chars = new char[(bytes.length * 17) + 1];
+		boolean first = true;
+		int read;
+		while((read = in.read(bytes)) >= 0)
+		{
+			if(read == 0)
+				continue;
+			int position = 0;
+			if(!first)
+				chars[position ++] = DELIMITER;
+			position += encode(bytes, 0, read, chars, position);
+			out.write(chars, 0, position);
+			first = false;
+		}
+	}
+
+	/**
+	 * Returns the amount of Bytes within a Binary String.
+	 * @param binary - Binary String to measure.
+	 * @return Amount of delimited Bytes, Zero if empty.
+	 */
+	public static int decodedLength(final CharSequence binary)
+	{
+		int end = binary.length();
+		// Trailing delimiters are dropped, as String.split would.
+		while(end > 0 && binary.charAt(end - 1) == DELIMITER)
+			end --;
+		if(end == 0)
+			return 0;
+		int count = 1;
+		for(int i = 0; i < end; i ++)
+			if(binary.charAt(i) == DELIMITER)
+				count ++;
+		return count;
+	}
+
+	/**
+	 * Decodes a Binary String into 'target', which must hold
+	 * 'decodedLength' Bytes from 'offset'. Each Byte keeps the lowest 8
+	 * Bits of its digits.
+	 * @param binary - Binary String to decode.
+	 * @param target - Array to write the Bytes into.
+	 * @param offset - Position of the first Byte within 'target'.
+	 * @return Amount of Bytes written.
+	 * @throws NumberFormatException - If a Byte is empty or holds anything
+	 * other than Binary digits.
+	 */
+	public static int decode(final CharSequence binary, final byte[] target, final int offset)
+	{
+		int end = binary.length();
+		// Trailing delimiters are dropped, as String.split would.
+		while(end > 0 && binary.charAt(end - 1) == DELIMITER)
+			end --;
+		// Every Byte but the last takes two Characters at least, counting
+		// the Bytes is only needed when 'target' may be too short.
+		if(offset < 0 || target.length - offset < (end + 1) / 2)
+			ByteTools.checkRegion(target.length, offset, decodedLength(binary));
+		int position = offset, value = 0, digits = 0;
+		for(int i = 0; i < end; i ++)
+		{
+			final char char_ = binary.charAt(i);
+			if(char_ == DELIMITER)
+			{
+				if(digits == 0)
+					throw new NumberFormatException("Empty Byte at " + i);
+				target[position ++] = (byte) value;
+				value = 0;
+				digits = 0;
+			}
+			else
+			{
+				value = (value << 1) | digit(char_, i);
+				digits ++;
+			}
+		}
+		if(digits > 0)
+			target[position ++] = (byte) value;
+		return position - offset;
+	}
+
+	/**
+	 * Decodes a Binary String into a new Array.
+	 * @param binary - Binary String to decode.
+	 * @return Decoded Bytes.
+	 * @throws NumberFormatException - If a Byte is empty or holds anything
+	 * other than Binary digits.
+	 */
+	public static byte[] decode(final CharSequence binary)
+	{
+		final byte[] bytes = new byte[decodedLength(binary)];
+		decode(binary, bytes, 0);
+		return bytes;
+	}
+
+	/**
+	 * Decodes every Binary String read from 'in' onto 'out', a Buffer at a
+	 * time. Neither Stream is closed.
+	 * @param in - Binary String to decode.
+	 * @param out - Where to write the Bytes.
+	 * @throws IOException - If either Stream fails.
+	 * @throws NumberFormatException - If a Byte is empty or holds anything
+	 * other than Binary digits.
+	 */
+	public static void decode(final Reader in, final OutputStream out) throws IOException
+	{
+		final char[] chars = new char[STREAM_BUFFER];
+		final byte[] bytes = new byte[STREAM_BUFFER];
+		int value = 0, digits = 0, pending_delimiters = 0;
+		long offset = 0;
+		int read;
+		while((read = in.read(chars)) >= 0)
+		{
+			int position = 0;
+			for(int i = 0; i < read; i ++, offset ++)
+			{
+				final char char_ = chars[i];
+				if(char_ == DELIMITER)
+				{
+					pending_delimiters ++;
+					continue;
+				}
+				if(pending_delimiters > 0)
+				{
+					if(pending_delimiters > 1 || digits == 0)
+						throw new NumberFormatException("Empty Byte at " + offset);
+					bytes[position ++] = (byte) value;
+					value = 0;
+					digits = 0;
+					pending_delimiters = 0;
+				}
+				value = (value << 1) | digit(char_, offset);
+				digits ++;
+			}
+			out.write(bytes, 0, position);
+		}
+		// Trailing delimiters are dropped, as String.split would.
+		if(digits > 0)
+			out.write(value);
+	}
+
+	/**
+	 * Reads a Binary digit.
+	 * @param char_ - Digit to read.
+	 * @param position - Position of the digit, for the Exception.
+	 * @return Zero or One.
+	 * @throws NumberFormatException - If not a Binary digit.
+	 */
+	private static int digit(final char char_, final long position)
+	{
+		final int digit = char_ - ByteTools.BIT_ZERO;
+		if((digit & ~1) == 0)
+			return digit;
+		throw new NumberFormatException("Not a Binary digit at " + position + ": " + char_);
+	}
+
+	/**
+	 * Tests the {@link BinaryCodec}. Every Byte value, and Text holding
+	 * wide Characters, are encoded into an Array, a StringBuilder and a
+	 * Stream, then decoded back from an Array and a Stream. If every
+	 * encoding matches the older Long.toBinaryString form and every
+	 * decode matches the original, our code works.
+	 *
+	 * @return True if {@link BinaryCodec} works as intended.
+	 */
+	public static boolean test()
+	{
+		System.out.println("Beginning Binary Codec Tests...");
+		final byte[] every_byte = new byte[ScrambleTable.BYTE_VALUES];
+		final StringBuilder expected_bytes = new StringBuilder();
+		for(int i = 0; i < every_byte.length; i ++)
+		{
+			every_byte[i] = (byte) i;
+			expected_bytes.append((i > 0) ? String.valueOf(DELIMITER) : "").append(Long.toBinaryString((char) every_byte[i]));
+		}
+		final String text = ByteTools.TEST_STR + "\u00E9\u20AC\u0100";
+		final StringBuilder expected_text = new StringBuilder();
+		for(int i = 0; i < text.length(); i ++)
+			expected_text.append((i > 0) ? String.valueOf(DELIMITER) : "").append(Long.toBinaryString(text.charAt(i)));
+
+		boolean success = false;
+		try
+		{
+			final char[] encoded = new char[encodedLength(every_byte, 0, every_byte.length)];
+			encode(every_byte, 0, every_byte.length, encoded, 0);
+			final StringBuilder appended = new StringBuilder();
+			encode(text, appended);
+			final StringWriter streamed = new StringWriter();
+			encode(new ByteArrayInputStream(every_byte), streamed);
+			final ByteArrayOutputStream decoded_stream = new ByteArrayOutputStream();
+			decode(new StringReader(streamed.toString()), decoded_stream);
+
+			final boolean encodes = new String(encoded).equals(expected_bytes.toString())
+					&& appended.toString().equals(expected_text.toString())
+					&& streamed.toString().equals(expected_bytes.toString())
+					&& encodedLength(text) == expected_text.length();
+			final boolean decodes = Arrays.equals(decode(CharBuffer.wrap(encoded)), every_byte)
+					&& Arrays.equals(decoded_stream.toByteArray(), every_byte)
+					&& decodedLength(expected_bytes + "~~") == every_byte.length
+					&& decode("").length == 0;
+			success = encodes && decodes;
+			System.out.println("Encodes: " + encodes);
+			System.out.println("Decodes: " + decodes);
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+
+		System.out.println("Success: " + success + "\n");
+		return success;
+	}
+}
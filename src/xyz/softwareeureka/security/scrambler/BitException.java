@@ -18,6 +18,15 @@ public final class BitException extends Exception
 		type = exception_type;
 	}
 	
+	/**
+	 * Returns the {@link ExceptionType} this Exception was raised with.
+	 * @return Type of Bit Calculation Error.
+	 */
+	public ExceptionType getType()
+	{
+		return type;
+	}
+	
 	@Override
 	public String getMessage() 
 	{
@@ -1,35 +1,100 @@
 package xyz.softwareeureka.security.scrambler;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * A Cipher Map. This Blueprint will enable Inheritors to create
  * variations of Byte Scrambler's which will allow for complex
  * Ciphers to be Masked and Unmasked with ease!  
+ * <br><br>
+ * Each {@link Type} and its Bit Index are packed together into a single
+ * Byte, so a {@link Blueprint} costs one Byte per Byte of message. The
+ * lower Bits hold the Index, the Bits above them hold the {@link Type}
+ * ordinal. Indexes which don't fit within a Byte are kept aside and 
+ * flagged within the packed Byte.
  *  
  * @author Owen McMonagle.
  * @since 05/11/2017 Updated 19/11/2017
- * @version 0.4
+ * @version 0.5
  */
 public abstract class Blueprint
 {
 	
 	/**
-	 * Each manipulation {@link Type}.
+	 * Mask of the Bit Index within a packed entry.
 	 */
-	private ArrayList<Type> manipulationTypes = new ArrayList<Type>(); 
+	static final int PACKED_INDEX_MASK = 0x07;
 	
 	/**
-	 * Indexes of each {@link Type} Position. Used to determine where
-	 * the {@link Type} will take place from within the Byte.
+	 * Shift of the {@link Type} ordinal within a packed entry.
 	 */
-	private byte[] indexes = new byte[0]; 
+	static final int PACKED_TYPE_SHIFT = 3;
+	
+	/**
+	 * Mask of the {@link Type} ordinal and Bit Index within a packed 
+	 * entry. Also the row of the entry within {@link ScrambleTable}.
+	 */
+	static final int PACKED_ROW_MASK = 0x3F;
+	
+	/**
+	 * Flags a packed entry which can't be described by its packed Bits, 
+	 * either its Index lies outside of the Byte or it has no {@link Type}
+	 * yet. Such entries must be read through 'getIndex' and 'getType'.
+	 */
+	static final int PACKED_ESCAPE = 0x40;
+	
+	/**
+	 * Cached {@link Type} values, to avoid cloning them per lookup.
+	 */
+	private static final Type[] TYPES = Type.values();
+	
+	/**
+	 * Each manipulation {@link Type} and its Index, packed into a Byte.
+	 * May be larger than the amount of entries in use. Null for a
+	 * {@link DerivedBlueprint}, whose entries are produced on demand.
+	 */
+	private byte[] packed = new byte[0];
+	
+	/**
+	 * Amount of {@link Type}s held within this {@link Blueprint}.
+	 */
+	private int typeCount = 0;
+	
+	/**
+	 * Amount of Indexes held within this {@link Blueprint}. Used to 
+	 * determine where the {@link Type} will take place from within 
+	 * the Byte.
+	 */
+	private int indexCount = 0;
+	
+	/**
+	 * Full Indexes, only created once an Index doesn't fit within the
+	 * packed Bits. Null otherwise.
+	 */
+	private byte[] wideIndexes = null;
 	
 	/**
 	 * Default Constructor.
 	 */
 	public Blueprint() {}
 	
+	/**
+	 * Constructor for a {@link DerivedBlueprint}. No entries are stored,
+	 * each is produced on demand. Derived {@link Blueprint}s can't be
+	 * modified.
+	 * 
+	 * @param derived_length - Amount of entries.
+	 */
+	Blueprint(final int derived_length)
+	{
+		if(derived_length < 0)
+			throw new IllegalArgumentException("Negative length: " + derived_length);
+		packed = null;
+		typeCount = derived_length;
+		indexCount = derived_length;
+	}
+	
 	/**
 	 * Constructor for {@link Blueprint} re-construction via byte arrays.
 	 * 
@@ -40,12 +105,17 @@ public abstract class Blueprint
 	{
 		if(types != null && bit_indexes != null)
 		{
-			indexes = new byte[bit_indexes.length];
+			ensureCapacity(Math.max(types.length, bit_indexes.length));
+			indexCount = bit_indexes.length;
 			for(int i = 0; i < types.length; i ++)
 			{
-				this.manipulationTypes.add(Type.values()[types[i]]);
-				this.indexes[i] = bit_indexes[i];
+				final Type type = TYPES[types[i]];
+				packed[i] = (byte) (type.ordinal() << PACKED_TYPE_SHIFT);
+				typeCount ++;
+				putIndex(i, bit_indexes[i]);
 			}
+			for(int i = types.length; i < indexCount; i ++)
+				repack(i);
 		}
 	}
 	
@@ -71,7 +141,9 @@ public abstract class Blueprint
 	 */
 	public final Type getType(final int index)
 	{
-		return manipulationTypes.get(index);
+		if(index < 0 || index >= typeCount)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + typeCount);
+		return TYPES[(getPacked(index) & PACKED_ROW_MASK) >> PACKED_TYPE_SHIFT];
 	}
 	
 	/**
@@ -81,24 +153,42 @@ public abstract class Blueprint
 	 */
 	public final void setIndex(final int index, final byte index_value)
 	{
-		indexes[index] = index_value;
+		checkMutable();
+		if(index < 0 || index >= indexCount)
+			throw new ArrayIndexOutOfBoundsException(index);
+		putIndex(index, index_value);
 	}
 	
 	/**
-	 * Sets a new Index Array.
+	 * Sets a new Index Array. The Indexes are copied into this 
+	 * {@link Blueprint}.
 	 * @param array_of_indexes - Index Array to set.
 	 */
 	public final void setIndex(final byte[] array_of_indexes)
 	{
-		indexes = array_of_indexes;
+		checkMutable();
+		ensureCapacity(array_of_indexes.length);
+		wideIndexes = null;
+		for(int i = array_of_indexes.length; i < indexCount; i ++)
+			packed[i] &= ~PACKED_INDEX_MASK;
+		indexCount = array_of_indexes.length;
+		for(int i = 0; i < indexCount; i ++)
+			putIndex(i, array_of_indexes[i]);
 	}
 	
 	/**
-	 * Returns the Index positions as a Byte Array.
+	 * Returns the Index positions as a Byte Array. The Array is unpacked
+	 * into a new copy, changes to it won't reflect within this 
+	 * {@link Blueprint}. Use 'length' to find the amount of Indexes.
 	 * @return Byte Array of Index Positions. 
 	 */
 	public final byte[] getIndexes()
 	{
+		if(wideIndexes != null)
+			return Arrays.copyOf(wideIndexes, indexCount);
+		final byte[] indexes = new byte[indexCount];
+		for(int i = 0; i < indexCount; i ++)
+			indexes[i] = getIndex(i);
 		return indexes;
 	}
 	
@@ -109,7 +199,92 @@ public abstract class Blueprint
 	 */
 	public final byte getIndex(final int index)
 	{
-		return indexes[index];
+		if(index < 0 || index >= indexCount)
+			throw new ArrayIndexOutOfBoundsException(index);
+		if(wideIndexes != null)
+			return wideIndexes[index];
+		final byte entry = getPacked(index);
+		return ((entry & PACKED_ESCAPE) != 0 && packed == null) 
+				? ((DerivedBlueprint) this).deriveIndex(index) : (byte) (entry & PACKED_INDEX_MASK);
+	}
+	
+	/**
+	 * Returns the amount of Indexes within this {@link Blueprint}. This
+	 * is the amount of Bytes it can scramble.
+	 * @return Amount of Indexes.
+	 */
+	public final int length()
+	{
+		return indexCount;
+	}
+	
+	/**
+	 * Bulk access to the packed {@link Type} and Index entries. The Array
+	 * is not copied and may be longer than 'length'. Entries flagged with
+	 * 'PACKED_ESCAPE' must be read through 'getIndex' and 'getType'.
+	 * @return Packed entries, or Null if this {@link Blueprint} is derived,
+	 * in which case 'fillPacked' must be used.
+	 */
+	final byte[] getPacked()
+	{
+		return packed;
+	}
+	
+	/**
+	 * Returns a single packed entry, stored or derived.
+	 * @param position - Position of the entry.
+	 * @return Packed entry.
+	 */
+	final byte getPacked(final int position)
+	{
+		return (packed != null) ? packed[position] : ((DerivedBlueprint) this).derive(position);
+	}
+	
+	/**
+	 * Copies a run of packed entries into 'target'. A 
+	 * {@link DerivedBlueprint} produces the run on demand.
+	 * @param from - Position of the first entry.
+	 * @param target - Array to copy the entries to.
+	 * @param offset - Position within 'target' of the first entry.
+	 * @param length - Amount of entries.
+	 */
+	void fillPacked(final int from, final byte[] target, final int offset, final int length)
+	{
+		System.arraycopy(packed, from, target, offset, length);
+	}
+	
+	/**
+	 * Returns the amount of Bytes of Data 'data_length' long this
+	 * {@link Blueprint} scrambles at once. Only the first 'length' Bytes
+	 * have an entry, a {@link CyclicBlueprint} covers the whole Data.
+	 * @param data_length - Length of the Data.
+	 * @return Amount of Bytes to scramble.
+	 */
+	int span(final int data_length)
+	{
+		return indexCount;
+	}
+	
+	/**
+	 * Maps a position to the earliest position holding the same entry. A
+	 * {@link CyclicBlueprint} repeats every period, so Streams can carry
+	 * on past the end of any amount of periods.
+	 * @param position - Position within this {@link Blueprint}.
+	 * @return Position holding the same entry.
+	 */
+	int wrap(final int position)
+	{
+		return position;
+	}
+	
+	/**
+	 * Checks whether the entries of this {@link Blueprint} are produced
+	 * on demand, rather than stored.
+	 * @return True if derived.
+	 */
+	public final boolean isDerived()
+	{
+		return packed == null;
 	}
 	
 	/**
@@ -118,9 +293,9 @@ public abstract class Blueprint
 	 */
 	public final void print()
 	{
-		for(int byte_ = 0; byte_ < indexes.length; byte_ ++)
-			System.out.println("Byte: " + byte_ + ", Index: " + indexes[byte_]
-					+ ", Type: " + manipulationTypes.get(byte_).toString());
+		for(int byte_ = 0; byte_ < indexCount; byte_ ++)
+			System.out.println("Byte: " + byte_ + ", Index: " + getIndex(byte_)
+					+ ", Type: " + getType(byte_).toString());
 	}
 	
 	/**
@@ -130,8 +305,131 @@ public abstract class Blueprint
 	 */
 	public final void addAll(ArrayList<Type> list)
 	{
+		checkMutable();
 		if(list != null)
-			manipulationTypes.addAll(list);
+		{
+			ensureCapacity(typeCount + list.size());
+			for(Type type : list)
+			{
+				packed[typeCount] = (byte) ((packed[typeCount] & PACKED_INDEX_MASK) 
+						| (type.ordinal() << PACKED_TYPE_SHIFT));
+				repack(typeCount ++);
+			}
+		}
+	}
+	
+	/**
+	 * Writes an Index into the packed entry. Indexes outside of the Byte
+	 * are moved into 'wideIndexes'.
+	 * @param index - Entry to write to.
+	 * @param index_value - Bit Index to write.
+	 */
+	private void putIndex(final int index, final byte index_value)
+	{
+		if(wideIndexes == null && (index_value & ~PACKED_INDEX_MASK) != 0)
+			wideIndexes = getIndexes();
+		if(wideIndexes != null)
+		{
+			if(wideIndexes.length < indexCount)
+				wideIndexes = Arrays.copyOf(wideIndexes, indexCount);
+			wideIndexes[index] = index_value;
+		}
+		packed[index] = (byte) ((packed[index] & ~PACKED_INDEX_MASK) | (index_value & PACKED_INDEX_MASK));
+		repack(index);
+	}
+	
+	/**
+	 * Updates the 'PACKED_ESCAPE' flag of an entry.
+	 * @param index - Entry to update.
+	 */
+	private void repack(final int index)
+	{
+		final boolean escape = index >= typeCount 
+				|| (wideIndexes != null && index < indexCount && (wideIndexes[index] & ~PACKED_INDEX_MASK) != 0);
+		packed[index] = (byte) (escape ? (packed[index] | PACKED_ESCAPE) : (packed[index] & ~PACKED_ESCAPE));
+	}
+	
+	/**
+	 * Takes ownership of fully generated packed entries, replacing any
+	 * held by this {@link Blueprint}. Entries with Indexes outside of the
+	 * Byte must already be flagged with 'PACKED_ESCAPE'.
+	 * @param packed_entries - Packed entries, one per Byte.
+	 * @param wide_indexes - Every Index, if any lies outside of the Byte.
+	 * Null otherwise.
+	 */
+	final void adopt(final byte[] packed_entries, final byte[] wide_indexes)
+	{
+		adopt(packed_entries, wide_indexes, packed_entries.length);
+	}
+	
+	/**
+	 * Takes ownership of the first 'length' generated packed entries, as
+	 * above. The Arrays may be longer, such as those lent by a
+	 * {@link ScratchArena}.
+	 * @param packed_entries - Packed entries, one per Byte.
+	 * @param wide_indexes - Every Index, if any lies outside of the Byte.
+	 * Null otherwise.
+	 * @param length - Amount of entries in use.
+	 */
+	final void adopt(final byte[] packed_entries, final byte[] wide_indexes, final int length)
+	{
+		checkMutable();
+		packed = packed_entries;
+		wideIndexes = wide_indexes;
+		typeCount = length;
+		indexCount = length;
+	}
+	
+	/**
+	 * Takes a copy of a run of the entries of 'source', so the run may be
+	 * handed out without keeping the rest of 'source' reachable. Full 
+	 * Indexes are copied alongside, if 'source' holds any.
+	 * @param source - {@link Blueprint} holding the entries.
+	 * @param from - Position within 'source' of the first entry.
+	 * @param length - Amount of entries.
+	 * @throws IndexOutOfBoundsException - If the run lies outside of 'source'.
+	 */
+	final void adoptRun(final Blueprint source, final int from, final int length)
+	{
+		ByteTools.checkRegion(source.length(), from, length);
+		final byte[] run = new byte[length];
+		source.fillPacked(from, run, 0, length);
+		byte[] wide = (source.wideIndexes != null) ? Arrays.copyOfRange(source.wideIndexes, from, from + length) : null;
+		// Derived Blueprints produce escaped Indexes on demand.
+		for(int i = 0; wide == null && i < length; i ++)
+			if((run[i] & PACKED_ESCAPE) != 0)
+			{
+				wide = new byte[length];
+				for(int w = 0; w < length; w ++)
+					wide[w] = source.getIndex(from + w);
+			}
+		adopt(run, wide, length);
+	}
+	
+	/**
+	 * Checks this {@link Blueprint} stores its entries, and so may be
+	 * modified.
+	 * @throws UnsupportedOperationException - If derived.
+	 */
+	private void checkMutable()
+	{
+		if(packed == null)
+			throw new UnsupportedOperationException("Derived Blueprints can't be modified.");
+	}
+	
+	/**
+	 * Grows the packed entries to hold at least 'capacity' entries.
+	 * @param capacity - Minimum amount of entries.
+	 */
+	private void ensureCapacity(final int capacity)
+	{
+		if(packed.length < capacity)
+		{
+			final int old_length = packed.length;
+			packed = Arrays.copyOf(packed, capacity);
+			for(int i = old_length; i < capacity; i ++)
+				packed[i] = PACKED_ESCAPE;
+		}
 	}
 	
 	/**
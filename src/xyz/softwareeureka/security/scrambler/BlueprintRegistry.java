@@ -0,0 +1,497 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps {@link Blueprint}s by key, such as a session, for many Threads at
+ * once. Lookups are a single read of a {@link ConcurrentHashMap}, they
+ * never lock and never wait on each other or on insertions. <br><br>
+ *
+ * Entries may expire a fixed time after they were put, and the amount of
+ * entries may be bounded, in which case the earliest put are evicted
+ * first. Both are enforced as entries are put, expired entries are also
+ * dropped as they're looked up. Optionally each {@link Blueprint} is
+ * compiled into {@link MaskPlanes} when put, so decoding starts straight
+ * away on the fastest path. Hits, misses and evictions are counted.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @param <K> - Type of the keys.
+ *
+ * @see Blueprint
+ * @see MaskPlanes
+ */
+public final class BlueprintRegistry<K>
+{
+
+	/**
+	 * No bound upon the amount of entries, or upon how long they're kept.
+	 */
+	public static final long UNBOUNDED = Long.MAX_VALUE;
+
+	/**
+	 * A kept {@link Blueprint}, compiled or not.
+	 */
+	private static final class Entry<K>
+	{
+		private final K key;
+		private final Blueprint cipher;
+
+		/**
+		 * Time the entry expires, in nano seconds of the registry's clock.
+		 */
+		private final long expires;
+
+		/**
+		 * Compiled {@link Blueprint}, or Null until compiled. Two Threads
+		 * may compile at once, either result is kept.
+		 */
+		private volatile MaskPlanes planes;
+
+		/**
+		 * Set by the one Thread taking the entry out of 'order'.
+		 */
+		private final AtomicBoolean claimed = new AtomicBoolean();
+
+		Entry(final K key, final Blueprint cipher, final long expires, final MaskPlanes planes)
+		{
+			this.key = key;
+			this.cipher = cipher;
+			this.expires = expires;
+			this.planes = planes;
+		}
+	}
+
+	private final ConcurrentHashMap<K, Entry<K>> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Every entry put, earliest first. As entries live equally long, also
+	 * in order of expiry. Only kept when entries are evicted. Replaced and
+	 * removed entries are left in place, and skipped once they reach the
+	 * head, or swept out once they outnumber the entries kept.
+	 */
+	private final ConcurrentLinkedQueue<Entry<K>> order = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Amount of entries within 'order', kept or not. Approximate, only
+	 * used to decide when to sweep.
+	 */
+	private final AtomicLong queued = new AtomicLong();
+
+	/**
+	 * Entries 'order' may hold beyond twice the amount kept before it's
+	 * swept.
+	 */
+	private static final long SWEEP_SLACK = 64;
+
+	/**
+	 * Most entries kept.
+	 */
+	private final long maximumSize;
+
+	/**
+	 * Time an entry is kept for, in nano seconds.
+	 */
+	private final long timeToLive;
+
+	/**
+	 * Compile each {@link Blueprint} into {@link MaskPlanes} when put.
+	 */
+	private final boolean precompile;
+
+	/**
+	 * Clock in nano seconds.
+	 */
+	private final LongSupplier clock;
+
+	/**
+	 * Amount of entries kept. Tracked apart from the map, as its size isn't
+	 * constant time.
+	 */
+	private final AtomicLong size = new AtomicLong();
+
+	private final LongAdder hits = new LongAdder(), misses = new LongAdder(), evictions = new LongAdder();
+
+	/**
+	 * Creates a registry keeping every entry until removed, uncompiled.
+	 */
+	public BlueprintRegistry()
+	{
+		this(UNBOUNDED, UNBOUNDED, TimeUnit.NANOSECONDS, false);
+	}
+
+	/**
+	 * Creates a bounded registry.
+	 * @param maximum_size - Most entries kept, or 'UNBOUNDED'.
+	 * @param time_to_live - Time an entry is kept for after being put, or
+	 * 'UNBOUNDED'.
+	 * @param unit - Unit of 'time_to_live'.
+	 * @param precompile - True to compile each {@link Blueprint} into
+	 * {@link MaskPlanes} when put.
+	 */
+	public BlueprintRegistry(final long maximum_size, final long time_to_live, final TimeUnit unit, final boolean precompile)
+	{
+		this(maximum_size, time_to_live, unit, precompile, System::nanoTime);
+	}
+
+	/**
+	 * Creates a bounded registry upon the parameter 'clock'.
+	 * @param clock - Clock in nano seconds.
+	 */
+	BlueprintRegistry(final long maximum_size, final long time_to_live, final TimeUnit unit, final boolean precompile,
+			final LongSupplier clock)
+	{
+		if(maximum_size <= 0 || time_to_live <= 0)
+			throw new IllegalArgumentException("Invalid size: " + maximum_size + " or time to live: " + time_to_live);
+		maximumSize = maximum_size;
+		timeToLive = (time_to_live == UNBOUNDED) ? UNBOUNDED : unit.toNanos(time_to_live);
+		this.precompile = precompile;
+		this.clock = clock;
+	}
+
+	/**
+	 * Keeps 'cipher' under 'key', replacing any {@link Blueprint} kept
+	 * under it. Evicts expired entries, then the earliest put while there
+	 * are too many.
+	 * @param key - Key to keep the {@link Blueprint} under.
+	 * @param cipher - {@link Blueprint} to keep.
+	 * @return The {@link Blueprint} replaced, or Null.
+	 * @throws IllegalArgumentException - If 'key' or 'cipher' is Null, or
+	 * 'cipher' can't be compiled when precompiling.
+	 */
+	public Blueprint put(final K key, final Blueprint cipher)
+	{
+		if(key == null || cipher == null)
+			throw new IllegalArgumentException("Null key or Blueprint.");
+		final long now = clock.getAsLong();
+		final Entry<K> entry = new Entry<>(key, cipher,
+				(timeToLive == UNBOUNDED) ? UNBOUNDED : now + timeToLive,
+				precompile ? MaskPlanes.compile(cipher) : null);
+		final Entry<K> replaced = entries.put(key, entry);
+		if(replaced == null)
+			size.incrementAndGet();
+		if(bounded())
+		{
+			order.add(entry);
+			queued.incrementAndGet();
+			evict(now);
+		}
+		return (replaced != null) ? replaced.cipher : null;
+	}
+
+	/**
+	 * Returns the {@link Blueprint} kept under 'key'.
+	 * @param key - Key of the {@link Blueprint}.
+	 * @return {@link Blueprint}, or Null if none is kept or it expired.
+	 */
+	public Blueprint get(final K key)
+	{
+		final Entry<K> entry = lookup(key);
+		return (entry != null) ? entry.cipher : null;
+	}
+
+	/**
+	 * Returns the {@link Blueprint} kept under 'key' compiled into
+	 * {@link MaskPlanes}, compiling it now if it wasn't when put.
+	 * @param key - Key of the {@link Blueprint}.
+	 * @return Compiled {@link Blueprint}, or Null if none is kept or it
+	 * expired.
+	 * @throws IllegalArgumentException - If it can't be compiled, see
+	 * {@link MaskPlanes#compile(Blueprint)}.
+	 */
+	public MaskPlanes getPlanes(final K key)
+	{
+		final Entry<K> entry = lookup(key);
+		if(entry == null)
+			return null;
+		MaskPlanes planes = entry.planes;
+		if(planes == null)
+			entry.planes = planes = MaskPlanes.compile(entry.cipher);
+		return planes;
+	}
+
+	/**
+	 * Stops keeping the {@link Blueprint} under 'key'.
+	 * @param key - Key of the {@link Blueprint}.
+	 * @return The {@link Blueprint} removed, or Null.
+	 */
+	public Blueprint remove(final K key)
+	{
+		final Entry<K> removed = entries.remove(key);
+		if(removed == null)
+			return null;
+		size.decrementAndGet();
+		return removed.cipher;
+	}
+
+	/**
+	 * Stops keeping every {@link Blueprint}. Not counted as evictions.
+	 */
+	public void clear()
+	{
+		for(final K key : entries.keySet())
+			if(entries.remove(key) != null)
+				size.decrementAndGet();
+		order.clear();
+		queued.set(0);
+	}
+
+	/**
+	 * Evicts every expired entry now, rather than as entries are put.
+	 */
+	public void cleanUp()
+	{
+		evict(clock.getAsLong());
+	}
+
+	/**
+	 * Returns the amount of entries kept, including any expired but not
+	 * yet evicted.
+	 * @return Amount of entries.
+	 */
+	public long size()
+	{
+		return size.get();
+	}
+
+	/**
+	 * Returns the amount of lookups which found a {@link Blueprint}.
+	 * @return Amount of hits.
+	 */
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the amount of lookups which found none, or an expired one.
+	 * @return Amount of misses.
+	 */
+	public long getMissCount()
+	{
+		return misses.sum();
+	}
+
+	/**
+	 * Returns the amount of entries evicted, for expiring or for there
+	 * being too many.
+	 * @return Amount of evictions.
+	 */
+	public long getEvictionCount()
+	{
+		return evictions.sum();
+	}
+
+	/**
+	 * Looks up the entry under 'key', dropping it if expired.
+	 * @param key - Key of the entry.
+	 * @return Entry, or Null.
+	 */
+	private Entry<K> lookup(final K key)
+	{
+		final Entry<K> entry = entries.get(key);
+		if(entry != null && entry.expires != UNBOUNDED && clock.getAsLong() - entry.expires >= 0)
+		{
+			if(entries.remove(key, entry))
+			{
+				size.decrementAndGet();
+				evictions.increment();
+			}
+			misses.increment();
+			return null;
+		}
+		(entry != null ? hits : misses).increment();
+		return entry;
+	}
+
+	/**
+	 * Evicts entries from the head of 'order' while they're expired, or
+	 * there are too many. Entries no longer kept are discarded as they
+	 * reach the head. If those left behind the head outnumber the entries
+	 * kept, 'order' is swept of them, so its length stays in proportion.
+	 * <br><br>
+	 * Only the Thread claiming an entry takes it out of 'order', so the
+	 * head it claimed is still first and comes out without a scan. Other
+	 * Threads look again once it's gone.
+	 * @param now - Current time of the clock.
+	 */
+	private void evict(final long now)
+	{
+		Entry<K> head;
+		while((head = order.peek()) != null)
+		{
+			final boolean kept = entries.get(head.key) == head;
+			if(kept && !(size.get() > maximumSize || (head.expires != UNBOUNDED && now - head.expires >= 0)))
+				break;
+			if(!head.claimed.compareAndSet(false, true))
+				continue;
+			order.remove(head);
+			queued.decrementAndGet();
+			if(kept && entries.remove(head.key, head))
+			{
+				size.decrementAndGet();
+				evictions.increment();
+			}
+		}
+		if(queued.get() > 2 * size.get() + SWEEP_SLACK)
+		{
+			order.removeIf(entry -> entries.get(entry.key) != entry && entry.claimed.compareAndSet(false, true));
+			queued.set(order.size());
+		}
+	}
+
+	/**
+	 * Checks whether entries are evicted, and so kept in 'order'.
+	 */
+	private boolean bounded()
+	{
+		return maximumSize != UNBOUNDED || timeToLive != UNBOUNDED;
+	}
+
+	/**
+	 * Tests the {@link BlueprintRegistry}. Keys are put past the size bound
+	 * and the time to live of a registry upon a hand driven clock, then
+	 * looked up, compiled and decoded from many Threads at once. If the
+	 * earliest entries are evicted, expired entries miss, replaced entries
+	 * are swept, a cyclic key compiles, Threads putting at once keep
+	 * within the bound, every Thread decodes the Test String and the
+	 * counters agree, our code works.
+	 *
+	 * @return True if {@link BlueprintRegistry} works as intended.
+	 */
+	public static boolean test()
+	{
+		System.out.println("Beginning Blueprint Registry Tests...");
+		final byte[] original_bytes = ByteTools.TEST_STR.getBytes();
+		final AtomicLong time = new AtomicLong();
+		final BlueprintRegistry<String> registry = new BlueprintRegistry<>(2, 10, TimeUnit.NANOSECONDS, true, time::get);
+
+		final Smartprint first = new Smartprint(original_bytes), second = new Smartprint(original_bytes),
+				third = new Smartprint(original_bytes);
+		registry.put("first", first);
+		time.set(5);
+		registry.put("second", second);
+		time.set(8);
+		registry.put("third", third);
+		final boolean bounded = registry.size() == 2 && registry.get("first") == null
+				&& registry.get("second") == second && registry.get("third") == third;
+		time.set(16);
+		final boolean expired = registry.get("second") == null && registry.get("third") == third;
+		time.set(20);
+		registry.cleanUp();
+		final boolean cleaned = registry.size() == 0 && registry.getEvictionCount() == 3
+				&& registry.getHitCount() == 3 && registry.getMissCount() == 2;
+
+		// Replacing and removing leave entries behind in 'order', which are swept.
+		final BlueprintRegistry<Integer> churned = new BlueprintRegistry<>(1000, UNBOUNDED, TimeUnit.NANOSECONDS, false);
+		for(int i = 0; i < 10000; i ++)
+		{
+			churned.put(i % 10, first);
+			if(i % 3 == 0)
+				churned.remove(i % 7);
+		}
+		final boolean swept = churned.size() <= 10 && churned.getEvictionCount() == 0
+				&& churned.queued.get() <= 2 * churned.size() + SWEEP_SLACK + 1 && churned.order.size() == churned.queued.get();
+
+		// An unbounded cyclic key compiles as well as any other.
+		final BlueprintRegistry<String> cyclic_registry = new BlueprintRegistry<>();
+		final CyclicBlueprint cyclic_key = new CyclicBlueprint(first);
+		cyclic_registry.put("cyclic", cyclic_key);
+		final boolean cyclic = new String(cyclic_registry.getPlanes("cyclic")
+				.scramble(ByteTools.scramble(original_bytes, cyclic_key))).equals(ByteTools.TEST_STR);
+
+		// Threads putting at once each evict the heads they claim.
+		final BlueprintRegistry<Integer> crowded = new BlueprintRegistry<>(64, UNBOUNDED, TimeUnit.NANOSECONDS, false);
+		final Thread[] putters = new Thread[4];
+		for(int t = 0; t < putters.length; t ++)
+		{
+			final int first_key = t * 2000;
+			putters[t] = new Thread(() -> {
+				for(int i = 0; i < 2000; i ++)
+					crowded.put(first_key + i, first);
+			});
+			putters[t].start();
+		}
+		boolean crowded_bound = true;
+		try
+		{
+			for(final Thread putter : putters)
+				putter.join();
+		}
+		catch (InterruptedException e)
+		{
+			crowded_bound = false;
+		}
+		crowded_bound &= crowded.size() <= 64 && crowded.size() + crowded.getEvictionCount() == putters.length * 2000
+				&& crowded.order.size() == crowded.queued.get();
+
+		final BlueprintRegistry<Integer> shared = new BlueprintRegistry<>();
+		final byte[][] scrambled = new byte[16][];
+		for(int i = 0; i < scrambled.length; i ++)
+		{
+			final Smartprint cipher = new Smartprint(original_bytes);
+			shared.put(i, cipher);
+			scrambled[i] = ByteTools.scramble(original_bytes, cipher);
+		}
+		final Thread[] threads = new Thread[4];
+		final CountDownLatch start = new CountDownLatch(1);
+		final boolean[] decoded = new boolean[threads.length];
+		for(int t = 0; t < threads.length; t ++)
+		{
+			final int thread = t;
+			threads[t] = new Thread(() -> {
+				boolean match = true;
+				try
+				{
+					start.await();
+					for(int i = 0; i < 1000; i ++)
+					{
+						final int key = i % scrambled.length;
+						match &= new String(shared.getPlanes(key).scramble(scrambled[key])).equals(ByteTools.TEST_STR);
+					}
+				}
+				catch (InterruptedException e)
+				{
+					match = false;
+				}
+				decoded[thread] = match;
+			});
+			threads[t].start();
+		}
+		start.countDown();
+		boolean concurrent = true;
+		try
+		{
+			for(int t = 0; t < threads.length; t ++)
+			{
+				threads[t].join();
+				concurrent &= decoded[t];
+			}
+		}
+		catch (InterruptedException e)
+		{
+			concurrent = false;
+		}
+		concurrent &= shared.getHitCount() == threads.length * 1000 && shared.getMissCount() == 0;
+
+		final boolean success = bounded && expired && cleaned && swept && cyclic && crowded_bound && concurrent;
+		System.out.println("Bounded: " + bounded);
+		System.out.println("Swept: " + swept);
+		System.out.println("Expired: " + expired);
+		System.out.println("Cleaned: " + cleaned);
+		System.out.println("Cyclic: " + cyclic);
+		System.out.println("Crowded: " + crowded_bound);
+		System.out.println("Concurrent: " + concurrent);
+		System.out.println("Success: " + success + "\n");
+		return success;
+	}
+}
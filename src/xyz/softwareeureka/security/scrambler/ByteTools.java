@@ -1,6 +1,11 @@
 package xyz.softwareeureka.security.scrambler;
 
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 import xyz.softwareeureka.security.scrambler.BitException.ExceptionType;
 
@@ -10,7 +15,7 @@ import xyz.softwareeureka.security.scrambler.BitException.ExceptionType;
  * Complement System and have not been tested outside of such.
  *  
  * @author Owen McMonagle.
- * @version 0.6
+ * @version 0.7
  * @since 05/11/2017 Updated 19/11/2017
  * 
  * @see Blueprint
@@ -62,6 +67,26 @@ public final class ByteTools
 	 */
 	public static final char BIT_ZERO = '0';
 	
+	/**
+	 * Default minimum Array length scrambled in parallel by 
+	 * 'scrambleParallel'. Shorter Arrays aren't worth the Thread hand off.
+	 * @since 0.7
+	 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 1024 * 1024;
+	
+	/**
+	 * Minimum run of Bytes scrambled with a {@link CyclicBlueprint} through
+	 * its compiled {@link MaskPlanes}, see 'scrambleRun'.
+	 * @since 0.7
+	 */
+	static final int KERNEL_THRESHOLD = 1024;
+	
+	/**
+	 * Prints recovered Bit Errors, as the Byte Functions always have.
+	 * @since 0.7
+	 */
+	private static final Consumer<BitException> PRINT_ERRORS = BitException::printStackTrace;
+	
 	/**
 	 * Private Constructor as this is a Static Class.
 	 * @since 0.1
@@ -77,7 +102,9 @@ public final class ByteTools
 	 */
 	public static boolean performTests()
 	{
-		return basicBinaryStrTests() && advancedBinaryStrTests() && basicBinaryTests() && advancedBinaryTests();
+		return basicBinaryStrTests() && advancedBinaryStrTests() && basicBinaryTests() && advancedBinaryTests()
+				&& ScrambleTable.test() && MaskPlanes.test() && parallelBinaryTests() && bufferBinaryTests()
+				&& BinaryCodec.test();
 	}
 
 	/**
@@ -243,6 +270,97 @@ public final class ByteTools
 	}
 	
 	
+	/**
+	 * Repeats the Bytes of the Test String, for the Tests needing more
+	 * Data than a single copy.
+	 * @param times - Amount of copies.
+	 * @return Test String Bytes, repeated 'times' over.
+	 * @since 0.7
+	 */
+	static byte[] repeatedTestBytes(final int times)
+	{
+		final byte[] test_bytes = TEST_STR.getBytes(), repeated = new byte[test_bytes.length * times];
+		for(int i = 0; i < repeated.length; i += test_bytes.length)
+			System.arraycopy(test_bytes, 0, repeated, i, test_bytes.length);
+		return repeated;
+	}
+	
+	/**
+	 * Tests the parallel scrambling functionality of the library. A large
+	 * repetition of the Test String is scrambled both sequentially and in 
+	 * parallel. If both match, and unscramble back to the repetition, our
+	 * code works. <br><br>
+	 * 
+	 * Tests Parallel Binary Scrambling Operations.
+	 * 
+	 * @return True if Tests Pass.
+	 * @since 0.7
+	 */
+	public static boolean parallelBinaryTests()
+	{
+		System.out.println("Beginning Parallel Binary Tests...");
+		final byte[] original_bytes = repeatedTestBytes(10000);
+		
+		final Smartprint cipher = new Smartprint(original_bytes);
+		final ForkJoinPool pool = ForkJoinPool.commonPool();
+		final byte[] sequential = scramble(original_bytes, cipher),
+				parallel = scrambleParallel(original_bytes, cipher, pool, 0),
+				unscrambled = scrambleParallel(parallel, cipher, pool, 0);
+		
+		final boolean match = Arrays.equals(sequential, parallel),
+				success = match && Arrays.equals(unscrambled, original_bytes);
+		
+		System.out.println("Bytes: " + original_bytes.length);
+		System.out.println("Match: " + match);
+		System.out.println("Success: " + success + "\n");
+		return success;
+	}
+	
+	/**
+	 * Tests the {@link ByteBuffer} scrambling functionality of the 
+	 * library. The Test String is scrambled in place within a heap and a
+	 * direct Buffer, each past a leading Byte, then from one Buffer into 
+	 * another. If each matches the Byte Array scramble, and the direct
+	 * Buffer unscrambles back, our code works. <br><br>
+	 * 
+	 * Tests Buffer Binary Scrambling Operations.
+	 * 
+	 * @return True if Tests Pass.
+	 * @since 0.7
+	 */
+	public static boolean bufferBinaryTests()
+	{
+		System.out.println("Beginning Buffer Binary Tests...");
+		final byte[] original_bytes = TEST_STR.getBytes();
+		final Smartprint cipher = new Smartprint(original_bytes);
+		final byte[] scrambled = scramble(original_bytes, cipher);
+		
+		final ByteBuffer heap = ByteBuffer.allocate(original_bytes.length + 1),
+				direct = ByteBuffer.allocateDirect(original_bytes.length + 1),
+				target = ByteBuffer.allocateDirect(original_bytes.length);
+		heap.put((byte) 0).put(original_bytes).flip().position(1);
+		direct.put((byte) 0).put(original_bytes).flip().position(1);
+		scramble(heap, cipher);
+		scramble(direct, cipher);
+		scramble(direct.duplicate(), target, cipher);
+		
+		final byte[] heap_bytes = new byte[original_bytes.length], direct_bytes = new byte[original_bytes.length],
+				target_bytes = new byte[original_bytes.length];
+		heap.duplicate().get(heap_bytes);
+		direct.duplicate().get(direct_bytes);
+		((ByteBuffer) target.flip()).get(target_bytes);
+		
+		final boolean match = Arrays.equals(heap_bytes, scrambled) && Arrays.equals(direct_bytes, scrambled)
+				&& heap.position() == 1 && direct.position() == 1,
+				success = match && Arrays.equals(target_bytes, original_bytes);
+		
+		System.out.println("Encoded: " + new String(direct_bytes));
+		System.out.println("Decoded: " + new String(target_bytes));
+		System.out.println("Match: " + match);
+		System.out.println("Success: " + success + "\n");
+		return success;
+	}
+	
 	/**
 	 * Takes a String, converts it to a Binary String and scrambles each 
 	 * Byte within it. The first Bit of every Byte will be inverted to 
@@ -287,12 +405,15 @@ public final class ByteTools
 	 */
 	public static StringBuilder basicScramble(final StringBuilder to_scramble, final boolean reverse)
 	{
-		final StringBuilder builder = new StringBuilder();
-		String[] bytes = to_scramble.toString().split(BYTE_DELIMITER);
-		builder.append(scramble(bytes[0], reverse));
-		for( int i = 1; i < bytes.length; i ++)
-			builder.append(BYTE_DELIMITER + scramble(bytes[i], reverse));
-		
+		final StringBuilder builder = new StringBuilder(to_scramble.length());
+		final String binary = to_scramble.toString();
+		for(int start = 0, end; start < binary.length(); start = end + 1)
+		{
+			end = nextDelimiter(binary, start);
+			if(start > 0)
+				builder.append(BinaryCodec.DELIMITER);
+			builder.append(scramble(binary.substring(start, end), reverse));
+		}
 		return builder;
 	}
 	
@@ -332,14 +453,33 @@ public final class ByteTools
 	 */
 	public static String scramble(final String binary, final Blueprint cipher)
 	{
-		StringBuilder builder = new StringBuilder();
-		String[] split_binary = binary.split(BYTE_DELIMITER);
-		builder.append(scramble(split_binary[0], cipher.getIndex(0), cipher.getType(0)));
-		for( int i = 1; i < cipher.getIndexes().length; i ++)
-			builder.append(BYTE_DELIMITER + scramble(split_binary[i], cipher.getIndex(i), cipher.getType(i)));
+		final StringBuilder builder = new StringBuilder(binary.length());
+		for(int i = 0, start = 0, end; i < cipher.length(); i ++, start = end + 1)
+		{
+			end = nextDelimiter(binary, start);
+			if(i > 0)
+				builder.append(BinaryCodec.DELIMITER);
+			builder.append(scramble(binary.substring(start, end), cipher.getIndex(i), cipher.getType(i)));
+		}
 		return builder.toString();
 	}
 
+	/**
+	 * Finds the end of the Byte starting at 'start' within a Binary
+	 * String, without splitting the whole String up front.
+	 * @param binary - Binary String to search.
+	 * @param start - Position of the first digit of the Byte.
+	 * @return Position of the next delimiter, or the String length.
+	 * @throws ArrayIndexOutOfBoundsException - If 'start' is past the end.
+	 */
+	private static int nextDelimiter(final String binary, final int start)
+	{
+		if(start > binary.length())
+			throw new ArrayIndexOutOfBoundsException(start);
+		final int end = binary.indexOf(BinaryCodec.DELIMITER, start);
+		return (end < 0) ? binary.length() : end;
+	}
+
 	/**
 	 * Scrambles a single Byte in Binary String form to the given specified 
 	 * {@link Type}. This modified Binary String is then returned. Does not
@@ -374,7 +514,10 @@ public final class ByteTools
 	 * Takes a Byte Array and a {@link Blueprint} filled with Cipher
 	 * instructions. Then either scrambles or unscrambles the Array based
 	 * upon the {@link Blueprint}. The scrambled/unscrambled Array is then 
-	 * returned.
+	 * returned. If the {@link Blueprint} can't operate on some of the 
+	 * Bytes, a single {@link ValidationReport} is printed listing them.
+	 * A {@link CyclicBlueprint} is repeated over the whole Array, through
+	 * the word kernels once the Array is long enough, see 'scrambleRun'.
 	 * 
 	 * @param bytes - Scrambled or Unscrambled Bytes.
 	 * @param cipher - {@link Blueprint} to Cipher/Decipher.
@@ -384,19 +527,332 @@ public final class ByteTools
 	public static byte[] scramble(final byte[] bytes, final Blueprint cipher)
 	{
 		final byte[] new_address_space = new byte[bytes.length];
-		for(int i = 0; i < cipher.getIndexes().length; i ++)
-			try 
-			{
-				new_address_space[i] = scramble(bytes[i], cipher.getIndex(i), cipher.getType(i));
-			} 
-			catch (BitException e) 
-			{
-				e.printStackTrace();
-			} 
+		final ValidationReport report = scrambleRun(bytes, 0, new_address_space, 0, cipher.span(bytes.length), cipher, 0, bytes.length);
+		if(report != null)
+			report.print();
+		
+		return new_address_space;
+	}
+	
+	/**
+	 * Scrambles a Byte Array with a {@link Blueprint}, as above, into an
+	 * Array lent by 'arena' rather than a new one. The lent Array may be
+	 * longer, only its first 'bytes.length' Bytes are written. It must not
+	 * be used once 'arena' is closed.
+	 * 
+	 * @param bytes - Scrambled or Unscrambled Bytes.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher.
+	 * @param arena - Open {@link ScratchArena} of the calling Thread.
+	 * @return Lent Scrambled or Unscrambled Byte Array.
+	 * @since 0.7
+	 */
+	public static byte[] scramble(final byte[] bytes, final Blueprint cipher, final ScratchArena arena)
+	{
+		final byte[] lent = arena.bytes(bytes.length);
+		final ValidationReport report = scrambleRun(bytes, 0, lent, 0, cipher.span(bytes.length), cipher, 0, bytes.length);
+		if(report != null)
+			report.print();
+		
+		return lent;
+	}
+	
+	/**
+	 * Scrambles a Byte Array with a {@link Blueprint} in place. No new
+	 * Array is allocated, each Byte is replaced by its scrambled value.
+	 * If the {@link Blueprint} can't operate on some of the Bytes, a 
+	 * single {@link ValidationReport} is printed listing them.
+	 * 
+	 * @param bytes - Scrambled or Unscrambled Bytes, overwritten.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher.
+	 * @since 0.7
+	 */
+	public static void scrambleInPlace(final byte[] bytes, final Blueprint cipher)
+	{
+		scramble(bytes, 0, bytes, 0, bytes.length, cipher);
+	}
+	
+	/**
+	 * Scrambles a region of the Byte Array 'source' with a {@link Blueprint}
+	 * into the caller supplied 'target' Array. The first Byte of the region
+	 * uses the first entry of the {@link Blueprint}. 'source' and 'target'
+	 * may be the same Array, including overlapping regions at the same
+	 * offset. No new Array is allocated. If the {@link Blueprint} can't
+	 * operate on some of the Bytes, a single {@link ValidationReport} is
+	 * printed listing them.
+	 * 
+	 * @param source - Scrambled or Unscrambled Bytes.
+	 * @param source_offset - Position of the first Byte within 'source'.
+	 * @param target - Array to write the Bytes to.
+	 * @param target_offset - Position of the first Byte within 'target'.
+	 * @param length - Amount of Bytes to Scramble.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher.
+	 * @throws IndexOutOfBoundsException - If a region lies outside of its
+	 * Array, or the {@link Blueprint} is shorter than 'length'.
+	 * @since 0.7
+	 */
+	public static void scramble(final byte[] source, final int source_offset, final byte[] target, 
+			final int target_offset, final int length, final Blueprint cipher)
+	{
+		scramble(source, source_offset, target, target_offset, length, cipher, 0);
+	}
+	
+	/**
+	 * Scrambles a region of the Byte Array 'source' into the caller 
+	 * supplied 'target' Array, starting at entry 'key_offset' of the 
+	 * {@link Blueprint}. As each Byte depends only upon its own entry, 
+	 * consecutive regions of the same Data may be scrambled separately.
+	 * 
+	 * @param source - Scrambled or Unscrambled Bytes.
+	 * @param source_offset - Position of the first Byte within 'source'.
+	 * @param target - Array to write the Bytes to.
+	 * @param target_offset - Position of the first Byte within 'target'.
+	 * @param length - Amount of Bytes to Scramble.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher.
+	 * @param key_offset - Entry of the {@link Blueprint} used by the first Byte.
+	 * @throws IndexOutOfBoundsException - If a region lies outside of its
+	 * Array, or the {@link Blueprint} has fewer than 'length' entries after
+	 * 'key_offset'.
+	 * @since 0.7
+	 */
+	public static void scramble(final byte[] source, final int source_offset, final byte[] target, 
+			final int target_offset, final int length, final Blueprint cipher, final int key_offset)
+	{
+		checkRegion(source.length, source_offset, length);
+		checkRegion(target.length, target_offset, length);
+		checkRegion(cipher.length(), key_offset, length);
+		final ValidationReport report = scrambleRun(source, source_offset, target, target_offset, length, 
+				cipher, key_offset, cipher.length());
+		if(report != null)
+			report.print();
+	}
+	
+	/**
+	 * Scrambles the remaining Bytes of a {@link ByteBuffer} with a 
+	 * {@link Blueprint} in place. The Byte at the Buffer's position uses
+	 * the first entry of the {@link Blueprint}. The position and limit 
+	 * are left untouched, so the Buffer can be written out straight 
+	 * afterwards. Heap and direct Buffers are both scrambled without 
+	 * being copied.
+	 * 
+	 * @param buffer - Scrambled or Unscrambled Bytes, overwritten.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher.
+	 * @throws IndexOutOfBoundsException - If the {@link Blueprint} is 
+	 * shorter than the remaining Bytes.
+	 * @throws java.nio.ReadOnlyBufferException - If the Buffer is read only.
+	 * @since 0.7
+	 */
+	public static void scramble(final ByteBuffer buffer, final Blueprint cipher)
+	{
+		scramble(buffer, cipher, 0);
+	}
+	
+	/**
+	 * Scrambles the remaining Bytes of a {@link ByteBuffer} with a 
+	 * {@link Blueprint} in place, starting at entry 'key_offset' of the
+	 * {@link Blueprint}. Allows consecutive Buffers of the same Data to be
+	 * scrambled with one {@link Blueprint}. The position and limit are 
+	 * left untouched.
+	 * 
+	 * @param buffer - Scrambled or Unscrambled Bytes, overwritten.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher.
+	 * @param key_offset - Entry of the {@link Blueprint} used by the Byte
+	 * at the Buffer's position.
+	 * @throws IndexOutOfBoundsException - If the {@link Blueprint} has 
+	 * fewer than the remaining Bytes after 'key_offset'.
+	 * @throws java.nio.ReadOnlyBufferException - If the Buffer is read only.
+	 * @since 0.7
+	 */
+	public static void scramble(final ByteBuffer buffer, final Blueprint cipher, final int key_offset)
+	{
+		scramble(buffer, buffer.position(), buffer, buffer.position(), buffer.remaining(), cipher, key_offset);
+	}
+	
+	/**
+	 * Scrambles the remaining Bytes of the 'source' {@link ByteBuffer} 
+	 * into the 'target' {@link ByteBuffer}, as a relative bulk put would.
+	 * The positions of both Buffers are advanced by the amount of Bytes 
+	 * scrambled. The Byte at the source's position uses the first entry
+	 * of the {@link Blueprint}.
+	 * 
+	 * @param source - Scrambled or Unscrambled Bytes.
+	 * @param target - Buffer to write the Bytes to.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher.
+	 * @throws java.nio.BufferOverflowException - If 'target' has less 
+	 * room than 'source' has Bytes remaining.
+	 * @throws IndexOutOfBoundsException - If the {@link Blueprint} is 
+	 * shorter than the remaining Bytes.
+	 * @since 0.7
+	 */
+	public static void scramble(final ByteBuffer source, final ByteBuffer target, final Blueprint cipher)
+	{
+		final int length = source.remaining();
+		if(target.remaining() < length)
+			throw new BufferOverflowException();
+		scramble(source, source.position(), target, target.position(), length, cipher, 0);
+		source.position(source.position() + length);
+		target.position(target.position() + length);
+	}
+	
+	/**
+	 * Scrambles a region of one {@link ByteBuffer} into another, via 
+	 * absolute indexes. Buffers backed by accessible Arrays are scrambled
+	 * through their Arrays, others through absolute get and put.
+	 * @param source - Scrambled or Unscrambled Bytes.
+	 * @param source_index - Absolute index of the first Byte within 'source'.
+	 * @param target - Buffer to write the Bytes to.
+	 * @param target_index - Absolute index of the first Byte within 'target'.
+	 * @param length - Amount of Bytes to Scramble.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher.
+	 * @param key_offset - Entry of the {@link Blueprint} used by the first Byte.
+	 * @since 0.7
+	 */
+	static void scramble(final ByteBuffer source, final int source_index, final ByteBuffer target, 
+			final int target_index, final int length, final Blueprint cipher, final int key_offset)
+	{
+		checkRegion(cipher.length(), key_offset, length);
+		if(target.isReadOnly())
+			throw new ReadOnlyBufferException();
+		
+		final ValidationReport report = (source.hasArray() && target.hasArray())
+			? scrambleRun(source.array(), source.arrayOffset() + source_index, target.array(), 
+					target.arrayOffset() + target_index, length, cipher, key_offset, cipher.length())
+			: ScrambleTable.scramble(source, source_index, target, target_index, length, cipher, key_offset, cipher.length());
+		if(report != null)
+			report.print();
+	}
+	
+	/**
+	 * Scrambles a run of Bytes through the fastest path for 'cipher'. A run
+	 * of 'KERNEL_THRESHOLD' Bytes or more with a {@link CyclicBlueprint}
+	 * whose period is at most an eighth of the run goes through its
+	 * {@link MaskPlanes}, compiled once and kept, and so through the
+	 * fastest {@link WordKernel}. Other runs go through the
+	 * {@link ScrambleTable}, as compiling a {@link Blueprint} as long as
+	 * the Data costs several times the table pass it would replace. Such
+	 * a {@link Blueprint} reaches the word kernels once compiled with
+	 * {@link MaskPlanes#compile(Blueprint)}, as {@link BlueprintRegistry}
+	 * does. Either path gives the same Bytes and faults.
+	 * @param source - Scrambled or Unscrambled Bytes.
+	 * @param source_offset - Position of the first Byte within 'source'.
+	 * @param target - Array to write the Bytes to, may be 'source'.
+	 * @param target_offset - Position of the first Byte within 'target'.
+	 * @param length - Amount of Bytes to Scramble.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher.
+	 * @param key_offset - Entry of the {@link Blueprint} used by the first Byte.
+	 * @param data_length - Length of the whole Data, for the report.
+	 * @return Report of each fault, or Null if there were none.
+	 * @since 0.7
+	 */
+	static ValidationReport scrambleRun(final byte[] source, final int source_offset, final byte[] target,
+			final int target_offset, final int length, final Blueprint cipher, final int key_offset, final int data_length)
+	{
+		if(length >= KERNEL_THRESHOLD && cipher instanceof CyclicBlueprint
+				&& ((CyclicBlueprint) cipher).getPeriod() <= length / MaskPlanes.LANES)
+			return ((CyclicBlueprint) cipher).planes().run(source, source_offset, target, target_offset, length, 
+					key_offset, data_length);
+		return ScrambleTable.scramble(source, source_offset, target, target_offset, length, cipher, key_offset, data_length);
+	}
+	
+	/**
+	 * Checks that a region lies within an Array.
+	 * @param array_length - Length of the Array.
+	 * @param offset - Start of the region.
+	 * @param length - Length of the region.
+	 * @throws IndexOutOfBoundsException - If the region lies outside.
+	 * @since 0.7
+	 */
+	static void checkRegion(final int array_length, final int offset, final int length)
+	{
+		if(offset < 0 || length < 0 || offset > array_length - length)
+			throw new IndexOutOfBoundsException("Offset: " + offset + ", Length: " + length + ", Size: " + array_length);
+	}
+	
+	/**
+	 * Scrambles a Byte Array with a {@link Blueprint} without reporting
+	 * any Errors. Bytes the {@link Blueprint} can't operate on come out
+	 * exactly as they would from 'scramble'. Intended to be used once
+	 * the {@link Blueprint} has been checked with 'validate'.
+	 * 
+	 * @param bytes - Scrambled or Unscrambled Bytes.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher.
+	 * @return New Scrambled or Unscrambled Byte Array.
+	 * @since 0.7
+	 */
+	public static byte[] scrambleUnchecked(final byte[] bytes, final Blueprint cipher)
+	{
+		final byte[] new_address_space = new byte[bytes.length];
+		scrambleRun(bytes, 0, new_address_space, 0, cipher.span(bytes.length), cipher, 0, bytes.length);
+		return new_address_space;
+	}
+	
+	/**
+	 * Scrambles a Byte Array with a {@link Blueprint} across the common
+	 * {@link ForkJoinPool}. Arrays shorter than 
+	 * 'DEFAULT_PARALLEL_THRESHOLD' are scrambled on the calling Thread.
+	 * The result is identical to 'scramble'.
+	 * 
+	 * @param bytes - Scrambled or Unscrambled Bytes.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher.
+	 * @return New Scrambled or Unscrambled Byte Array.
+	 * @since 0.7
+	 */
+	public static byte[] scrambleParallel(final byte[] bytes, final Blueprint cipher)
+	{
+		return scrambleParallel(bytes, cipher, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+	}
+	
+	/**
+	 * Scrambles a Byte Array with a {@link Blueprint} across the parameter
+	 * 'pool'. The Array is split into cache sized chunks, each scrambled
+	 * independently. Arrays shorter than 'threshold' are scrambled on the
+	 * calling Thread. The result is identical to 'scramble'.
+	 * 
+	 * @param bytes - Scrambled or Unscrambled Bytes.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher.
+	 * @param pool - Pool to scramble the chunks within.
+	 * @param threshold - Minimum Array length to scramble in parallel.
+	 * @return New Scrambled or Unscrambled Byte Array.
+	 * @since 0.7
+	 */
+	public static byte[] scrambleParallel(final byte[] bytes, final Blueprint cipher, final ForkJoinPool pool, final int threshold)
+	{
+		final int length = cipher.span(bytes.length);
+		if(length < threshold || length <= ScrambleTask.CHUNK_SIZE)
+			return scramble(bytes, cipher);
+		if(length > bytes.length)
+			throw new ArrayIndexOutOfBoundsException(bytes.length);
+		
+		final byte[] new_address_space = new byte[bytes.length];
+		final ValidationReport report = pool.invoke(new ScrambleTask(bytes, new_address_space, cipher, 0, length, bytes.length));
+		if(report != null)
+			report.print();
 		
 		return new_address_space;
 	}
 	
+	/**
+	 * Checks a {@link Blueprint} against the Bytes it is to scramble, 
+	 * once, without scrambling them. Every position the {@link Blueprint}
+	 * can't operate on is collected into a single {@link ValidationReport}.
+	 * 
+	 * @param bytes - Bytes to check the {@link Blueprint} against.
+	 * @param cipher - {@link Blueprint} to check.
+	 * @return Report of each invalid position.
+	 * @since 0.7
+	 */
+	public static ValidationReport validate(final byte[] bytes, final Blueprint cipher)
+	{
+		final ValidationReport report = new ValidationReport(bytes.length, cipher.length());
+		final int length = Math.min(bytes.length, cipher.length());
+		for(int i = 0; i < length; i ++)
+		{
+			final ExceptionType fault = ScrambleTable.fault(ScrambleTable.lookup(bytes[i], cipher, i));
+			if(fault != null)
+				report.add(i, fault);
+		}
+		return report;
+	}
+	
 	/**
 	 * Scrambles a single Byte to the given specified {@link Type}. 
 	 * This Byte is then returned. All scrambling Function Types are
@@ -408,6 +864,24 @@ public final class ByteTools
 	 * @since 0.4
 	 */
 	public static byte scramble(final byte byte_, final byte index, final Type scramble_type) throws BitException
+	{
+		return scramble(byte_, index, scramble_type, PRINT_ERRORS);
+	}
+	
+	/**
+	 * Scrambles a single Byte to the given specified {@link Type}. Errors
+	 * which the composite {@link Type}s recover from internally are passed
+	 * to 'on_error'. Used by {@link ScrambleTable} to build its lookup 
+	 * tables without flooding the error stream.
+	 * @param byte_ - Byte to Scramble with {@link Type}. 
+	 * @param index - Index within Byte to modify.
+	 * @param scramble_type - {@link Type} of Bit modification.
+	 * @param on_error - Receives recovered errors.
+	 * @return New Modified Byte.
+	 * @throws BitException - Thrown for Invalid Input.
+	 * @since 0.7
+	 */
+	static byte scramble(final byte byte_, final byte index, final Type scramble_type, final Consumer<BitException> on_error) throws BitException
 	{
 		final byte new_address_space = byte_;
 		switch(scramble_type)
@@ -419,13 +893,13 @@ public final class ByteTools
 			case RIGHT:
 				return swapRight(new_address_space, index, false);
 			case INVERSE_ALL:
-				return inverse(new_address_space);
+				return inverse(new_address_space, on_error);
 			case INVERSE_LEFT:
-				return leftInverse(new_address_space, index);
+				return leftInverse(new_address_space, index, on_error);
 			case INVERSE_RIGHT:
-				return rightInverse(new_address_space, index);
+				return rightInverse(new_address_space, index, on_error);
 			case SHREDDED:
-				return shred(new_address_space);
+				return shred(new_address_space, on_error);
 		}
 		return new_address_space;
 	}
@@ -652,6 +1126,21 @@ public final class ByteTools
 	 * @since 0.5
 	 */
 	public static byte leftInverse(final byte byte_, final byte index)
+	{
+		return leftInverse(byte_, index, PRINT_ERRORS);
+	}
+	
+	/**
+	 * Swaps the Bit at the given Index to the Left. Then Inverts both
+	 * that Bit and the swapped Bit. Recovered errors are passed
+	 * to 'on_error'.
+	 * @param byte_ - Byte to swap and invert. 
+	 * @param index - Index to swap and invert at.
+	 * @param on_error - Receives recovered errors.
+	 * @return New Modified Byte.
+	 * @since 0.7
+	 */
+	private static byte leftInverse(final byte byte_, final byte index, final Consumer<BitException> on_error)
 	{
 		try 
 		{
@@ -663,7 +1152,7 @@ public final class ByteTools
 		}
 		catch (BitException e) 
 		{
-			e.printStackTrace();
+			on_error.accept(e);
 		}
 		return byte_;
 	}
@@ -677,6 +1166,21 @@ public final class ByteTools
 	 * @since 0.5
 	 */
 	public static byte rightInverse(final byte byte_, final byte index)
+	{
+		return rightInverse(byte_, index, PRINT_ERRORS);
+	}
+	
+	/**
+	 * Swaps the Bit at the given Index to the Right. Then Inverts both
+	 * that Bit and the swapped Bit. Recovered errors are passed
+	 * to 'on_error'.
+	 * @param byte_ - Byte to swap and invert. 
+	 * @param index - Index to swap and invert at.
+	 * @param on_error - Receives recovered errors.
+	 * @return New Modified Byte.
+	 * @since 0.7
+	 */
+	private static byte rightInverse(final byte byte_, final byte index, final Consumer<BitException> on_error)
 	{
 		try 
 		{
@@ -688,7 +1192,7 @@ public final class ByteTools
 		}
 		catch (BitException e) 
 		{
-			e.printStackTrace();
+			on_error.accept(e);
 		}
 		return byte_;
 	}
@@ -702,6 +1206,19 @@ public final class ByteTools
 	 * @since 0.5
 	 */
 	public static byte shred(final byte byte_)
+	{
+		return shred(byte_, PRINT_ERRORS);
+	}
+	
+	/**
+	 * Shreds a Byte of Data at Indexes: 0, 2, 4 and 6. Recovered errors 
+	 * are passed to 'on_error'.
+	 * @param byte_ - Byte of Data to Shred.
+	 * @param on_error - Receives recovered errors.
+	 * @return Shredded Byte.
+	 * @since 0.7
+	 */
+	private static byte shred(final byte byte_, final Consumer<BitException> on_error)
 	{	
 		final boolean safety_bypasses = true;
 		try 
@@ -715,7 +1232,7 @@ public final class ByteTools
 		} 
 		catch (BitException e) 
 		{
-			e.printStackTrace();
+			on_error.accept(e);
 		}
 		return byte_;
 	}
@@ -727,7 +1244,20 @@ public final class ByteTools
 	 * @return New inverted Byte.
 	 * @since 0.5
 	 */
-	public static byte inverse(byte byte_)
+	public static byte inverse(final byte byte_)
+	{
+		return inverse(byte_, PRINT_ERRORS);
+	}
+	
+	/**
+	 * Inverts all of the Bits within the Parameter 'byte_' after the index
+	 * Zero. Recovered errors are passed to 'on_error'.
+	 * @param byte_ - Byte of Data to invert.
+	 * @param on_error - Receives recovered errors.
+	 * @return New inverted Byte.
+	 * @since 0.7
+	 */
+	private static byte inverse(byte byte_, final Consumer<BitException> on_error)
 	{
 		final byte length = (byte) (Long.toBinaryString(byte_).length()-1);
 		
@@ -738,7 +1268,7 @@ public final class ByteTools
 			} 
 			catch (BitException e)
 			{
-				e.printStackTrace();
+				on_error.accept(e);
 			}
 			
 		return byte_;
@@ -770,11 +1300,9 @@ public final class ByteTools
 	 */
 	public static StringBuilder stringtoBinary(final String text)
 	{
-		final StringBuilder builder = new StringBuilder();
-		builder.append(Long.toBinaryString(text.charAt(0)));
-		for(int i = 1; i < text.length(); i ++)
-			builder.append(BYTE_DELIMITER+Long.toBinaryString(text.charAt(i)));
-		return builder;
+		final char[] binary = new char[BinaryCodec.encodedLength(text)];
+		BinaryCodec.encode(text, binary, 0);
+		return new StringBuilder(binary.length).append(binary);
 	}
 	
 	/**
@@ -787,11 +1315,9 @@ public final class ByteTools
 	 */
 	public static String arrayToBinaryString(final byte[] bytes)
 	{
-		final StringBuilder builder = new StringBuilder();
-		builder.append(Long.toBinaryString((char)bytes[0]));
-		for(int i = 1; i < bytes.length; i ++)
-			builder.append(BYTE_DELIMITER+Long.toBinaryString((char)bytes[i]));
-		return builder.toString();
+		final char[] binary = new char[BinaryCodec.encodedLength(bytes, 0, bytes.length)];
+		BinaryCodec.encode(bytes, 0, bytes.length, binary, 0);
+		return new String(binary);
 	}
 	
 	/**
@@ -806,13 +1332,7 @@ public final class ByteTools
 	 */
 	public static byte[] array(final String binary_str)
 	{
-		final String[] split_binary = binary_str.split(BYTE_DELIMITER);
-		final ByteBuffer decoded_binary_str  = ByteBuffer.allocate(split_binary.length);
-		final byte base = 2;
-		for(int byte_index = 0 ; byte_index < split_binary.length; byte_index ++)
-			decoded_binary_str.put((byte)Long.parseLong(split_binary[byte_index], base));
-		
-		return decoded_binary_str.array();
+		return BinaryCodec.decode(binary_str);
 	}
 	
 	/**
@@ -0,0 +1,873 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link Safe} file split into chunks of a fixed size, each of which
+ * can be encoded, written, read and decoded on its own. A chunk holds the
+ * {@link Type}s and Indexes of its part of the key next to its part of
+ * the {@link EncodedMessage}, so no other part of the file is needed to
+ * decode it. A {@link SeededBlueprint} key is stored once, by its Seed,
+ * within the header. A {@link CyclicBlueprint} key is stored once too, by
+ * its length and the key it repeats, as {@link Safe} stores it. <br><br>
+ *
+ * An index of every chunk's position and checksum is kept in a footer at
+ * the end of the file. Chunks are written and read in parallel, and a
+ * corrupted chunk is detected by its checksum without affecting the
+ * others. Large Data may be written a chunk at a time through a
+ * {@link Writer}, and read a chunk at a time through 'openStream'. All
+ * numbers are big endian. The format is as follows:<br><br>
+ * <ul>
+ * 	<li>(Header) The magic number 'MAGIC', the format version, the kind of
+ * 	key, the chunk size and the length of the {@link EncodedMessage}.
+ * 	For a {@link SeededBlueprint}, the Seed follows. For a
+ * 	{@link CyclicBlueprint}, the sections 'Safe.keySections' creates
+ * 	follow.</li>
+ * 	<li>(Chunks) For a stored key, the {@link Type} ordinals and the Bit
+ * 	Indexes of the chunk. Then the encoded Bytes of the chunk.</li>
+ * 	<li>(Footer) The amount of chunks, then the position, length and
+ * 	CRC32 of each. Then the position of the footer and 'MAGIC' again.</li>
+ * </ul>
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see Safe
+ * @see MappedSafe
+ * @see Blueprint
+ */
+public final class ChunkedSafe implements Closeable
+{
+
+	/**
+	 * Magic number starting and ending every chunked {@link Safe} file.
+	 */
+	static final int MAGIC = 0x89534143;
+
+	/**
+	 * Default size of a chunk.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+	/**
+	 * Length of the header without a Seed. Magic, version, key kind, chunk
+	 * size and length.
+	 */
+	private static final int HEADER_LENGTH = Integer.BYTES + 2 + Integer.BYTES + Integer.BYTES;
+
+	/**
+	 * Position within the header of the length of the {@link EncodedMessage}.
+	 */
+	private static final int LENGTH_POSITION = HEADER_LENGTH - Integer.BYTES;
+
+	/**
+	 * Length of a footer entry. Position, length and checksum.
+	 */
+	private static final int ENTRY_LENGTH = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+	/**
+	 * Most footer entries read or written at a time.
+	 */
+	private static final int FOOTER_BLOCK = 4096;
+
+	/**
+	 * Length of the trailer. Footer position and magic.
+	 */
+	private static final int TRAILER_LENGTH = Long.BYTES + Integer.BYTES;
+
+	/**
+	 * Channel to read chunks from. Only positional reads are used, so
+	 * chunks may be read by many Threads at once.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Size of every chunk but the last.
+	 */
+	private final int chunkSize;
+
+	/**
+	 * Length of the {@link EncodedMessage}.
+	 */
+	private final int length;
+
+	/**
+	 * Key stored within the header, a {@link SeededBlueprint} or
+	 * {@link CyclicBlueprint}. Null for a key stored within the chunks.
+	 */
+	private final Blueprint headerKey;
+
+	/**
+	 * Position of each chunk within the file.
+	 */
+	private final long[] positions;
+
+	/**
+	 * Length of each chunk within the file.
+	 */
+	private final int[] lengths;
+
+	/**
+	 * CRC32 of each chunk.
+	 */
+	private final int[] checksums;
+
+	/**
+	 * Opens the chunked {@link Safe} file 'safe_file', reading only its
+	 * header and footer. Close it once done.
+	 * @param safe_file - Chunked {@link Safe} file.
+	 * @throws IOException - If the file can't be read or isn't a chunked
+	 * {@link Safe} file.
+	 */
+	public ChunkedSafe(final File safe_file) throws IOException
+	{
+		channel = FileChannel.open(safe_file.toPath(), StandardOpenOption.READ);
+		try
+		{
+			final ByteBuffer header = read(ByteBuffer.allocate(HEADER_LENGTH), 0);
+			if(header.getInt() != MAGIC)
+				throw new IOException("Not a chunked Safe file: " + safe_file);
+			final byte version = header.get();
+			if(version != Safe.FORMAT_VERSION)
+				throw new IOException("Unsupported Safe version: " + version);
+			final byte kind = header.get();
+			chunkSize = header.getInt();
+			length = header.getInt();
+			if(chunkSize <= 0 || length < 0)
+				throw new IOException("Corrupt Safe, invalid chunk size or length: " + chunkSize + ", " + length);
+			if(kind == Safe.SEEDED_KEY)
+				headerKey = new SeededBlueprint(read(ByteBuffer.allocate(Long.BYTES), HEADER_LENGTH).getLong(), length);
+			else if(kind == Safe.CYCLIC_KEY)
+			{
+				// Read once while opening, before any positional read.
+				channel.position(HEADER_LENGTH);
+				headerKey = Safe.readKey(channel, kind);
+				if(headerKey.length() < length)
+					throw new IOException("Corrupt Safe, cyclic key of " + headerKey.length() + " entries for " + length + " Bytes");
+			}
+			else if(kind == Safe.STORED_KEY)
+				headerKey = null;
+			else
+				throw new IOException("Corrupt Safe, unknown key kind: " + kind);
+
+			final ByteBuffer trailer = read(ByteBuffer.allocate(TRAILER_LENGTH), channel.size() - TRAILER_LENGTH);
+			final long footer_position = trailer.getLong();
+			if(trailer.getInt() != MAGIC || footer_position < 0 || footer_position > channel.size() - TRAILER_LENGTH)
+				throw new IOException("Corrupt Safe, footer not found.");
+			final int count = read(ByteBuffer.allocate(Integer.BYTES), footer_position).getInt();
+			if(count != chunkCount(length, chunkSize)
+					|| (long) count * ENTRY_LENGTH != channel.size() - TRAILER_LENGTH - footer_position - Integer.BYTES)
+				throw new IOException("Corrupt Safe, expected " + chunkCount(length, chunkSize) + " chunks, found " + count);
+			positions = new long[count];
+			lengths = new int[count];
+			checksums = new int[count];
+			final ByteBuffer entries = ByteBuffer.allocate(Math.min(count, FOOTER_BLOCK) * ENTRY_LENGTH);
+			for(int first = 0; first < count; first += FOOTER_BLOCK)
+			{
+				final int block = Math.min(FOOTER_BLOCK, count - first);
+				entries.clear();
+				entries.limit(block * ENTRY_LENGTH);
+				read(entries, footer_position + Integer.BYTES + (long) first * ENTRY_LENGTH);
+				for(int i = first; i < first + block; i ++)
+				{
+					positions[i] = entries.getLong();
+					lengths[i] = entries.getInt();
+					checksums[i] = entries.getInt();
+				}
+			}
+		}
+		catch (IOException | RuntimeException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the amount of chunks within this {@link Safe}.
+	 * @return Amount of chunks.
+	 */
+	public int getChunkCount()
+	{
+		return positions.length;
+	}
+
+	/**
+	 * Returns the size of every chunk but the last, which may be shorter.
+	 * @return Chunk size.
+	 */
+	public int getChunkSize()
+	{
+		return chunkSize;
+	}
+
+	/**
+	 * Returns the length of the {@link EncodedMessage}.
+	 * @return Amount of Bytes stored.
+	 */
+	public int length()
+	{
+		return length;
+	}
+
+	/**
+	 * Reads and decodes a single chunk. No other part of the file is read.
+	 * @param chunk - Number of the chunk.
+	 * @return Decoded Bytes of the chunk.
+	 * @throws IOException - If the chunk can't be read or its checksum
+	 * doesn't match.
+	 */
+	public byte[] decodeChunk(final int chunk) throws IOException
+	{
+		final byte[] decoded = new byte[dataLength(chunk)];
+		decodeChunk(chunk, decoded, 0);
+		return decoded;
+	}
+
+	/**
+	 * Reads and decodes a single chunk into 'target' from 'offset'.
+	 * @param chunk - Number of the chunk.
+	 * @param target - Array to write the decoded Bytes to.
+	 * @param offset - Position within 'target' of the first decoded Byte.
+	 * @return Amount of decoded Bytes written.
+	 * @throws IOException - If the chunk can't be read or its checksum
+	 * doesn't match.
+	 */
+	public int decodeChunk(final int chunk, final byte[] target, final int offset) throws IOException
+	{
+		final int data_length = dataLength(chunk), key_length = lengths[chunk] - data_length,
+				start = chunk * chunkSize;
+		ByteTools.checkRegion(target.length, offset, data_length);
+		if(lengths[chunk] != data_length * ((headerKey != null) ? 1 : 3))
+			throw new IOException("Corrupt Safe, invalid length of chunk " + chunk + ": " + lengths[chunk]);
+		final byte[] stored = read(ByteBuffer.allocate(lengths[chunk]), positions[chunk]).array();
+		if(checksum(stored) != checksums[chunk])
+			throw new IOException("Corrupt Safe, checksum mismatch in chunk " + chunk);
+
+		if(headerKey != null)
+			ByteTools.scramble(stored, key_length, target, offset, data_length, headerKey, start);
+		else
+		{
+			final Blueprint key = new Blueprint(Arrays.copyOfRange(stored, 0, data_length),
+					Arrays.copyOfRange(stored, data_length, key_length)) {
+				public void populateIndexes(){}
+				public ArrayList<Type> populate(){return null;}
+			};
+			ByteTools.scramble(stored, key_length, target, offset, data_length, key, 0);
+		}
+		return data_length;
+	}
+
+	/**
+	 * Reads and decodes every chunk in parallel.
+	 * @return Decoded Bytes.
+	 * @throws IOException - If any chunk can't be read or is corrupt.
+	 * Use 'decodeChunk' to recover the others.
+	 */
+	public byte[] decode() throws IOException
+	{
+		final byte[] decoded = new byte[length];
+		try
+		{
+			IntStream.range(0, positions.length).parallel().forEach(chunk -> {
+				try
+				{
+					decodeChunk(chunk, decoded, chunk * chunkSize);
+				}
+				catch (IOException e)
+				{
+					throw new UncheckedIOException(e);
+				}
+			});
+		}
+		catch (UncheckedIOException e)
+		{
+			throw e.getCause();
+		}
+		return decoded;
+	}
+
+	/**
+	 * Returns an {@link InputStream} reading and decoding the chunks one
+	 * after another, holding a single chunk at a time. Closing the Stream
+	 * doesn't close this {@link ChunkedSafe}.
+	 * @return Stream of the decoded Bytes.
+	 */
+	public InputStream openStream()
+	{
+		return new InputStream() {
+			private final byte[] decoded = new byte[Math.min(chunkSize, length)];
+			private int chunk = 0, position = 0, filled = 0;
+
+			@Override
+			public int read() throws IOException
+			{
+				return fill() ? decoded[position ++] & 0xFF : -1;
+			}
+
+			@Override
+			public int read(final byte[] b, final int off, final int len) throws IOException
+			{
+				ByteTools.checkRegion(b.length, off, len);
+				if(len == 0)
+					return 0;
+				if(!fill())
+					return -1;
+				final int read = Math.min(len, filled - position);
+				System.arraycopy(decoded, position, b, off, read);
+				position += read;
+				return read;
+			}
+
+			@Override
+			public int available()
+			{
+				return filled - position;
+			}
+
+			/**
+			 * Decodes the next chunk once the current one is read.
+			 * @return False once every chunk is read.
+			 */
+			private boolean fill() throws IOException
+			{
+				if(position == filled)
+				{
+					if(chunk == positions.length)
+						return false;
+					filled = decodeChunk(chunk ++, decoded, 0);
+					position = 0;
+				}
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Closes the file.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+
+	/**
+	 * Scrambles 'data' with 'key' and writes it to the chunked
+	 * {@link Safe} file 'safe_file', in chunks of 'chunk_size' Bytes.
+	 * Every chunk is scrambled, checksummed and written in parallel.
+	 * @param safe_file - File to write.
+	 * @param data - Bytes to Scramble and store.
+	 * @param key - {@link Blueprint} to Cipher with, at least as long as
+	 * 'data'.
+	 * @param chunk_size - Size of each chunk.
+	 * @return Written file.
+	 * @throws IOException - If the file can't be written.
+	 * @throws IllegalArgumentException - If 'chunk_size' isn't positive.
+	 * @throws IndexOutOfBoundsException - If 'key' is shorter than 'data'.
+	 */
+	public static File encode(final File safe_file, final byte[] data, final Blueprint key, final int chunk_size) throws IOException
+	{
+		if(chunk_size <= 0)
+			throw new IllegalArgumentException("Invalid chunk size: " + chunk_size);
+		ByteTools.checkRegion(key.length(), 0, data.length);
+		final boolean in_header = inHeader(key);
+		final int count = chunkCount(data.length, chunk_size), entry_width = in_header ? 1 : 3;
+		final long[] positions = new long[count];
+		final int[] lengths = new int[count], checksums = new int[count];
+
+		try(FileChannel out = FileChannel.open(safe_file.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+		{
+			final long first_chunk = writeHeader(out, key, chunk_size, data.length),
+					footer_position = first_chunk + (long) data.length * entry_width;
+			try
+			{
+				IntStream.range(0, count).parallel().forEach(chunk -> {
+					final int start = chunk * chunk_size;
+					final byte[] stored = encodeChunk(data, start, Math.min(chunk_size, data.length - start), key, start, in_header);
+					positions[chunk] = first_chunk + (long) start * entry_width;
+					lengths[chunk] = stored.length;
+					checksums[chunk] = checksum(stored);
+					try
+					{
+						write(out, ByteBuffer.wrap(stored), positions[chunk]);
+					}
+					catch (IOException e)
+					{
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+			catch (UncheckedIOException e)
+			{
+				throw e.getCause();
+			}
+			writeFooter(out, footer_position, count, positions, lengths, checksums);
+		}
+		return safe_file;
+	}
+
+	/**
+	 * A {@link Safe} writer appending one chunk at a time, so the Data is
+	 * never held whole. Written Bytes are gathered until a chunk is full,
+	 * then scrambled with the key and appended to the file. The footer and
+	 * the length of the {@link EncodedMessage} are written on close, the
+	 * file can't be read until then.
+	 *
+	 * @author Owen McMonagle.
+	 * @version 0.1
+	 * @since 0.7
+	 */
+	public static final class Writer extends OutputStream
+	{
+
+		/**
+		 * Channel of the file being written.
+		 */
+		private final FileChannel out;
+
+		/**
+		 * {@link Blueprint} to Cipher with.
+		 */
+		private final Blueprint key;
+
+		/**
+		 * Whether 'key' is stored within the header, so the chunks hold
+		 * only encoded Bytes.
+		 */
+		private final boolean inHeader;
+
+		/**
+		 * Bytes of the chunk being gathered.
+		 */
+		private final byte[] chunk;
+
+		/**
+		 * Amount of Bytes within 'chunk', and of chunks appended.
+		 */
+		private int gathered = 0, count = 0;
+
+		/**
+		 * Amount of Bytes appended, and the position within the file of the
+		 * next chunk.
+		 */
+		private long written = 0, position;
+
+		/**
+		 * Position within the file of each appended chunk, grown as needed.
+		 */
+		private long[] positions = new long[16];
+
+		/**
+		 * Length of each appended chunk, grown alongside 'positions'.
+		 */
+		private int[] lengths = new int[16];
+
+		/**
+		 * CRC32 of each appended chunk, grown alongside 'positions'.
+		 */
+		private int[] checksums = new int[16];
+
+		/**
+		 * Whether 'close' has been called, after which nothing is written.
+		 */
+		private boolean closed = false;
+
+		/**
+		 * Creates 'safe_file' and writes its header.
+		 * @param safe_file - File to write.
+		 * @param key - {@link Blueprint} to Cipher with, at least as long as
+		 * the Data.
+		 * @param chunk_size - Size of each chunk.
+		 * @throws IOException - If the file can't be written.
+		 * @throws IllegalArgumentException - If 'chunk_size' isn't positive.
+		 */
+		public Writer(final File safe_file, final Blueprint key, final int chunk_size) throws IOException
+		{
+			if(chunk_size <= 0)
+				throw new IllegalArgumentException("Invalid chunk size: " + chunk_size);
+			this.key = key;
+			inHeader = inHeader(key);
+			chunk = new byte[chunk_size];
+			out = FileChannel.open(safe_file.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+			try
+			{
+				position = writeHeader(out, key, chunk_size, 0);
+			}
+			catch (IOException | RuntimeException e)
+			{
+				out.close();
+				throw e;
+			}
+		}
+
+		@Override
+		public void write(final int b) throws IOException
+		{
+			checkKey(1);
+			chunk[gathered ++] = (byte) b;
+			if(gathered == chunk.length)
+				append();
+		}
+
+		@Override
+		public void write(final byte[] b, int off, int len) throws IOException
+		{
+			ByteTools.checkRegion(b.length, off, len);
+			checkKey(len);
+			while(len > 0)
+			{
+				final int gather = Math.min(len, chunk.length - gathered);
+				System.arraycopy(b, off, chunk, gathered, gather);
+				gathered += gather;
+				off += gather;
+				len -= gather;
+				if(gathered == chunk.length)
+					append();
+			}
+		}
+
+		/**
+		 * Appends the last chunk, then writes the footer and the length.
+		 */
+		@Override
+		public void close() throws IOException
+		{
+			if(closed)
+				return;
+			closed = true;
+			try
+			{
+				if(gathered > 0)
+					append();
+				writeFooter(out, position, count, positions, lengths, checksums);
+				final ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+				length.putInt(0, (int) written);
+				ChunkedSafe.write(out, length, LENGTH_POSITION);
+			}
+			finally
+			{
+				out.close();
+			}
+		}
+
+		/**
+		 * Checks the Writer is open and the key has entries left for
+		 * 'length' more Bytes.
+		 * @param length - Amount of Bytes about to be written.
+		 * @throws IOException - If closed or the key is exhausted.
+		 */
+		private void checkKey(final int length) throws IOException
+		{
+			if(closed)
+				throw new IOException("Writer closed.");
+			if(length > key.length() - written - gathered)
+				throw new IOException("Blueprint exhausted at Byte " + (written + gathered) + " of " + key.length());
+		}
+
+		/**
+		 * Scrambles the gathered chunk and appends it to the file.
+		 */
+		private void append() throws IOException
+		{
+			final byte[] stored = encodeChunk(chunk, 0, gathered, key, (int) written, inHeader);
+			if(count == positions.length)
+			{
+				positions = Arrays.copyOf(positions, count * 2);
+				lengths = Arrays.copyOf(lengths, count * 2);
+				checksums = Arrays.copyOf(checksums, count * 2);
+			}
+			positions[count] = position;
+			lengths[count] = stored.length;
+			checksums[count ++] = checksum(stored);
+			ChunkedSafe.write(out, ByteBuffer.wrap(stored), position);
+			position += stored.length;
+			written += gathered;
+			gathered = 0;
+		}
+	}
+
+	/**
+	 * Checks whether 'key' is stored within the header, rather than a part
+	 * of it within each chunk.
+	 * @param key - {@link Blueprint} the Data is scrambled with.
+	 * @return True for a {@link SeededBlueprint} or {@link CyclicBlueprint}.
+	 */
+	private static boolean inHeader(final Blueprint key)
+	{
+		return key instanceof SeededBlueprint || key instanceof CyclicBlueprint;
+	}
+
+	/**
+	 * Writes the header of a chunked {@link Safe} file, followed by the key
+	 * if it's stored within the header.
+	 * @param out - Channel to write to.
+	 * @param key - {@link Blueprint} the Data is scrambled with.
+	 * @param chunk_size - Size of each chunk.
+	 * @param length - Length of the {@link EncodedMessage}.
+	 * @return Position of the first chunk.
+	 * @throws IOException - If the file can't be written.
+	 */
+	private static long writeHeader(final FileChannel out, final Blueprint key, final int chunk_size, final int length) throws IOException
+	{
+		final byte kind = inHeader(key) ? Safe.kindOf(key) : Safe.STORED_KEY;
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH + ((kind == Safe.SEEDED_KEY) ? Long.BYTES : 0));
+		header.putInt(MAGIC).put(Safe.FORMAT_VERSION).put(kind).putInt(chunk_size).putInt(length);
+		if(kind == Safe.SEEDED_KEY)
+			header.putLong(((SeededBlueprint) key).getSeed());
+		header.flip();
+		long position = header.remaining();
+		write(out, header, 0);
+		if(kind == Safe.CYCLIC_KEY)
+		{
+			final List<ByteBuffer> sections = new ArrayList<>();
+			Safe.keySections(key, sections);
+			for(final ByteBuffer section : sections)
+			{
+				final int section_length = section.remaining();
+				write(out, section, position);
+				position += section_length;
+			}
+		}
+		return position;
+	}
+
+	/**
+	 * Scrambles a chunk of 'data' with 'key', after its part of the key
+	 * unless the key is stored within the header.
+	 * @param data - Bytes to Scramble.
+	 * @param offset - Position within 'data' of the chunk.
+	 * @param data_length - Amount of Bytes within the chunk.
+	 * @param key - {@link Blueprint} to Cipher with.
+	 * @param start - Position within the Data, and 'key', of the chunk.
+	 * @param in_header - Whether 'key' is stored within the header.
+	 * @return Stored Bytes of the chunk.
+	 */
+	private static byte[] encodeChunk(final byte[] data, final int offset, final int data_length, final Blueprint key,
+			final int start, final boolean in_header)
+	{
+		final byte[] stored = new byte[data_length * (in_header ? 1 : 3)];
+		if(!in_header)
+			for(int i = 0; i < data_length; i ++)
+			{
+				stored[i] = (byte) key.getType(start + i).ordinal();
+				stored[data_length + i] = key.getIndex(start + i);
+			}
+		ByteTools.scramble(data, offset, stored, stored.length - data_length, data_length, key, start);
+		return stored;
+	}
+
+	private static int checksum(final byte[] stored)
+	{
+		final CRC32 crc = new CRC32();
+		crc.update(stored, 0, stored.length);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Writes the footer and trailer, 'FOOTER_BLOCK' entries at a time.
+	 * @param out - Channel to write to.
+	 * @param footer_position - Position within the file of the footer.
+	 * @param count - Amount of chunks.
+	 * @param positions - Position of each chunk.
+	 * @param lengths - Length of each chunk.
+	 * @param checksums - CRC32 of each chunk.
+	 * @throws IOException - If the file can't be written.
+	 */
+	private static void writeFooter(final FileChannel out, final long footer_position, final int count,
+			final long[] positions, final int[] lengths, final int[] checksums) throws IOException
+	{
+		final ByteBuffer footer = ByteBuffer.allocate(Integer.BYTES + Math.min(count, FOOTER_BLOCK) * ENTRY_LENGTH + TRAILER_LENGTH);
+		footer.putInt(count);
+		long position = footer_position;
+		for(int i = 0; i < count; i ++)
+		{
+			if(footer.remaining() < ENTRY_LENGTH + TRAILER_LENGTH)
+			{
+				footer.flip();
+				final int block = footer.remaining();
+				write(out, footer, position);
+				position += block;
+				footer.clear();
+			}
+			footer.putLong(positions[i]).putInt(lengths[i]).putInt(checksums[i]);
+		}
+		footer.putLong(footer_position).putInt(MAGIC);
+		footer.flip();
+		write(out, footer, position);
+	}
+
+	/**
+	 * Calculates the amount of chunks needed for 'length' Bytes.
+	 * @param length - Amount of Bytes.
+	 * @param chunk_size - Size of each chunk.
+	 * @return Amount of chunks.
+	 */
+	private static int chunkCount(final int length, final int chunk_size)
+	{
+		return (int) ((length + (long) chunk_size - 1) / chunk_size);
+	}
+
+	/**
+	 * Calculates the amount of encoded Bytes within a chunk.
+	 * @param chunk - Number of the chunk.
+	 * @return Amount of encoded Bytes.
+	 */
+	private int dataLength(final int chunk)
+	{
+		if(chunk < 0 || chunk >= positions.length)
+			throw new IndexOutOfBoundsException("Chunk: " + chunk + ", Count: " + positions.length);
+		return Math.min(chunkSize, length - chunk * chunkSize);
+	}
+
+	/**
+	 * Fills 'buffer' from 'position' within the file.
+	 * @param buffer - Buffer to fill.
+	 * @param position - Position within the file.
+	 * @return The filled Buffer, flipped for reading.
+	 * @throws IOException - If the file ends first.
+	 */
+	private ByteBuffer read(final ByteBuffer buffer, final long position) throws IOException
+	{
+		while(buffer.hasRemaining())
+		{
+			final int read = channel.read(buffer, position + buffer.position());
+			if(read < 0)
+				throw new EOFException("Truncated Safe.");
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Writes the whole of 'buffer' at 'position' within the file.
+	 * @param out - Channel to write to.
+	 * @param buffer - Bytes to write.
+	 * @param position - Position within the file.
+	 * @throws IOException - If the file can't be written.
+	 */
+	private static void write(final FileChannel out, final ByteBuffer buffer, final long position) throws IOException
+	{
+		while(buffer.hasRemaining())
+			out.write(buffer, position + buffer.position());
+	}
+
+	/**
+	 * Tests the {@link ChunkedSafe}. A large repetition of the Test String
+	 * is encoded into a chunked {@link Safe}, with a {@link Smartprint}, a
+	 * {@link SeededBlueprint} and a {@link CyclicBlueprint}, then decoded
+	 * whole and a chunk at a time. Only the {@link Smartprint} is stored
+	 * within the chunks. It's also written and read through a {@link Writer}
+	 * and 'openStream'. Then one chunk and one footer are corrupted. If every
+	 * decode matches the repetition, the written files are identical, and
+	 * only the corrupted parts fail, our code works.
+	 *
+	 * @return True if {@link ChunkedSafe} works as intended.
+	 */
+	public static boolean test()
+	{
+		System.out.println("Beginning Chunked Safe Tests...");
+		final byte[] test_bytes = ByteTools.TEST_STR.getBytes(), original_bytes = ByteTools.repeatedTestBytes(1000);
+		final int chunk_size = 4096, corrupt_chunk = 2, other_chunk = 5;
+
+		boolean success = true;
+		for(final Blueprint cipher : new Blueprint[] {new Smartprint(original_bytes), new SeededBlueprint(original_bytes.length),
+				new CyclicBlueprint(new Smartprint(test_bytes))})
+		{
+			boolean match = false, detected = false, streams = false;
+			try
+			{
+				final File file = File.createTempFile("chunked", ".safe");
+				file.deleteOnExit();
+				encode(file, original_bytes, cipher, chunk_size);
+				final File streamed = File.createTempFile("chunked", ".safe");
+				streamed.deleteOnExit();
+				try(Writer writer = new Writer(streamed, cipher, chunk_size))
+				{
+					writer.write(original_bytes[0]);
+					writer.write(original_bytes, 1, 9999);
+					writer.write(original_bytes, 10000, original_bytes.length - 10000);
+				}
+				streams = Arrays.equals(Files.readAllBytes(streamed.toPath()), Files.readAllBytes(file.toPath()));
+				try(ChunkedSafe safe = new ChunkedSafe(streamed); InputStream in = safe.openStream())
+				{
+					final byte[] read = new byte[original_bytes.length];
+					int position = 0, count;
+					while((count = in.read(read, position, Math.min(777, read.length - position))) > 0)
+						position += count;
+					streams &= position == read.length && in.read() == -1 && Arrays.equals(read, original_bytes);
+
+					try(FileChannel corrupt = FileChannel.open(streamed.toPath(), StandardOpenOption.WRITE))
+					{
+						final ByteBuffer chunk_count = ByteBuffer.allocate(Integer.BYTES);
+						chunk_count.putInt(0, Integer.MAX_VALUE);
+						corrupt.write(chunk_count, safe.positions[safe.getChunkCount() - 1] + safe.lengths[safe.getChunkCount() - 1]);
+					}
+				}
+				try
+				{
+					new ChunkedSafe(streamed).close();
+					streams = false;
+				}
+				catch (IOException e)
+				{
+					// Corrupt chunk count rejected before allocating.
+				}
+				try(ChunkedSafe safe = new ChunkedSafe(file))
+				{
+					final int start = other_chunk * chunk_size;
+					match = safe.getChunkCount() == chunkCount(original_bytes.length, chunk_size)
+							&& (safe.headerKey == null) == (cipher instanceof Smartprint)
+							&& Arrays.equals(safe.decode(), original_bytes)
+							&& Arrays.equals(safe.decodeChunk(other_chunk), Arrays.copyOfRange(original_bytes, start, start + chunk_size));
+
+					try(FileChannel corrupt = FileChannel.open(file.toPath(), StandardOpenOption.WRITE))
+					{
+						final long last = safe.positions[corrupt_chunk] + safe.lengths[corrupt_chunk] - 1;
+						final ByteBuffer flipped = safe.read(ByteBuffer.allocate(1), last);
+						flipped.put(0, (byte) (flipped.get(0) ^ 1));
+						corrupt.write(flipped, last);
+					}
+					try
+					{
+						safe.decodeChunk(corrupt_chunk);
+					}
+					catch (IOException e)
+					{
+						detected = true;
+					}
+					match &= Arrays.equals(safe.decodeChunk(other_chunk), Arrays.copyOfRange(original_bytes, start, start + chunk_size));
+				}
+			}
+			catch (IOException e)
+			{
+				e.printStackTrace();
+			}
+			System.out.println(cipher.getClass().getSimpleName() + " match: " + match);
+			System.out.println(cipher.getClass().getSimpleName() + " corruption detected: " + detected);
+			System.out.println(cipher.getClass().getSimpleName() + " streams: " + streams);
+			success &= match && detected && streams;
+		}
+
+		System.out.println("Success: " + success + "\n");
+		return success;
+	}
+}
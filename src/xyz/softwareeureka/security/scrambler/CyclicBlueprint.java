@@ -0,0 +1,314 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A {@link Blueprint} which repeats a shorter {@link Blueprint} over Data
+ * of any length. Position 'i' uses entry 'i % period' of the repeated
+ * {@link Blueprint}, so one short key may be kept and reused for every
+ * message, rather than generating and storing a key as long as each one.
+ * <br><br>
+ *
+ * The entries of one period are copied when constructed, later changes to
+ * the repeated {@link Blueprint} aren't seen. They're laid out repeated
+ * into a Tile of a few KB, which the scramble kernels loop over without
+ * dividing by the period per Byte. A period of one entry is scrambled with
+ * its Table row held aside. Long runs are scrambled through
+ * {@link MaskPlanes} instead, compiled once and kept. Streams and
+ * Channels wrap their position within an unbounded {@link CyclicBlueprint}
+ * back into the first period as they go, so it never runs out. A bounded
+ * one runs out at its length.
+ * <br><br>
+ *
+ * Repeating a key weakens it, the same entry scrambles every Byte a
+ * period apart. Prefer periods much longer than any structure within the
+ * Data.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see Blueprint
+ * @see ByteTools
+ */
+public final class CyclicBlueprint extends DerivedBlueprint
+{
+
+	/**
+	 * Length of an unbounded {@link CyclicBlueprint}, the largest the
+	 * {@link Blueprint} positions reach.
+	 */
+	public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+	/**
+	 * Smallest amount of entries the period is repeated into, fitting
+	 * within the L1 Cache alongside the Table rows used.
+	 */
+	private static final int TILE_LENGTH = 4096;
+
+	/**
+	 * The repeated {@link Blueprint}, for entries outside of the Byte.
+	 */
+	private final Blueprint base;
+
+	/**
+	 * Amount of entries before the {@link Blueprint} repeats.
+	 */
+	private final int period;
+
+	/**
+	 * Packed entries of the period, repeated a whole amount of times.
+	 */
+	private final byte[] tile;
+
+	/**
+	 * Compiled masks, see 'planes'. Null until first needed.
+	 */
+	private volatile MaskPlanes planes;
+
+	/**
+	 * Creates an unbounded {@link CyclicBlueprint} repeating 'base', for
+	 * Streams and Data of any length.
+	 * @param base - {@link Blueprint} to repeat.
+	 */
+	public CyclicBlueprint(final Blueprint base)
+	{
+		this(base, UNBOUNDED);
+	}
+
+	/**
+	 * Creates a {@link CyclicBlueprint} of 'length' entries repeating
+	 * 'base'.
+	 * @param base - {@link Blueprint} to repeat.
+	 * @param length - Amount of entries, the length of the Data.
+	 * @throws IllegalArgumentException - If 'base' is empty, or 'length'
+	 * is negative.
+	 * @throws IndexOutOfBoundsException - If an entry of 'base' has an
+	 * Index but no {@link Type}.
+	 */
+	public CyclicBlueprint(final Blueprint base, final int length)
+	{
+		super(length);
+		if(base == null || base.length() == 0)
+			throw new IllegalArgumentException("Can't repeat an empty Blueprint.");
+		this.base = base;
+		period = base.length();
+
+		final int repeats = Math.max(1, (TILE_LENGTH + period - 1) / period);
+		tile = new byte[(period > TILE_LENGTH) ? period : period * repeats];
+		base.fillPacked(0, tile, 0, period);
+		for(int i = 0; i < period; i ++)
+			if((tile[i] & PACKED_ESCAPE) != 0)
+				base.getType(i);
+		for(int filled = period; filled < tile.length; filled += period)
+			System.arraycopy(tile, 0, tile, filled, period);
+	}
+
+	/**
+	 * Returns the amount of entries before this {@link Blueprint} repeats.
+	 * @return Length of the repeated {@link Blueprint}.
+	 */
+	public int getPeriod()
+	{
+		return period;
+	}
+
+	/**
+	 * Returns the repeated {@link Blueprint}.
+	 * @return Repeated {@link Blueprint}.
+	 */
+	public Blueprint getBase()
+	{
+		return base;
+	}
+
+	/**
+	 * Returns the packed entries of the period, repeated into a Tile.
+	 * Not copied, must not be modified.
+	 * @return Packed entries, a whole amount of periods long.
+	 */
+	byte[] getTile()
+	{
+		return tile;
+	}
+
+	/**
+	 * Returns this {@link CyclicBlueprint} compiled into {@link MaskPlanes},
+	 * compiling it on first use. As the entries are copied when 
+	 * constructed, the compiled masks never go stale. Threads racing to
+	 * compile first may each compile, the masks are the same.
+	 * @return Compiled masks.
+	 * @throws IllegalArgumentException - If the period is too long to
+	 * compile, see {@link MaskPlanes#compile(Blueprint)}.
+	 */
+	MaskPlanes planes()
+	{
+		MaskPlanes compiled = planes;
+		if(compiled == null)
+			planes = compiled = MaskPlanes.compile(this);
+		return compiled;
+	}
+
+	/**
+	 * Produces a List of every {@link Type} within one period.
+	 * @return ArrayList of repeated {@link Type}s.
+	 */
+	@Override
+	public ArrayList<Type> populate()
+	{
+		final ArrayList<Type> types = new ArrayList<>(period);
+		for(int i = 0; i < period; i ++)
+			types.add(getType(i));
+		return types;
+	}
+
+	/**
+	 * Does nothing, as the Indexes are repeated.
+	 */
+	@Override
+	public void populateIndexes() {}
+
+	@Override
+	byte derive(final int position)
+	{
+		return tile[position % period];
+	}
+
+	@Override
+	byte deriveIndex(final int position)
+	{
+		return base.getIndex(position % period);
+	}
+
+	/**
+	 * Copies runs of the Tile, rather than deriving each entry.
+	 */
+	@Override
+	void fillPacked(final int from, final byte[] target, final int offset, final int length)
+	{
+		int phase = from % period, done = 0;
+		while(done < length)
+		{
+			final int run_length = Math.min(tile.length - phase, length - done);
+			System.arraycopy(tile, phase, target, offset + done, run_length);
+			done += run_length;
+			phase = 0;
+		}
+	}
+
+	/**
+	 * Covers the whole Data, up to the length of this {@link Blueprint}.
+	 */
+	@Override
+	int span(final int data_length)
+	{
+		return Math.min(data_length, length());
+	}
+
+	/**
+	 * Wraps only an unbounded {@link CyclicBlueprint}, a bounded one runs
+	 * out at its length like any other {@link Blueprint}.
+	 */
+	@Override
+	int wrap(final int position)
+	{
+		return (length() == UNBOUNDED) ? position % period : position;
+	}
+
+	/**
+	 * Tests the {@link CyclicBlueprint}. A large repetition of the Test
+	 * String is scrambled with a short {@link SeededBlueprint} repeated
+	 * over it, through the Byte Array, {@link ByteBuffer} and Stream paths,
+	 * for periods of one entry, a few entries and more than a Tile. Each is
+	 * checked against the same {@link Blueprint} written out in full, then
+	 * unscrambled. If every path agrees, the Byte Array path went through
+	 * the compiled {@link MaskPlanes}, the repetition comes back and only
+	 * the bounded {@link CyclicBlueprint} runs out, our code works.
+	 *
+	 * @return True if {@link CyclicBlueprint} works as intended.
+	 */
+	public static boolean test()
+	{
+		System.out.println("Beginning Cyclic Blueprint Tests...");
+		final byte[] test_bytes = ByteTools.TEST_STR.getBytes(), original_bytes = ByteTools.repeatedTestBytes(1000);
+
+		boolean success = true;
+		for(final int period : new int[] {1, 3, test_bytes.length, 5000})
+		{
+			final SeededBlueprint key = new SeededBlueprint(period);
+			final CyclicBlueprint cipher = new CyclicBlueprint(key, original_bytes.length),
+					unbounded = new CyclicBlueprint(key);
+
+			final byte[] types = new byte[original_bytes.length], indexes = new byte[original_bytes.length];
+			for(int i = 0; i < original_bytes.length; i ++)
+			{
+				types[i] = (byte) key.getType(i % period).ordinal();
+				indexes[i] = key.getIndex(i % period);
+			}
+			final byte[] expected = ByteTools.scramble(original_bytes, new Blueprint(types, indexes) {
+				public void populateIndexes(){}
+				public ArrayList<Type> populate(){return null;}
+			});
+
+			final ByteBuffer direct = ByteBuffer.allocateDirect(original_bytes.length);
+			direct.put(original_bytes).flip();
+			ByteTools.scramble(direct, unbounded, 7 * period);
+			final byte[] buffered = new byte[original_bytes.length];
+			direct.get(buffered);
+
+			boolean streamed = false;
+			try
+			{
+				final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+				final ScramblingOutputStream scrambling_out = new ScramblingOutputStream(sink, unbounded, 1000);
+				for(int i = 0; i < 3; i ++)
+					scrambling_out.write(original_bytes);
+				scrambling_out.close();
+
+				final byte[] written = sink.toByteArray(), read = new byte[written.length];
+				final ScramblingInputStream scrambling_in = new ScramblingInputStream(new ByteArrayInputStream(written), unbounded);
+				int total = 0, count;
+				while((count = scrambling_in.read(read, total, Math.min(777, read.length - total))) > 0)
+					total += count;
+				scrambling_in.close();
+
+				streamed = Arrays.equals(Arrays.copyOf(written, original_bytes.length), expected);
+				for(int i = 0; i < read.length; i ++)
+					streamed &= read[i] == original_bytes[i % original_bytes.length];
+
+				// A bounded one runs out at its length.
+				final ScramblingOutputStream bounded_out = new ScramblingOutputStream(new ByteArrayOutputStream(), cipher, 1000);
+				bounded_out.write(original_bytes);
+				try
+				{
+					bounded_out.write(original_bytes[0]);
+					streamed = false;
+				}
+				catch (IOException e)
+				{
+					streamed &= bounded_out.getKeyPosition() == cipher.length();
+				}
+			}
+			catch (IOException e)
+			{
+				e.printStackTrace();
+			}
+
+			final boolean match = Arrays.equals(expected, ByteTools.scramble(original_bytes, cipher))
+					&& Arrays.equals(expected, ByteTools.scramble(original_bytes, unbounded))
+					&& Arrays.equals(expected, buffered)
+					&& Arrays.equals(ByteTools.scramble(expected, cipher), original_bytes)
+					&& cipher.planes != null && unbounded.planes != null;
+			System.out.println("Period " + period + " match: " + match + ", streamed: " + streamed);
+			success &= match && streamed;
+		}
+
+		System.out.println("Success: " + success + "\n");
+		return success;
+	}
+}
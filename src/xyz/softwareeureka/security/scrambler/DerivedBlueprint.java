@@ -0,0 +1,56 @@
+package xyz.softwareeureka.security.scrambler;
+
+/**
+ * A {@link Blueprint} whose entries are produced on demand, rather than
+ * stored. Each packed entry is produced by 'derive', and the Index of an
+ * entry flagged with 'PACKED_ESCAPE' by 'deriveIndex'. Derived
+ * {@link Blueprint}s can't be modified.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see SeededBlueprint
+ * @see CyclicBlueprint
+ * @see MappedSafe
+ */
+abstract class DerivedBlueprint extends Blueprint
+{
+
+	/**
+	 * Creates a derived {@link Blueprint} of 'length' entries.
+	 * @param length - Amount of entries.
+	 * @throws IllegalArgumentException - If 'length' is negative.
+	 */
+	DerivedBlueprint(final int length)
+	{
+		super(length);
+	}
+
+	/**
+	 * Produces the packed entry at 'position'. Entries whose Index lies
+	 * outside of the Byte are flagged with 'PACKED_ESCAPE', their Index is
+	 * then produced by 'deriveIndex'.
+	 * @param position - Position of the entry.
+	 * @return Packed entry.
+	 */
+	abstract byte derive(final int position);
+
+	/**
+	 * Produces the Index at 'position', for entries flagged with
+	 * 'PACKED_ESCAPE'.
+	 * @param position - Position of the entry.
+	 * @return Bit Index.
+	 */
+	abstract byte deriveIndex(final int position);
+
+	/**
+	 * Produces the run of entries one at a time.
+	 */
+	@Override
+	void fillPacked(final int from, final byte[] target, final int offset, final int length)
+	{
+		for(int i = 0; i < length; i ++)
+			target[offset + i] = derive(from + i);
+	}
+}
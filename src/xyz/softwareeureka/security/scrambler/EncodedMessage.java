@@ -1,5 +1,15 @@
 package xyz.softwareeureka.security.scrambler;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
 /**
@@ -20,6 +30,11 @@ import java.util.Arrays;
  * Takes User specified Text and {@link Blueprint}. Then scrambles said
  * Text with specified {@link Blueprint}<br><br>
  * 
+ * Takes User specified Text and Charset. The Text is encoded once into
+ * the Array which is then keyed and scrambled in place, and decoded back
+ * into a String or CharBuffer without an unscrambled copy of the whole
+ * Message.<br><br>
+ * 
  * 
  * Never intended to be polymorphed, inherited or serialized. The scrambled
  * bytes and {@link Blueprint} cipher map, if transported.. are advised to 
@@ -35,7 +50,7 @@ import java.util.Arrays;
  * @see Blueprint
  * @see Smartprint
  * @see Type
- * @version 0.2
+ * @version 0.5
  *
  */
 public final class EncodedMessage
@@ -47,11 +62,21 @@ public final class EncodedMessage
 	 */
 	private byte[] msg = null;
 	
+	/**
+	 * Amount of Bytes in use within 'msg', shorter than it if pooled.
+	 */
+	private int length = 0;
+	
 	/**
 	 * Specific {@link Smartprint} used to encode Bytes.
 	 */
 	private volatile Blueprint map = null;
 	
+	/**
+	 * Bytes unscrambled at a time when decoding into Text.
+	 */
+	private static final int DECODE_CHUNK = 4096;
+	
 	/**
 	 * For storing Bytes with no Map.
 	 * @param bytes - Random Bytes.
@@ -59,6 +84,21 @@ public final class EncodedMessage
 	public EncodedMessage(final byte[] bytes)
 	{
 		msg = bytes;
+		length = (bytes != null) ? bytes.length : 0;
+	}
+	
+	/**
+	 * Wraps Bytes already encoded with 'encoding_map', without scrambling
+	 * them again.
+	 * @param encoded - Encoded Bytes, not copied.
+	 * @param encoding_map - Cipher Map they were encoded with.
+	 * @return Encoded Message.
+	 */
+	static EncodedMessage encoded(final byte[] encoded, final Blueprint encoding_map)
+	{
+		final EncodedMessage message = new EncodedMessage(encoded);
+		message.map = encoding_map;
+		return message;
 	}
 	
 	/**
@@ -70,6 +110,7 @@ public final class EncodedMessage
 	{
 		map = encoding_map;
 		msg = ByteTools.scramble(bytes, map);
+		length = msg.length;
 	}
 	
 	/**
@@ -80,6 +121,7 @@ public final class EncodedMessage
 	{
 		map = new Smartprint(text.getBytes());
 		msg = ByteTools.scramble(text.getBytes(), map);
+		length = msg.length;
 	}
 	
 	/**
@@ -91,17 +133,242 @@ public final class EncodedMessage
 	{
 		map = encoding_map;
 		msg = ByteTools.scramble(text.getBytes(), map);
+		length = msg.length;
+	}
+	
+	/**
+	 * For encoding Text in the specified Charset with a random 
+	 * {@link Smartprint}. The Text is encoded once, into the Array which
+	 * is then scrambled in place as each entry of the {@link Smartprint}
+	 * is drawn, so no other copy of the Message is made and it's read
+	 * only once after encoding.
+	 * Characters the Charset can't encode are replaced, as String.getBytes
+	 * would. As with the Byte Array Constructors, encoded Bytes the 
+	 * {@link Blueprint} can't operate on are reported.
+	 * @param text - Text to encode.
+	 * @param charset - Charset of the encoded Text.
+	 * @since 0.7
+	 */
+	public EncodedMessage(final CharSequence text, final Charset charset)
+	{
+		msg = encode(text, charset);
+		length = msg.length;
+		map = Smartprint.scrambling(msg);
+	}
+	
+	/**
+	 * For encoding Text in the specified Charset with a specific 
+	 * {@link Blueprint}, scrambled in place as above.
+	 * @param encoding_map - {@link Blueprint} to encode with.
+	 * @param text - Text to encode.
+	 * @param charset - Charset of the encoded Text.
+	 * @throws IndexOutOfBoundsException - If the {@link Blueprint} is 
+	 * shorter than the encoded Text.
+	 * @since 0.7
+	 */
+	public EncodedMessage(final Blueprint encoding_map, final CharSequence text, final Charset charset)
+	{
+		map = encoding_map;
+		msg = encode(text, charset);
+		length = msg.length;
+		ByteTools.scrambleInPlace(msg, map);
+	}
+	
+	/**
+	 * For encoding Text in the specified Charset with a random 
+	 * {@link Smartprint}, pooled. The encoded Text and the 
+	 * {@link Smartprint} are held within Arrays lent by 'arena', so no
+	 * Array is allocated once the arena is warm. The lent Array may be
+	 * longer than the Message, 'getEncoded' copies out only its encoded
+	 * Bytes. This Message and its {@link Blueprint} must not be used once
+	 * 'arena' is closed.
+	 * @param text - Text to encode.
+	 * @param charset - Charset of the encoded Text.
+	 * @param arena - Open {@link ScratchArena} of the calling Thread.
+	 * @since 0.7
+	 */
+	public EncodedMessage(final CharSequence text, final Charset charset, final ScratchArena arena)
+	{
+		final boolean utf8 = charset.equals(StandardCharsets.UTF_8);
+		msg = arena.bytes(utf8 ? utf8Length(text) : maxLength(text, charset));
+		length = utf8 ? utf8(text, msg, 0) : encode(text, charset, msg);
+		map = new Smartprint(msg, 0, length, arena);
+		ByteTools.scramble(msg, 0, msg, 0, length, map);
+	}
+	
+	/**
+	 * Encodes Text into an Array of exactly its encoded length. UTF-8 is
+	 * measured then written directly, other Charsets are encoded into an
+	 * Array of their largest length, trimmed only if it's not filled.
+	 * @param text - Text to encode.
+	 * @param charset - Charset to encode with.
+	 * @return Encoded Text.
+	 */
+	static byte[] encode(final CharSequence text, final Charset charset)
+	{
+		if(charset.equals(StandardCharsets.UTF_8))
+		{
+			final byte[] encoded = new byte[utf8Length(text)];
+			utf8(text, encoded, 0);
+			return encoded;
+		}
+		final byte[] encoded = new byte[maxLength(text, charset)];
+		final int length = encode(text, charset, encoded);
+		return (length == encoded.length) ? encoded : Arrays.copyOf(encoded, length);
+	}
+	
+	/**
+	 * Returns the most Bytes Text may take once encoded.
+	 * @param text - Text to measure.
+	 * @param charset - Charset to encode with.
+	 * @return Largest encoded length.
+	 */
+	private static int maxLength(final CharSequence text, final Charset charset)
+	{
+		return (int) Math.ceil(text.length() * (double) charset.newEncoder().maxBytesPerChar());
+	}
+	
+	/**
+	 * Encodes Text into 'target' through a replacing CharsetEncoder.
+	 * @param text - Text to encode.
+	 * @param charset - Charset to encode with.
+	 * @param target - Array of at least 'maxLength' Bytes.
+	 * @return Amount of Bytes written.
+	 */
+	private static int encode(final CharSequence text, final Charset charset, final byte[] target)
+	{
+		final CharsetEncoder encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		final ByteBuffer encoded = ByteBuffer.wrap(target);
+		try
+		{
+			check(encoder.encode(CharBuffer.wrap(text), encoded, true));
+			check(encoder.flush(encoded));
+		}
+		catch (CharacterCodingException e)
+		{
+			// Not thrown when replacing, kept for the compiler.
+			throw new IllegalStateException(e);
+		}
+		return encoded.position();
+	}
+	
+	/**
+	 * Measures Text encoded as UTF-8, as String.getBytes would encode it.
+	 * @param text - Text to measure.
+	 * @return Amount of UTF-8 Bytes.
+	 */
+	static int utf8Length(final CharSequence text)
+	{
+		long length = 0;
+		for(int i = 0; i < text.length(); i ++)
+		{
+			final char char_ = text.charAt(i);
+			if(char_ < 0x80)
+				length += 1;
+			else if(char_ < 0x800)
+				length += 2;
+			else if(!Character.isSurrogate(char_))
+				length += 3;
+			else if(Character.isHighSurrogate(char_) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1)))
+			{
+				length += 4;
+				i ++;
+			}
+			// A lone Surrogate is replaced by '?'.
+			else
+				length += 1;
+		}
+		if(length > Integer.MAX_VALUE - 8)
+			throw new OutOfMemoryError("Encoded Text too long: " + length);
+		return (int) length;
+	}
+	
+	/**
+	 * Writes Text as UTF-8 into 'target', which must hold 'utf8Length'
+	 * Bytes from 'offset'.
+	 * @param text - Text to encode.
+	 * @param target - Array to write the encoded Text into.
+	 * @param offset - Position of the first Byte within 'target'.
+	 * @return Position after the last Byte.
+	 */
+	static int utf8(final CharSequence text, final byte[] target, int offset)
+	{
+		for(int i = 0; i < text.length(); i ++)
+		{
+			final char char_ = text.charAt(i);
+			if(char_ < 0x80)
+				target[offset ++] = (byte) char_;
+			else if(char_ < 0x800)
+			{
+				target[offset ++] = (byte) (0xC0 | (char_ >>> 6));
+				target[offset ++] = (byte) (0x80 | (char_ & 0x3F));
+			}
+			else if(!Character.isSurrogate(char_))
+			{
+				target[offset ++] = (byte) (0xE0 | (char_ >>> 12));
+				target[offset ++] = (byte) (0x80 | ((char_ >>> 6) & 0x3F));
+				target[offset ++] = (byte) (0x80 | (char_ & 0x3F));
+			}
+			else if(Character.isHighSurrogate(char_) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1)))
+			{
+				final int code_point = Character.toCodePoint(char_, text.charAt(++ i));
+				target[offset ++] = (byte) (0xF0 | (code_point >>> 18));
+				target[offset ++] = (byte) (0x80 | ((code_point >>> 12) & 0x3F));
+				target[offset ++] = (byte) (0x80 | ((code_point >>> 6) & 0x3F));
+				target[offset ++] = (byte) (0x80 | (code_point & 0x3F));
+			}
+			else
+				target[offset ++] = '?';
+		}
+		return offset;
+	}
+	
+	/**
+	 * Throws if a Charset coding step didn't complete.
+	 * @param result - Result of the step.
+	 * @throws CharacterCodingException - If the Input was malformed.
+	 * @throws BufferOverflowException - If the Output ran out of space.
+	 */
+	private static void check(final CoderResult result) throws CharacterCodingException
+	{
+		if(result.isOverflow())
+			throw new BufferOverflowException();
+		if(result.isError())
+			result.throwException();
 	}
 	
 	/**
-	 * Returns the encoded Byte Array.
+	 * Returns the encoded Byte Array, exactly as long as the Message. If
+	 * pooled, the encoded Bytes are copied out of the lent Array.
 	 * @return Encoded Bytes.
 	 */
 	public byte[] getEncoded()
+	{
+		return (msg == null || length == msg.length) ? msg : Arrays.copyOf(msg, length);
+	}
+	
+	/**
+	 * Returns the Array holding the encoded Bytes, not copied. If pooled,
+	 * it may be longer than the Message, only the first 'getLength' Bytes
+	 * are encoded.
+	 * @return Array holding the encoded Bytes.
+	 */
+	byte[] getEncodedArray()
 	{
 		return msg;
 	}
 	
+	/**
+	 * Returns the amount of encoded Bytes.
+	 * @return Length of the Message.
+	 * @since 0.7
+	 */
+	public int getLength()
+	{
+		return length;
+	}
+	
 	/**
 	 * Returns the {@link Blueprint} used to encode with.
 	 * @return Encoding {@link Blueprint}.
@@ -121,10 +388,180 @@ public final class EncodedMessage
 	 */
 	public byte[] getDecoded(final Blueprint encoding_map)
 	{
+		if(msg == null || encoding_map == null)
+			return new byte[0];
+		if(length == msg.length)
+			return ByteTools.scramble(msg, encoding_map);
+		final byte[] decoded = new byte[length];
+		ByteTools.scramble(msg, 0, decoded, 0, length, encoding_map);
+		return decoded;
+	}
+	
+	/**
+	 * Decodes the encoded Bytes with the specified {@link Blueprint} into
+	 * an Array lent by 'arena'. Only the first 'getLength' Bytes of it are
+	 * decoded. If no encoded Bytes or {@link Blueprint} exist, nothing is
+	 * decoded.
+	 * @param encoding_map - Specific {@link Blueprint} to decode with.
+	 * @param arena - Open {@link ScratchArena} of the calling Thread.
+	 * @return Lent Array holding the decoded Bytes.
+	 * @throws IndexOutOfBoundsException - If the {@link Blueprint} is 
+	 * shorter than the encoded Bytes.
+	 * @since 0.7
+	 */
+	public byte[] getDecoded(final Blueprint encoding_map, final ScratchArena arena)
+	{
+		final byte[] decoded = arena.bytes(length);
 		if(msg != null && encoding_map != null)
-			return ByteTools.scramble(Arrays.copyOf(msg, msg.length), encoding_map);
-		else
+			ByteTools.scramble(msg, 0, decoded, 0, length, encoding_map);
+		return decoded;
+	}
+	
+	/**
+	 * Decodes the encoded Bytes with the specified {@link Blueprint}
+	 * straight into the caller supplied 'target' Array, starting at 
+	 * 'offset'. No new Array is allocated. If no encoded Bytes or 
+	 * {@link Blueprint} exist, nothing is written.
+	 * @param encoding_map - Specific {@link Blueprint} to decode with.
+	 * @param target - Array to write the decoded Bytes to.
+	 * @param offset - Position within 'target' of the first decoded Byte.
+	 * @return Amount of decoded Bytes written.
+	 * @throws IndexOutOfBoundsException - If 'target' can't hold the 
+	 * decoded Bytes, or the {@link Blueprint} is shorter than them.
+	 * @since 0.7
+	 */
+	public int getDecoded(final Blueprint encoding_map, final byte[] target, final int offset)
+	{
+		if(msg == null || encoding_map == null)
+			return 0;
+		ByteTools.scramble(msg, 0, target, offset, length, encoding_map);
+		return length;
+	}
+	
+	/**
+	 * Decodes only 'length' encoded Bytes from 'offset' with the specified
+	 * {@link Blueprint}. Each Byte depends only on its own position within
+	 * the {@link Blueprint}, so the rest of the Message is never touched.
+	 * If no encoded Bytes or {@link Blueprint} exist, then an empty Byte 
+	 * Array is returned.
+	 * @param encoding_map - Specific {@link Blueprint} to decode with.
+	 * @param offset - Position of the first encoded Byte to decode.
+	 * @param length - Amount of Bytes to decode.
+	 * @return Decoded Byte Array, or Empty Byte Array if Error occurred.
+	 * @throws IndexOutOfBoundsException - If the range lies outside of the
+	 * encoded Bytes or the {@link Blueprint}.
+	 * @since 0.7
+	 */
+	public byte[] getDecoded(final Blueprint encoding_map, final int offset, final int length)
+	{
+		if(msg == null || encoding_map == null)
 			return new byte[0];
+		ByteTools.checkRegion(this.length, offset, length);
+		final byte[] decoded = new byte[length];
+		ByteTools.scramble(msg, offset, decoded, 0, length, encoding_map, offset);
+		return decoded;
+	}
+	
+	/**
+	 * Decodes only 'length' encoded Bytes from 'offset' with the specified
+	 * {@link Blueprint}, straight into the remaining space of 'target', 
+	 * heap or direct. The position of 'target' is advanced past the
+	 * decoded Bytes. If no encoded Bytes or {@link Blueprint} exist, 
+	 * nothing is written.
+	 * @param encoding_map - Specific {@link Blueprint} to decode with.
+	 * @param offset - Position of the first encoded Byte to decode.
+	 * @param length - Amount of Bytes to decode.
+	 * @param target - Buffer to write the decoded Bytes to.
+	 * @return Amount of decoded Bytes written.
+	 * @throws IndexOutOfBoundsException - If the range lies outside of the
+	 * encoded Bytes or the {@link Blueprint}.
+	 * @throws BufferOverflowException - If 'target' has less than 'length'
+	 * Bytes remaining.
+	 * @since 0.7
+	 */
+	public int getDecoded(final Blueprint encoding_map, final int offset, final int length, final ByteBuffer target)
+	{
+		if(msg == null || encoding_map == null)
+			return 0;
+		ByteTools.checkRegion(this.length, offset, length);
+		if(target.remaining() < length)
+			throw new BufferOverflowException();
+		ByteTools.scramble(ByteBuffer.wrap(msg), offset, target, target.position(), length, encoding_map, offset);
+		target.position(target.position() + length);
+		return length;
+	}
+	
+	/**
+	 * Decodes the encoded Bytes with the specified {@link Blueprint} into
+	 * Text of the specified Charset, written into the remaining space of
+	 * 'target'. The Bytes are unscrambled a few KB at a time into a
+	 * scratch Array, which is cleared afterwards, and decoded from there,
+	 * so the unscrambled Message is never held whole. Malformed Bytes are
+	 * replaced, as new String would. If no encoded Bytes or 
+	 * {@link Blueprint} exist, nothing is written.
+	 * @param encoding_map - Specific {@link Blueprint} to decode with.
+	 * @param charset - Charset the Text was encoded in.
+	 * @param target - Buffer to write the decoded Text to.
+	 * @return Amount of Characters written.
+	 * @throws BufferOverflowException - If 'target' can't hold the Text.
+	 * @throws IndexOutOfBoundsException - If the {@link Blueprint} is 
+	 * shorter than the encoded Bytes.
+	 * @since 0.7
+	 */
+	public int getDecoded(final Blueprint encoding_map, final Charset charset, final CharBuffer target)
+	{
+		if(msg == null || encoding_map == null)
+			return 0;
+		ByteTools.checkRegion(encoding_map.length(), 0, length);
+		final CharsetDecoder decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		final int start = target.position();
+		try(ScratchArena scratch = ScratchArena.open())
+		{
+			// Cleared once the arena is closed.
+			final ByteBuffer chunk = ByteBuffer.wrap(scratch.bytes(Math.min(DECODE_CHUNK, length)));
+			int done = 0;
+			while(done < length)
+			{
+				// Bytes of a split Character are carried over by 'compact'.
+				final int run_length = Math.min(chunk.remaining(), length - done);
+				ByteTools.scramble(msg, done, chunk.array(), chunk.position(), run_length, encoding_map, done);
+				chunk.position(chunk.position() + run_length);
+				done += run_length;
+				chunk.flip();
+				check(decoder.decode(chunk, target, done == length));
+				chunk.compact();
+			}
+			chunk.flip();
+			check(decoder.decode(chunk, target, true));
+			check(decoder.flush(target));
+		}
+		catch (CharacterCodingException e)
+		{
+			// Not thrown when replacing, kept for the compiler.
+			throw new IllegalStateException(e);
+		}
+		return target.position() - start;
+	}
+	
+	/**
+	 * Decodes the encoded Bytes with the specified {@link Blueprint} into
+	 * a String of the specified Charset, as above. If no encoded Bytes or 
+	 * {@link Blueprint} exist, then an empty String is returned.
+	 * @param encoding_map - Specific {@link Blueprint} to decode with.
+	 * @param charset - Charset the Text was encoded in.
+	 * @return Decoded Text, or Empty String if Error occurred.
+	 * @throws IndexOutOfBoundsException - If the {@link Blueprint} is 
+	 * shorter than the encoded Bytes.
+	 * @since 0.7
+	 */
+	public String getDecoded(final Blueprint encoding_map, final Charset charset)
+	{
+		if(msg == null || encoding_map == null)
+			return "";
+		final CharBuffer text = CharBuffer.allocate((int) Math.ceil(length * (double) charset.newDecoder().maxCharsPerByte()));
+		final int length = getDecoded(encoding_map, charset, text);
+		return new String(text.array(), 0, length);
 	}
 	
 	/**
@@ -146,10 +583,68 @@ public final class EncodedMessage
 		System.out.println("Encoded: " + new String(msg.getEncoded()));
 		System.out.println("Decoded: " + new String(decoded));
 		
+		final int offset = 3;
+		final byte[] buffer = new byte[decoded.length + offset];
+		final int written = msg.getDecoded(msg.getMap(), buffer, offset);
+		final byte[] buffered = Arrays.copyOfRange(buffer, offset, offset + written);
+		ByteTools.scrambleInPlace(buffered, msg.getMap());
+		System.out.println("Buffered: " + new String(buffer, offset, written));
+		
+		final int slice_offset = 6, slice_length = 5;
+		final byte[] slice = msg.getDecoded(msg.getMap(), slice_offset, slice_length);
+		final ByteBuffer direct = ByteBuffer.allocateDirect(slice_length);
+		msg.getDecoded(msg.getMap(), slice_offset, slice_length, direct);
+		final byte[] direct_slice = new byte[slice_length];
+		direct.flip();
+		direct.get(direct_slice);
+		System.out.println("Slice: " + new String(slice));
+		
+		// Ranges past the Message or of negative length are refused.
+		boolean bounded = true;
+		for(final int[] range : new int[][] {{msg.getLength() - 1, 2}, {0, -1}})
+		{
+			try
+			{
+				msg.getDecoded(msg.getMap(), range[0], range[1]);
+				bounded = false;
+			}
+			catch (IndexOutOfBoundsException e)
+			{
+				// Refused before allocating.
+			}
+		}
+		
 		boolean match = text_str.getBytes().equals(msg.getEncoded()),
-				success = new String(decoded).equals(text_str) && !match;
+				success = new String(decoded).equals(text_str) && !match
+					&& Arrays.equals(decoded, Arrays.copyOfRange(buffer, offset, offset + written))
+					&& Arrays.equals(buffered, msg.getEncoded())
+					&& new String(slice).equals(text_str.substring(slice_offset, slice_offset + slice_length))
+					&& Arrays.equals(direct_slice, slice) && bounded;
+		
+		// Several chunks of Text, then Text beyond ASCII is checked against
+		// String.getBytes, as Smartprint can't operate on every such Byte.
+		final StringBuilder long_text = new StringBuilder();
+		for(int i = 0; i < 200; i ++)
+			long_text.append(text_str);
+		final String wide_text = text_str + "\u00E9\u20AC\uD83D\uDE00\uD800";
+		boolean charsets = Arrays.equals(encode(wide_text, StandardCharsets.UTF_8), wide_text.getBytes(StandardCharsets.UTF_8))
+				&& Arrays.equals(encode(wide_text, StandardCharsets.UTF_16), wide_text.getBytes(StandardCharsets.UTF_16));
+		for(final Charset charset : new Charset[] {StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, StandardCharsets.US_ASCII})
+		{
+			final EncodedMessage text_msg = new EncodedMessage(long_text, charset);
+			final Blueprint text_key = new Smartprint(text_str.getBytes(charset));
+			final CharBuffer chars = CharBuffer.allocate(long_text.length());
+			text_msg.getDecoded(text_msg.getMap(), charset, chars);
+			chars.flip();
+			charsets &= Arrays.equals(ByteTools.scramble(text_msg.getEncoded(), text_msg.getMap()), long_text.toString().getBytes(charset))
+					&& text_msg.getDecoded(text_msg.getMap(), charset).contentEquals(long_text)
+					&& chars.toString().contentEquals(long_text)
+					&& new String(new EncodedMessage(text_key, text_str, charset).getDecoded(text_key), charset).equals(text_str);
+		}
+		success &= charsets;
 		
 		System.out.println("Match: " + match);
+		System.out.println("Charsets: " + charsets);
 		System.out.println("Success: " + success + "\n");
 		
 		return success;
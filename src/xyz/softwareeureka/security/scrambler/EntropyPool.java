@@ -0,0 +1,418 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A pool of random Bits drawn from a {@link SecureRandom} ahead of time,
+ * on a background Thread. Two Buffers are kept, one is drawn from while
+ * the other is filled, then they're swapped. Drawing random Bits is then
+ * a copy out of memory, the latency of the {@link SecureRandom} is kept
+ * off of the Thread creating a key. <br><br>
+ *
+ * The Buffers are split evenly into stripes, each with a pair of its own
+ * guarded by its own lock. A Thread always draws from the stripe its id
+ * picks, so Threads drawing at once rarely wait on each other. Every
+ * Buffer is filled by the background Thread, starting as soon as the
+ * pool is created, so creating one doesn't wait on the
+ * {@link SecureRandom}. <br><br>
+ *
+ * If both Buffers of a stripe are drained before the background Thread
+ * has refilled one, the stripe is starved. Rather than wait, the caller
+ * draws from the {@link SecureRandom} itself and the starvation is
+ * counted, so the Buffer size can be tuned. Draws made before the first
+ * Buffers are filled are starved too. A single pool is shared by
+ * {@link KeyGenerator}s by default, see 'shared'.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see KeyGenerator
+ * @see Smartprint
+ */
+public final class EntropyPool implements LongSupplier, AutoCloseable
+{
+
+	/**
+	 * Default amount of longs per Buffer, 512 KB, split across the stripes.
+	 */
+	public static final int DEFAULT_BUFFER_LONGS = 1 << 16;
+
+	/**
+	 * Source of random Bits.
+	 */
+	private final SecureRandom source;
+
+	/**
+	 * Guards 'pending' and 'closed', and wakes the background Thread.
+	 */
+	private final Object lock = new Object();
+
+	/**
+	 * True once a stripe has a Buffer to refill, until the background
+	 * Thread looks through the stripes.
+	 */
+	private boolean pending = true;
+
+	private boolean closed = false;
+
+	/**
+	 * Stripes drawn from, a power of two of them.
+	 */
+	private final Stripe[] stripes;
+
+	/**
+	 * Amount of longs per Buffer, across every stripe.
+	 */
+	private final int bufferLongs;
+
+	/**
+	 * Bytes each Buffer is drawn into, only used by the background Thread.
+	 */
+	private final byte[] drawn;
+
+	private final LongAdder starvations = new LongAdder(), refills = new LongAdder();
+
+	/**
+	 * A pair of Buffers and the position drawn up to, guarded by the
+	 * stripe itself.
+	 */
+	private static final class Stripe
+	{
+		/**
+		 * Buffer being drawn from, and the Buffer being filled or ready.
+		 */
+		private long[] active, standby;
+
+		/**
+		 * Position of the next long within 'active'. Starts drained.
+		 */
+		private int position;
+
+		/**
+		 * True once 'standby' is filled.
+		 */
+		private boolean ready = false;
+
+		Stripe(final int buffer_longs)
+		{
+			active = new long[buffer_longs];
+			standby = new long[buffer_longs];
+			position = buffer_longs;
+		}
+	}
+
+	/**
+	 * The pool shared by default, created when first used.
+	 */
+	private static final class Shared
+	{
+		private static final EntropyPool POOL = new EntropyPool(new SecureRandom(), DEFAULT_BUFFER_LONGS);
+	}
+
+	/**
+	 * Creates a pool drawing from a new {@link SecureRandom}, with Buffers
+	 * of 'DEFAULT_BUFFER_LONGS'.
+	 */
+	public EntropyPool()
+	{
+		this(new SecureRandom(), DEFAULT_BUFFER_LONGS);
+	}
+
+	/**
+	 * Creates a pool drawing from the parameter 'source', with a stripe
+	 * per processor at most. Returns straight away, the Buffers are filled
+	 * by the background Thread.
+	 * @param source - Source of random Bits.
+	 * @param buffer_longs - Amount of longs per Buffer, across every stripe.
+	 */
+	public EntropyPool(final SecureRandom source, final int buffer_longs)
+	{
+		if(source == null || buffer_longs <= 0)
+			throw new IllegalArgumentException("Null source or invalid Buffer size: " + buffer_longs);
+		this.source = source;
+		bufferLongs = buffer_longs;
+		int count = 1;
+		while(count < Runtime.getRuntime().availableProcessors() && count * 2 <= buffer_longs)
+			count <<= 1;
+		stripes = new Stripe[count];
+		for(int i = 0; i < count; i ++)
+			stripes[i] = new Stripe(buffer_longs / count);
+		drawn = new byte[(buffer_longs / count) * Long.BYTES];
+
+		final Thread filler = new Thread(this::refill, "EntropyPool");
+		filler.setDaemon(true);
+		filler.start();
+	}
+
+	/**
+	 * Returns the pool shared by default, drawing from a
+	 * {@link SecureRandom}. Its Thread is a daemon, it's never closed.
+	 * @return Shared pool.
+	 */
+	public static EntropyPool shared()
+	{
+		return Shared.POOL;
+	}
+
+	/**
+	 * Draws 64 random Bits.
+	 * @return Random Bits.
+	 */
+	@Override
+	public long getAsLong()
+	{
+		final Stripe stripe = stripe();
+		synchronized(stripe)
+		{
+			if(stripe.position < stripe.active.length || swap(stripe))
+			{
+				final long bits = stripe.active[stripe.position];
+				// Bits are never handed out twice.
+				stripe.active[stripe.position ++] = 0L;
+				return bits;
+			}
+		}
+		return source.nextLong();
+	}
+
+	/**
+	 * Draws 'length' longs of random Bits into 'target', copying out of
+	 * the Buffers of the calling Thread's stripe. Whatever they can't
+	 * supply is drawn from the {@link SecureRandom} directly.
+	 * @param target - Array to fill.
+	 * @param offset - Position of the first long within 'target'.
+	 * @param length - Amount of longs to draw.
+	 */
+	public void fill(final long[] target, final int offset, final int length)
+	{
+		ByteTools.checkRegion(target.length, offset, length);
+		final Stripe stripe = stripe();
+		int done = 0;
+		synchronized(stripe)
+		{
+			while(done < length && (stripe.position < stripe.active.length || swap(stripe)))
+			{
+				final int run_length = Math.min(stripe.active.length - stripe.position, length - done);
+				System.arraycopy(stripe.active, stripe.position, target, offset + done, run_length);
+				// Bits are never handed out twice.
+				Arrays.fill(stripe.active, stripe.position, stripe.position + run_length, 0L);
+				stripe.position += run_length;
+				done += run_length;
+			}
+		}
+		if(done < length)
+		{
+			// A lent Array may be longer than needed, it's drawn whole.
+			try(ScratchArena scratch = ScratchArena.open())
+			{
+				final byte[] bytes = scratch.bytes((length - done) * Long.BYTES);
+				source.nextBytes(bytes);
+				ByteBuffer.wrap(bytes).asLongBuffer().get(target, offset + done, length - done);
+			}
+		}
+	}
+
+	/**
+	 * Returns the stripe the calling Thread draws from.
+	 * @return Stripe of the calling Thread.
+	 */
+	private Stripe stripe()
+	{
+		return stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+	}
+
+	/**
+	 * Swaps in the standby Buffer of 'stripe', if it's ready, and wakes
+	 * the background Thread to refill the drained one. Counts a starvation
+	 * otherwise. Called holding the lock of 'stripe'.
+	 * @param stripe - Stripe to swap.
+	 * @return True if swapped.
+	 */
+	private boolean swap(final Stripe stripe)
+	{
+		if(!stripe.ready)
+		{
+			starvations.increment();
+			return false;
+		}
+		final long[] drained = stripe.active;
+		stripe.active = stripe.standby;
+		stripe.standby = drained;
+		stripe.position = 0;
+		stripe.ready = false;
+		synchronized(lock)
+		{
+			pending = true;
+			lock.notifyAll();
+		}
+		return true;
+	}
+
+	/**
+	 * Body of the background Thread. Waits until a stripe has a Buffer to
+	 * refill, then fills every such Buffer outside of the locks. The
+	 * standby Buffers start empty, so the first pass fills them all.
+	 */
+	private void refill()
+	{
+		while(true)
+		{
+			synchronized(lock)
+			{
+				while(!pending && !closed)
+				{
+					try
+					{
+						lock.wait();
+					}
+					catch (InterruptedException e)
+					{
+						return;
+					}
+				}
+				if(closed)
+					return;
+				pending = false;
+			}
+			for(final Stripe stripe : stripes)
+			{
+				final long[] buffer;
+				synchronized(stripe)
+				{
+					if(stripe.ready)
+						continue;
+					buffer = stripe.standby;
+				}
+				fill(buffer);
+				synchronized(stripe)
+				{
+					stripe.ready = true;
+				}
+				refills.increment();
+			}
+		}
+	}
+
+	/**
+	 * Fills a whole Buffer from the {@link SecureRandom}, in one draw.
+	 * @param buffer - Buffer to fill.
+	 */
+	private void fill(final long[] buffer)
+	{
+		source.nextBytes(drawn);
+		ByteBuffer.wrap(drawn).asLongBuffer().get(buffer);
+	}
+
+	/**
+	 * Returns the amount of times a draw found both Buffers of its stripe
+	 * drained and drew from the {@link SecureRandom} directly.
+	 * @return Amount of starvations.
+	 */
+	public long getStarvationCount()
+	{
+		return starvations.sum();
+	}
+
+	/**
+	 * Returns the amount of Buffers refilled by the background Thread.
+	 * @return Amount of refills.
+	 */
+	public long getRefillCount()
+	{
+		return refills.sum();
+	}
+
+	/**
+	 * Returns the amount of longs per Buffer, across every stripe.
+	 * @return Buffer size in longs.
+	 */
+	public int getBufferLongs()
+	{
+		return bufferLongs;
+	}
+
+	/**
+	 * Stops the background Thread. Later draws come from the
+	 * {@link SecureRandom} directly once the Buffers are drained.
+	 */
+	@Override
+	public void close()
+	{
+		synchronized(lock)
+		{
+			closed = true;
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Tests the {@link EntropyPool}. A small pool is drained through many
+	 * Buffers, by single and bulk draws, then used to generate a
+	 * {@link Smartprint}. If the background Thread refills the Buffers, no
+	 * drawn long is repeated or left in its Buffer, the Test String
+	 * scrambles and unscrambles and a closed pool still draws, our code
+	 * works.
+	 *
+	 * @return True if {@link EntropyPool} works as intended.
+	 */
+	public static boolean test()
+	{
+		System.out.println("Beginning Entropy Pool Tests...");
+		final byte[] original_bytes = ByteTools.TEST_STR.getBytes();
+		final HashSet<Long> drawn = new HashSet<>();
+		boolean unique = true, cleared = true;
+		final long refills, starvations;
+		String translated = "";
+		final long[] bulk = new long[100];
+		final EntropyPool pool = new EntropyPool(new SecureRandom(), 64);
+		try
+		{
+			for(int i = 0; i < 20; i ++)
+			{
+				unique &= drawn.add(pool.getAsLong());
+				final Stripe stripe = pool.stripe();
+				synchronized(stripe)
+				{
+					cleared &= stripe.position == 0 || stripe.active[stripe.position - 1] == 0L;
+				}
+				pool.fill(bulk, 0, bulk.length);
+				for(final long bits : bulk)
+					unique &= drawn.add(bits);
+			}
+			final Smartprint cipher = new Smartprint(original_bytes, new KeyGenerator(pool));
+			translated = new String(ByteTools.scramble(ByteTools.scramble(original_bytes, cipher), cipher));
+
+			// Give the background Thread time to refill a drained Buffer.
+			final long deadline = System.nanoTime() + 5_000_000_000L;
+			while(pool.getRefillCount() == 0 && System.nanoTime() - deadline < 0)
+				Thread.sleep(1);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		finally
+		{
+			refills = pool.getRefillCount();
+			pool.close();
+		}
+		pool.fill(bulk, 0, bulk.length);
+		for(final long bits : bulk)
+			unique &= drawn.add(bits);
+		unique &= drawn.add(pool.getAsLong());
+		starvations = pool.getStarvationCount();
+		final boolean success = unique && cleared && refills > 0 && translated.equals(ByteTools.TEST_STR);
+
+		System.out.println("Unique: " + unique + ", Cleared: " + cleared);
+		System.out.println("Refills: " + refills + ", Starvations: " + starvations);
+		System.out.println("Decoded: " + translated);
+		System.out.println("Success: " + success + "\n");
+		return success;
+	}
+}
@@ -0,0 +1,344 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+import xyz.softwareeureka.security.scrambler.BitException.ExceptionType;
+
+/**
+ * Generates the random {@link Type}s and Indexes of a {@link Smartprint}
+ * in bulk. Bit lengths are calculated arithmetically rather than through
+ * Binary Strings, and random Bits are drawn 64 at a time, each draw
+ * covering the {@link Type} and Index of two Bytes. The entries are
+ * written straight into the packed storage of the {@link Blueprint}.
+ * <br><br>
+ * The source of random Bits is pluggable, any {@link Random} (including
+ * {@link java.security.SecureRandom}) or {@link LongSupplier} may be used.
+ * By default the shared {@link EntropyPool} is used, so the Bits come from
+ * a {@link java.security.SecureRandom} without waiting on it, and a single
+ * generator may be shared between Threads. An {@link EntropyPool} is drawn
+ * from in bulk.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see Smartprint
+ * @see Blueprint
+ * @see Type
+ */
+public final class KeyGenerator
+{
+
+	/**
+	 * Cached {@link Type} values, to avoid cloning them per Byte.
+	 */
+	private static final Type[] TYPES = Type.values();
+
+	/**
+	 * Smallest Index produced, so we can accommodate swapping Bits Left
+	 * and Right.
+	 */
+	private static final int MIN_INDEX = 2;
+
+	/**
+	 * Space required on each Side of the Byte.
+	 */
+	private static final int INDEX_OFFSET = 2;
+
+	/**
+	 * Random Bits used per Byte. 16 for the {@link Type}, 16 for the Index.
+	 */
+	private static final int BITS_PER_BYTE = 32;
+
+	/**
+	 * Mask of a 16 Bit random field.
+	 */
+	private static final long FIELD_MASK = 0xFFFF;
+
+	/**
+	 * Width of a random field.
+	 */
+	private static final int FIELD_BITS = 16;
+
+	/**
+	 * Source of random Bits.
+	 */
+	private final LongSupplier randomBits;
+
+	/**
+	 * Amount of longs drawn from an {@link EntropyPool} at a time.
+	 */
+	private static final int POOL_DRAW = 512;
+
+	/**
+	 * Creates a generator drawing from the shared {@link EntropyPool}.
+	 */
+	public KeyGenerator()
+	{
+		this(EntropyPool.shared());
+	}
+
+	/**
+	 * Creates a generator drawing from the parameter 'random'.
+	 * @param random - Source of random Bits.
+	 */
+	public KeyGenerator(final Random random)
+	{
+		this(random::nextLong);
+	}
+
+	/**
+	 * Creates a generator drawing from the parameter 'random_bits'. Each
+	 * call must supply 64 random Bits.
+	 * @param random_bits - Source of random Bits.
+	 */
+	public KeyGenerator(final LongSupplier random_bits)
+	{
+		if(random_bits == null)
+			throw new IllegalArgumentException("Null source of random Bits.");
+		randomBits = random_bits;
+	}
+
+	/**
+	 * Calculates the length of a Byte's Binary String, as given by
+	 * Integer.toBinaryString, without creating the String.
+	 * @param byte_ - Byte to measure.
+	 * @return Length of the Binary String. 32 for negative Bytes.
+	 */
+	public static int bitLength(final byte byte_)
+	{
+		if(byte_ == 0)
+			return 1;
+		return Integer.SIZE - Integer.numberOfLeadingZeros(byte_);
+	}
+
+	/**
+	 * Fills an empty {@link Blueprint} with a random {@link Type} and
+	 * Index for each Byte within 'data'. Each Index lies within the Bit
+	 * length of its Byte, as {@link Smartprint} has always drawn them.
+	 * @param target - Empty {@link Blueprint} to fill.
+	 * @param data - Bytes to generate a Cipher Map for.
+	 */
+	public void generate(final Blueprint target, final byte[] data)
+	{
+		generate(target, data, 0, data.length);
+	}
+
+	/**
+	 * Fills an empty {@link Blueprint} for a region of 'data', as above.
+	 * @param target - Empty {@link Blueprint} to fill.
+	 * @param data - Bytes to generate a Cipher Map for.
+	 * @param offset - Position of the first Byte within 'data'.
+	 * @param length - Amount of Bytes.
+	 */
+	public void generate(final Blueprint target, final byte[] data, final int offset, final int length)
+	{
+		ByteTools.checkRegion(data.length, offset, length);
+		try(ScratchArena scratch = ScratchArena.open())
+		{
+			final Entries entries = new Entries(new byte[length], length, scratch);
+			for(int i = 0; i < length; i ++)
+				entries.add(i, bitLength(data[offset + i]));
+			target.adopt(entries.packed, entries.wide);
+		}
+	}
+
+	/**
+	 * Fills an empty {@link Blueprint} for a region of 'data', as above,
+	 * with its entries held in an Array lent by 'arena'. The
+	 * {@link Blueprint} must not be used once 'arena' is closed.
+	 * @param target - Empty {@link Blueprint} to fill.
+	 * @param data - Bytes to generate a Cipher Map for.
+	 * @param offset - Position of the first Byte within 'data'.
+	 * @param length - Amount of Bytes.
+	 * @param arena - Arena to hold the entries.
+	 */
+	public void generate(final Blueprint target, final byte[] data, final int offset, final int length, final ScratchArena arena)
+	{
+		ByteTools.checkRegion(data.length, offset, length);
+		final Entries entries = new Entries(arena.bytes(length), length, arena);
+		for(int i = 0; i < length; i ++)
+			entries.add(i, bitLength(data[offset + i]));
+		target.adopt(entries.packed, entries.wide, length);
+	}
+
+	/**
+	 * Fills an empty {@link Blueprint} for 'data', as above, scrambling
+	 * each Byte in place as soon as its entry is drawn, so 'data' is read
+	 * only once. Bytes the entries can't operate on are reported, as
+	 * {@link ByteTools#scramble(byte[], Blueprint)} would.
+	 * @param target - Empty {@link Blueprint} to fill.
+	 * @param data - Bytes to generate a Cipher Map for, then Scramble.
+	 * @return Report of each fault, or Null if there were none.
+	 */
+	ValidationReport generateScrambling(final Blueprint target, final byte[] data)
+	{
+		ValidationReport report = null;
+		try(ScratchArena scratch = ScratchArena.open())
+		{
+			final Entries entries = new Entries(new byte[data.length], data.length, scratch);
+			for(int i = 0; i < data.length; i ++)
+			{
+				entries.add(i, bitLength(data[i]));
+				final int entry = ScrambleTable.lookup(data[i], entries.lastIndex, entries.lastType);
+				data[i] = (byte) entry;
+				final ExceptionType fault = ScrambleTable.fault(entry);
+				if(fault != null)
+				{
+					if(report == null)
+						report = new ValidationReport(data.length, data.length);
+					report.add(i, fault);
+				}
+			}
+			target.adopt(entries.packed, entries.wide);
+		}
+		return report;
+	}
+
+	/**
+	 * Fills an empty {@link Blueprint} with a random {@link Type} and
+	 * Index for each Binary String within 'binary'. Each Index lies within
+	 * the length of its Binary String.
+	 * @param target - Empty {@link Blueprint} to fill.
+	 * @param binary - Binary Strings to generate a Cipher Map for.
+	 */
+	public void generate(final Blueprint target, final String[] binary)
+	{
+		try(ScratchArena scratch = ScratchArena.open())
+		{
+			final Entries entries = new Entries(new byte[binary.length], binary.length, scratch);
+			for(int i = 0; i < binary.length; i ++)
+				entries.add(i, binary[i].length());
+			target.adopt(entries.packed, entries.wide);
+		}
+	}
+
+	/**
+	 * Packed entries under construction. Random Bits are drawn 64 at a
+	 * time and consumed 32 per entry.
+	 */
+	private final class Entries
+	{
+		private final byte[] packed;
+		private byte[] wide = null;
+		private long bits = 0;
+		private int bitsLeft = 0;
+
+		/**
+		 * {@link Type} and Index of the entry last drawn.
+		 */
+		private Type lastType = null;
+		private byte lastIndex = 0;
+
+		/**
+		 * Longs drawn in bulk from an {@link EntropyPool}, lent by the
+		 * arena. Null otherwise.
+		 */
+		private final long[] drawn;
+		private final int drawLength;
+		private int drawnLeft = 0;
+
+		/**
+		 * @param packed - Array to write the entries into, Zero filled.
+		 * @param length - Amount of entries to draw.
+		 * @param scratch - Arena to lend the drawn longs.
+		 */
+		Entries(final byte[] packed, final int length, final ScratchArena scratch)
+		{
+			this.packed = packed;
+			drawLength = Math.min(POOL_DRAW, (length + 1) / 2);
+			drawn = (randomBits instanceof EntropyPool) ? scratch.longs(drawLength) : null;
+		}
+
+		/**
+		 * Draws the next 64 random Bits.
+		 */
+		private long next()
+		{
+			if(drawn == null)
+				return randomBits.getAsLong();
+			if(drawnLeft == 0)
+			{
+				((EntropyPool) randomBits).fill(drawn, 0, drawLength);
+				drawnLeft = drawLength;
+			}
+			return drawn[-- drawnLeft];
+		}
+
+		/**
+		 * Draws the entry at 'position'.
+		 * @param position - Position of the entry.
+		 * @param bit_length - Bit length of the Byte at that position.
+		 */
+		void add(final int position, final int bit_length)
+		{
+			if(bitsLeft == 0)
+			{
+				bits = next();
+				bitsLeft = Long.SIZE;
+			}
+			final int type = (int) (((bits & FIELD_MASK) * TYPES.length) >>> FIELD_BITS),
+					bound = bit_length - INDEX_OFFSET;
+			int index = (bound > 0) ? (int) ((((bits >>> FIELD_BITS) & FIELD_MASK) * bound) >>> FIELD_BITS) : MIN_INDEX;
+			// If Zero or One, correct in case of Swap.
+			if(index < MIN_INDEX)
+				index = MIN_INDEX;
+			bits >>>= BITS_PER_BYTE;
+			bitsLeft -= BITS_PER_BYTE;
+			lastType = TYPES[type];
+			lastIndex = (byte) index;
+
+			packed[position] = (byte) ((type << Blueprint.PACKED_TYPE_SHIFT) | (index & Blueprint.PACKED_INDEX_MASK));
+			if(index > Blueprint.PACKED_INDEX_MASK && wide == null)
+			{
+				wide = new byte[packed.length];
+				for(int i = 0; i < position; i ++)
+					wide[i] = (byte) (packed[i] & Blueprint.PACKED_INDEX_MASK);
+			}
+			if(wide != null)
+				wide[position] = (byte) index;
+			if(index > Blueprint.PACKED_INDEX_MASK)
+				packed[position] |= Blueprint.PACKED_ESCAPE;
+		}
+	}
+
+	/**
+	 * Tests the {@link KeyGenerator}. Every Byte's Bit length is compared
+	 * with the length of its Binary String, then two {@link Smartprint}s are
+	 * generated from equally seeded sources. If the Bit lengths match, both
+	 * {@link Smartprint}s agree on every entry, every Index lies within its
+	 * Byte and the Test String scrambles and unscrambles, our code works.
+	 *
+	 * @return True if {@link KeyGenerator} works as intended.
+	 */
+	public static boolean test()
+	{
+		System.out.println("Beginning Key Generator Tests...");
+		boolean lengths = true;
+		for(int i = Byte.MIN_VALUE; i <= Byte.MAX_VALUE; i ++)
+			lengths &= bitLength((byte) i) == Integer.toBinaryString((byte) i).length();
+
+		final byte[] original_bytes = ByteTools.TEST_STR.getBytes();
+		final long seed = ThreadLocalRandom.current().nextLong();
+		final Smartprint cipher = new Smartprint(original_bytes, new KeyGenerator(new Random(seed))),
+				recreated = new Smartprint(original_bytes, new KeyGenerator(new Random(seed)));
+
+		boolean match = true;
+		for(int i = 0; i < cipher.length(); i ++)
+			match &= cipher.getType(i) == recreated.getType(i) && cipher.getIndex(i) == recreated.getIndex(i)
+					&& cipher.getIndex(i) >= MIN_INDEX && cipher.getIndex(i) < Math.max(bitLength(original_bytes[i]), MIN_INDEX + 1);
+
+		final byte[] scrambled = ByteTools.scramble(original_bytes, cipher);
+		final String translated = new String(ByteTools.scramble(scrambled, recreated));
+		final boolean success = lengths && match && translated.equals(ByteTools.TEST_STR);
+
+		System.out.println("Encoded: " + new String(scrambled));
+		System.out.println("Decoded: " + translated);
+		System.out.println("Lengths: " + lengths);
+		System.out.println("Match: " + match);
+		System.out.println("Success: " + success + "\n");
+		return success;
+	}
+}
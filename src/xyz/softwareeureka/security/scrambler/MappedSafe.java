@@ -0,0 +1,315 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A Binary {@link Safe} file opened by memory mapping, rather than being
+ * read. Each section of the file is mapped on its own, nothing is read
+ * or decoded up front, so opening a {@link Safe} costs the same no matter
+ * its size and the mapped pages are shared with any other process reading
+ * the same file. <br><br>
+ *
+ * The key is a {@link Blueprint} reading its {@link Type}s and Indexes
+ * straight from the mapped file. As each Byte depends only on its own
+ * position within the {@link Blueprint}, any range of the
+ * {@link EncodedMessage} may be decoded on its own. Only files in the
+ * Binary format written by {@link Safe#toFile()} can be mapped.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see Safe
+ * @see Blueprint
+ * @see EncodedMessage
+ */
+public final class MappedSafe
+{
+
+	/**
+	 * Mapped {@link Type} ordinals. Null for a {@link SeededBlueprint}.
+	 */
+	private final ByteBuffer types;
+
+	/**
+	 * Mapped Bit Indexes. Null for a {@link SeededBlueprint}.
+	 */
+	private final ByteBuffer indexes;
+
+	/**
+	 * Mapped {@link EncodedMessage}.
+	 */
+	private final ByteBuffer message;
+
+	/**
+	 * Key to the {@link EncodedMessage}.
+	 */
+	private final Blueprint key;
+
+	/**
+	 * Maps the Binary {@link Safe} file 'safe_file'. The file may be closed
+	 * or replaced afterwards, but must not be truncated while mapped.
+	 * @param safe_file - Binary {@link Safe} file.
+	 * @throws IOException - If the file can't be read, is in the older Text
+	 * format or is corrupt.
+	 */
+	public MappedSafe(final File safe_file) throws IOException
+	{
+		try(FileChannel channel = FileChannel.open(safe_file.toPath(), StandardOpenOption.READ))
+		{
+			final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 2);
+			while(header.hasRemaining())
+				if(channel.read(header) < 0)
+					break;
+			if(header.hasRemaining() || header.getInt(0) != Safe.MAGIC)
+				throw new IOException("Not a Binary Safe file: " + safe_file);
+			final byte version = header.get(Integer.BYTES), kind = header.get(Integer.BYTES + 1);
+			if(version != Safe.FORMAT_VERSION)
+				throw new IOException("Unsupported Safe version: " + version);
+
+			if(kind == Safe.SEEDED_KEY)
+			{
+				final ByteBuffer seed = Safe.read(channel, Safe.section(channel, Long.BYTES + Integer.BYTES));
+				types = null;
+				indexes = null;
+				key = new SeededBlueprint(seed.getLong(), seed.getInt());
+			}
+			else if(kind == Safe.STORED_KEY)
+			{
+				final int key_length = Safe.sectionLength(channel);
+				types = map(channel, key_length);
+				final int index_length = Safe.sectionLength(channel);
+				if(index_length != key_length)
+					throw new IOException("Corrupt Safe, expected a section of " + key_length + " Bytes, found " + index_length);
+				indexes = map(channel, index_length);
+				key = new MappedBlueprint(types, indexes);
+			}
+			else if(kind == Safe.CYCLIC_KEY)
+			{
+				// Only one period is stored, read it whole.
+				types = null;
+				indexes = null;
+				key = Safe.readKey(channel, kind);
+			}
+			else
+				throw new IOException("Corrupt Safe, unknown key kind: " + kind);
+			message = map(channel, Safe.sectionLength(channel));
+		}
+	}
+
+	/**
+	 * Maps the next 'length' Bytes of the parameter 'channel' and moves
+	 * past them.
+	 * @param channel - Channel positioned at the section's Bytes.
+	 * @param length - Length of the section.
+	 * @return Read only mapping of the section.
+	 * @throws IOException - If the section can't be mapped.
+	 */
+	private static ByteBuffer map(final FileChannel channel, final int length) throws IOException
+	{
+		final long position = channel.position();
+		final ByteBuffer section = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+		channel.position(position + length);
+		return section;
+	}
+
+	/**
+	 * Returns a view of the mapped {@link Type} ordinals, one Byte per
+	 * entry.
+	 * @return Read only view, or Null if the key is a
+	 * {@link SeededBlueprint} or {@link CyclicBlueprint}.
+	 */
+	public ByteBuffer getTypes()
+	{
+		return (types != null) ? types.asReadOnlyBuffer() : null;
+	}
+
+	/**
+	 * Returns a view of the mapped Bit Indexes, one Byte per entry.
+	 * @return Read only view, or Null if the key is a
+	 * {@link SeededBlueprint} or {@link CyclicBlueprint}.
+	 */
+	public ByteBuffer getIndexes()
+	{
+		return (indexes != null) ? indexes.asReadOnlyBuffer() : null;
+	}
+
+	/**
+	 * Returns a view of the mapped {@link EncodedMessage}, still scrambled.
+	 * @return Read only view.
+	 */
+	public ByteBuffer getMessage()
+	{
+		return message.asReadOnlyBuffer();
+	}
+
+	/**
+	 * Returns the key to the {@link EncodedMessage}. For a stored key, each
+	 * entry is read from the mapped file when used.
+	 * @return Key {@link Blueprint}.
+	 */
+	public Blueprint getMap()
+	{
+		return key;
+	}
+
+	/**
+	 * Returns the length of the {@link EncodedMessage}.
+	 * @return Amount of Bytes stored.
+	 */
+	public int length()
+	{
+		return message.capacity();
+	}
+
+	/**
+	 * Decodes 'length' Bytes of the {@link EncodedMessage} from 'offset'.
+	 * Only that range is read from the file.
+	 * @param offset - Position within the {@link EncodedMessage}.
+	 * @param length - Amount of Bytes to decode.
+	 * @return Decoded Bytes.
+	 */
+	public byte[] decode(final int offset, final int length)
+	{
+		final byte[] decoded = new byte[length];
+		decode(offset, length, ByteBuffer.wrap(decoded));
+		return decoded;
+	}
+
+	/**
+	 * Decodes 'length' Bytes of the {@link EncodedMessage} from 'offset'
+	 * into the remaining space of 'target', advancing its position. Only
+	 * that range is read from the file.
+	 * @param offset - Position within the {@link EncodedMessage}.
+	 * @param length - Amount of Bytes to decode.
+	 * @param target - Buffer to decode into, heap or direct.
+	 * @throws IndexOutOfBoundsException - If the range lies outside of the
+	 * {@link EncodedMessage} or the key.
+	 * @throws BufferOverflowException - If 'target' has less
+	 * than 'length' Bytes remaining.
+	 */
+	public void decode(final int offset, final int length, final ByteBuffer target)
+	{
+		ByteTools.checkRegion(message.capacity(), offset, length);
+		if(target.remaining() < length)
+			throw new BufferOverflowException();
+		ByteTools.scramble(message, offset, target, target.position(), length, key, offset);
+		target.position(target.position() + length);
+	}
+
+	/**
+	 * A {@link Blueprint} reading its entries from the mapped sections of
+	 * a {@link Safe} file as they're used.
+	 */
+	private static final class MappedBlueprint extends DerivedBlueprint
+	{
+		/**
+		 * Cached amount of {@link Type}s.
+		 */
+		private static final int TYPE_COUNT = Type.values().length;
+
+		private final ByteBuffer types, indexes;
+
+		MappedBlueprint(final ByteBuffer types, final ByteBuffer indexes)
+		{
+			super(types.capacity());
+			this.types = types;
+			this.indexes = indexes;
+		}
+
+		/**
+		 * Produces a List of every {@link Type}, reading the whole section.
+		 * @return ArrayList of mapped {@link Type}s.
+		 */
+		@Override
+		public ArrayList<Type> populate()
+		{
+			final ArrayList<Type> list = new ArrayList<>(length());
+			for(int i = 0; i < length(); i ++)
+				list.add(getType(i));
+			return list;
+		}
+
+		/**
+		 * Does nothing, as the Indexes are mapped.
+		 */
+		@Override
+		public void populateIndexes() {}
+
+		/**
+		 * Packs the mapped {@link Type} and Index at 'position'.
+		 * @throws IllegalStateException - If the {@link Type} ordinal is
+		 * unknown.
+		 */
+		@Override
+		byte derive(final int position)
+		{
+			final int type = types.get(position), index = indexes.get(position);
+			if(type < 0 || type >= TYPE_COUNT)
+				throw new IllegalStateException("Corrupt Safe, unknown Type ordinal at " + position + ": " + type);
+			return (byte) ((type << PACKED_TYPE_SHIFT)
+					| ((index >= 0 && index <= PACKED_INDEX_MASK) ? index : PACKED_ESCAPE));
+		}
+
+		@Override
+		byte deriveIndex(final int position)
+		{
+			return indexes.get(position);
+		}
+	}
+
+	/**
+	 * Tests the {@link MappedSafe}. A large repetition of the Test String
+	 * is stored within a {@link Safe}, once with a {@link Smartprint} and
+	 * once with a {@link SeededBlueprint}. Each file is mapped, then decoded
+	 * whole and in a single slice from the middle. If every decode matches
+	 * the repetition, our code works.
+	 *
+	 * @return True if {@link MappedSafe} works as intended.
+	 */
+	public static boolean test()
+	{
+		System.out.println("Beginning Mapped Safe Tests...");
+		final byte[] original_bytes = ByteTools.repeatedTestBytes(1000);
+		final int slice_offset = original_bytes.length / 2 + 3, slice_length = 200;
+		final byte[] slice = Arrays.copyOfRange(original_bytes, slice_offset, slice_offset + slice_length);
+
+		boolean success = true;
+		for(final Blueprint cipher : new Blueprint[] {new Smartprint(original_bytes), new SeededBlueprint(original_bytes.length)})
+		{
+			boolean match = false;
+			try
+			{
+				final File file = File.createTempFile("mapped", ".safe");
+				file.deleteOnExit();
+				new Safe(file.getAbsolutePath(), new EncodedMessage(original_bytes, cipher), cipher).toFile();
+				final MappedSafe safe = new MappedSafe(file);
+				final ByteBuffer direct = ByteBuffer.allocateDirect(slice_length);
+				safe.decode(slice_offset, slice_length, direct);
+				final byte[] direct_slice = new byte[slice_length];
+				direct.flip();
+				direct.get(direct_slice);
+
+				match = Arrays.equals(safe.decode(0, safe.length()), original_bytes)
+						&& Arrays.equals(safe.decode(slice_offset, slice_length), slice)
+						&& Arrays.equals(direct_slice, slice);
+			}
+			catch (IOException e)
+			{
+				e.printStackTrace();
+			}
+			System.out.println(cipher.getClass().getSimpleName() + " match: " + match);
+			success &= match;
+		}
+
+		System.out.println("Success: " + success + "\n");
+		return success;
+	}
+}
@@ -0,0 +1,666 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A {@link Blueprint} compiled into Bit masks, scrambling 8 Bytes at a
+ * time within a long. Every {@link Type} is a swap of two neighbouring
+ * Bits and/or an inversion of fixed Bits, so each entry compiles to a
+ * delta swap mask and an XOR mask. A whole word of 8 Bytes is then
+ * scrambled by <br><br>
+ * <code>t = ((x &gt;&gt;&gt; 1) ^ x) &amp; swap; x ^= t | (t &lt;&lt; 1); x ^= xor;</code>
+ * <br><br>
+ * {@link Type#INVERSE_ALL} inverts Bits depending on the length of each
+ * Byte, its mask is calculated from the Bytes themselves within the word.
+ * <br><br>
+ *
+ * Whether a {@link Type} can operate on a Byte depends on the length of
+ * that Byte. Each entry therefore also compiles to the range of Byte
+ * lengths the masks are exact for. Bytes outside of that range, and
+ * entries with Indexes outside of the Byte, are scrambled through the
+ * {@link ScrambleTable} instead, so the results and faults are identical
+ * to {@link ByteTools#scramble(byte[], Blueprint)}. The masks of each
+ * {@link Type} and Index are checked against the {@link ScrambleTable}
+ * for every Byte value when this Class is initialised. <br><br>
+ *
+ * Whole words are scrambled by a {@link WordKernel}. When running with
+ * the 'jdk.incubator.vector' module, and the Vector API kernel from
+ * 'src-vector' is on the Class Path, many words are scrambled at once.
+ * Otherwise a single word at a time. {@link ByteTools} scrambles long
+ * runs with a {@link CyclicBlueprint} through its compiled planes, other
+ * {@link Blueprint}s reach the kernels only once compiled here. <br><br>
+ *
+ * Compiling reads the whole {@link Blueprint} and takes 6 Bytes per entry,
+ * so it pays off when the same {@link Blueprint} scrambles more than once.
+ * A {@link CyclicBlueprint} is compiled only as far as its period lines
+ * up with a word again, repeated up to a few KB, and those planes are
+ * repeated. Later changes to the {@link Blueprint} aren't seen.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see ScrambleTable
+ * @see Blueprint
+ * @see Type
+ */
+public final class MaskPlanes
+{
+
+	/**
+	 * Bytes per word.
+	 */
+	static final int LANES = Long.BYTES;
+
+	/**
+	 * Entries a short {@link CyclicBlueprint} is compiled repeated up to.
+	 */
+	private static final int TILE_LENGTH = 4096;
+
+	/**
+	 * Highest Bit of every Byte within a word.
+	 */
+	static final long HIGH_BITS = 0x8080808080808080L;
+
+	/**
+	 * Lower 7 Bits of every Byte within a word.
+	 */
+	static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+	/**
+	 * Amount of packed entry rows, escaped ones included.
+	 */
+	private static final int ROWS = Blueprint.PACKED_ROW_MASK + Blueprint.PACKED_ESCAPE + 1;
+
+	/**
+	 * Masks of each packed entry row, see 'compileRows'. Escaped rows and
+	 * rows without a {@link Type} are never valid.
+	 */
+	private static final byte[] ROW_SWAP = new byte[ROWS], ROW_XOR = new byte[ROWS], ROW_DYNAMIC = new byte[ROWS],
+			ROW_NEED = new byte[ROWS], ROW_ALWAYS = new byte[ROWS], ROW_FORBID = new byte[ROWS];
+
+	static
+	{
+		compileRows();
+	}
+
+	/**
+	 * System Property forcing the scalar {@link WordKernel}.
+	 */
+	static final String SCALAR_PROPERTY = "scrambler.scalar";
+
+	/**
+	 * Class only present with the 'jdk.incubator.vector' module.
+	 */
+	private static final String VECTOR_MODULE_CLASS = "jdk.incubator.vector.LongVector";
+
+	/**
+	 * The Vector API {@link WordKernel}, compiled from 'src-vector'.
+	 */
+	private static final String VECTOR_KERNEL_CLASS = "xyz.softwareeureka.security.scrambler.VectorWordKernel";
+
+	/**
+	 * The scalar {@link WordKernel}, one word at a time.
+	 */
+	static final WordKernel SCALAR = new WordKernel() {
+		@Override
+		public ValidationReport words(final MaskPlanes planes, final byte[] source, final int source_offset, 
+				final byte[] target, final int target_offset, final int first_word, final int words, 
+				final int data_length, final ValidationReport report)
+		{
+			return planes.words(source, source_offset, target, target_offset, first_word, words, data_length, report);
+		}
+
+		@Override
+		public String toString()
+		{
+			return "scalar";
+		}
+	};
+
+	/**
+	 * {@link WordKernel} in use.
+	 */
+	static final WordKernel KERNEL = loadKernel();
+
+	/**
+	 * Compiled {@link Blueprint}.
+	 */
+	private final Blueprint cipher;
+
+	/**
+	 * One long per 8 compiled entries, one Byte per entry. Entries past
+	 * them repeat from the first, see 'plane'. 'swap' holds the lower
+	 * Bit of each swapped pair, 'xor' the inverted Bits and 'dynamic' is
+	 * 0xFF for {@link Type#INVERSE_ALL}. A Byte is scrambled through the
+	 * masks when it shares a Bit with 'need' or 'always' is set, and it
+	 * shares no Bit with 'forbid'.
+	 */
+	final long[] swap, xor, dynamic, need, always, forbid;
+
+	/**
+	 * Compiles the parameter 'cipher'.
+	 * @param cipher - {@link Blueprint} to compile.
+	 * @throws IllegalArgumentException - If the repeated entries of a
+	 * {@link CyclicBlueprint} are too many to compile.
+	 */
+	private MaskPlanes(final Blueprint cipher)
+	{
+		this.cipher = cipher;
+		final int length = compiledLength(cipher), words = (int) ((length + LANES - 1L) / LANES);
+		swap = new long[words];
+		xor = new long[words];
+		dynamic = new long[words];
+		need = new long[words];
+		always = new long[words];
+		forbid = new long[words];
+
+		final byte[] packed = cipher.getPacked();
+		final byte[] window = (packed != null) ? packed : new byte[Math.min(length, 4096)];
+		for(int done = 0; done < length; done += window.length)
+		{
+			final int run_length = Math.min(window.length, length - done);
+			if(packed == null)
+				cipher.fillPacked(done, window, 0, run_length);
+			for(int i = 0; i < run_length; i ++)
+				add(done + i, window[(packed == null) ? i : done + i]);
+		}
+	}
+
+	/**
+	 * Compiles the parameter 'cipher' into masks.
+	 * @param cipher - {@link Blueprint} to compile.
+	 * @return Compiled masks.
+	 * @throws IllegalArgumentException - If 'cipher' is Null, or a
+	 * {@link CyclicBlueprint} whose period is too long to compile.
+	 */
+	public static MaskPlanes compile(final Blueprint cipher)
+	{
+		if(cipher == null)
+			throw new IllegalArgumentException("Null Blueprint.");
+		return new MaskPlanes(cipher);
+	}
+
+	/**
+	 * Returns the amount of entries to compile. A {@link CyclicBlueprint}
+	 * repeats its planes once its period lines up with a word again, 
+	 * unless it ends sooner. Short periods are compiled repeatedly up to
+	 * 'TILE_LENGTH' entries, so each run of words is long.
+	 * @param cipher - {@link Blueprint} to compile.
+	 * @return Amount of entries.
+	 * @throws IllegalArgumentException - If a period that lines up is too
+	 * long to compile.
+	 */
+	private static int compiledLength(final Blueprint cipher)
+	{
+		if(!(cipher instanceof CyclicBlueprint))
+			return cipher.length();
+		final int period = ((CyclicBlueprint) cipher).getPeriod();
+		final long aligned = (long) period * (LANES / gcd(period, LANES)),
+				tile = Math.min(aligned * Math.max(1, TILE_LENGTH / aligned), cipher.length());
+		if(tile == CyclicBlueprint.UNBOUNDED)
+			throw new IllegalArgumentException("Period too long to compile: " + period);
+		return (int) tile;
+	}
+
+	/**
+	 * Greatest common divisor of two positive ints.
+	 */
+	private static int gcd(final int first, final int second)
+	{
+		return (second == 0) ? first : gcd(second, first % second);
+	}
+
+	/**
+	 * Returns the word within the planes holding the masks of a word of
+	 * entries. Only a {@link CyclicBlueprint} has words of entries past
+	 * the end of the planes, which repeat them.
+	 * @param word - Word of entries.
+	 * @return Word within the planes.
+	 */
+	int plane(final int word)
+	{
+		return word % swap.length;
+	}
+
+	/**
+	 * Adds the masks of a packed entry.
+	 * @param position - Position of the entry.
+	 * @param packed_entry - Packed entry.
+	 */
+	private void add(final int position, final byte packed_entry)
+	{
+		final int row = packed_entry & (Blueprint.PACKED_ROW_MASK | Blueprint.PACKED_ESCAPE),
+				word = position / LANES, shift = (position % LANES) * Byte.SIZE;
+		swap[word] |= (ROW_SWAP[row] & 0xFFL) << shift;
+		xor[word] |= (ROW_XOR[row] & 0xFFL) << shift;
+		dynamic[word] |= (ROW_DYNAMIC[row] & 0xFFL) << shift;
+		need[word] |= (ROW_NEED[row] & 0xFFL) << shift;
+		always[word] |= (ROW_ALWAYS[row] & 0xFFL) << shift;
+		forbid[word] |= (ROW_FORBID[row] & 0xFFL) << shift;
+	}
+
+	/**
+	 * Returns the compiled {@link Blueprint}.
+	 * @return {@link Blueprint}.
+	 */
+	public Blueprint getBlueprint()
+	{
+		return cipher;
+	}
+
+	/**
+	 * Returns the amount of compiled entries.
+	 * @return Amount of entries.
+	 */
+	public int length()
+	{
+		return cipher.length();
+	}
+
+	/**
+	 * Scrambles 8 Bytes within a word through the masks.
+	 * @param x - Bytes to Scramble.
+	 * @param swap - Lower Bit of each swapped pair.
+	 * @param xor - Inverted Bits.
+	 * @param dynamic - 0xFF for each Byte to invert as {@link Type#INVERSE_ALL}.
+	 * @return Scrambled Bytes.
+	 */
+	static long apply(final long x, final long swap, final long xor, final long dynamic)
+	{
+		final long t = ((x >>> 1) ^ x) & swap;
+		// Fill each Byte below its highest Bit.
+		long filled = x | ((x >>> 1) & LOW_BITS);
+		filled |= (filled >>> 2) & 0x3F3F3F3F3F3F3F3FL;
+		filled |= (filled >>> 4) & 0x0F0F0F0F0F0F0F0FL;
+		// All Bits but the lowest and the highest two.
+		final long inverse_all = (filled >>> 1) & 0x7E7E7E7E7E7E7E7EL;
+		return x ^ (t | (t << 1)) ^ xor ^ (inverse_all & dynamic);
+	}
+
+	/**
+	 * Finds the Bytes within a word the masks aren't exact for.
+	 * @param x - Bytes to Scramble.
+	 * @param need - Bits of which a valid Byte has one.
+	 * @param always - Non zero for each Byte needing no Bit.
+	 * @param forbid - Bits a valid Byte must not have.
+	 * @return The highest Bit set for each invalid Byte.
+	 */
+	static long invalid(final long x, final long need, final long always, final long forbid)
+	{
+		final long y = (x & need) | always, non_zero = (((y & LOW_BITS) + LOW_BITS) | y) & HIGH_BITS;
+		return (~non_zero & HIGH_BITS) | (x & forbid & HIGH_BITS);
+	}
+
+	/**
+	 * Scrambles 'bytes' with the compiled {@link Blueprint}. Otherwise
+	 * behaves as {@link ByteTools#scramble(byte[], Blueprint)}, Bytes past
+	 * the end of the {@link Blueprint} come back as Zero.
+	 * @param bytes - Bytes to Scramble.
+	 * @return Scrambled Bytes.
+	 */
+	public byte[] scramble(final byte[] bytes)
+	{
+		final byte[] scrambled = new byte[bytes.length];
+		final ValidationReport report = run(bytes, 0, scrambled, 0, Math.min(bytes.length, length()), 0, bytes.length);
+		if(report != null)
+			report.print();
+		return scrambled;
+	}
+
+	/**
+	 * Scrambles 'length' Bytes of 'source' from 'source_offset' into
+	 * 'target' from 'target_offset', with the compiled entries from
+	 * 'key_offset'. 'source' and 'target' may be the same Array. Otherwise
+	 * behaves as {@link ByteTools#scramble(byte[], int, byte[], int, int, Blueprint, int)}.
+	 * @param source - Bytes to Scramble.
+	 * @param source_offset - Position of the first Byte within 'source'.
+	 * @param target - Array to write the scrambled Bytes to.
+	 * @param target_offset - Position of the first Byte within 'target'.
+	 * @param length - Amount of Bytes to Scramble.
+	 * @param key_offset - Position within the {@link Blueprint} of the
+	 * first Byte.
+	 * @throws IndexOutOfBoundsException - If a region lies outside of its
+	 * Array or the {@link Blueprint}.
+	 */
+	public void scramble(final byte[] source, final int source_offset, final byte[] target,
+			final int target_offset, final int length, final int key_offset)
+	{
+		ByteTools.checkRegion(source.length, source_offset, length);
+		ByteTools.checkRegion(target.length, target_offset, length);
+		ByteTools.checkRegion(length(), key_offset, length);
+		final ValidationReport report = run(source, source_offset, target, target_offset, length, key_offset, length());
+		if(report != null)
+			report.print();
+	}
+
+	/**
+	 * Scrambles through the fastest {@link WordKernel} available. Bytes
+	 * before the first whole word of entries, and after the last, are
+	 * scrambled through the {@link ScrambleTable}.
+	 * @param data_length - Length of the whole Data, for the report.
+	 * @return Report of each fault, or Null if there were none.
+	 */
+	ValidationReport run(final byte[] source, final int source_offset, final byte[] target,
+			final int target_offset, final int length, final int key_offset, final int data_length)
+	{
+		return run(source, source_offset, target, target_offset, length, key_offset, data_length, KERNEL);
+	}
+
+	/**
+	 * Scrambles through the parameter 'kernel'.
+	 * @param data_length - Length of the whole Data, for the report.
+	 * @param kernel - {@link WordKernel} to scramble whole words with.
+	 * @return Report of each fault, or Null if there were none.
+	 */
+	ValidationReport run(final byte[] source, final int source_offset, final byte[] target,
+			final int target_offset, final int length, final int key_offset, final int data_length, 
+			final WordKernel kernel)
+	{
+		final int head = Math.min(length, (LANES - (key_offset % LANES)) % LANES),
+				words = (length - head) / LANES;
+		ValidationReport report = table(source, source_offset, target, target_offset, head, key_offset, data_length, null);
+		// Each run of words ends at the end of the planes, which repeat.
+		for(int w = 0, word = (key_offset + head) / LANES; w < words; )
+		{
+			final int offset = head + (w * LANES), run_words = Math.min(words - w, swap.length - plane(word));
+			report = kernel.words(this, source, source_offset + offset, target, target_offset + offset, 
+					word, run_words, data_length, report);
+			w += run_words;
+			word += run_words;
+		}
+		final int done = head + (words * LANES);
+		return table(source, source_offset + done, target, target_offset + done, length - done,
+				key_offset + done, data_length, report);
+	}
+
+	/**
+	 * The scalar {@link WordKernel}, one word at a time. Bytes the masks
+	 * aren't exact for are patched through the {@link ScrambleTable}. The
+	 * words must not run past the end of the planes.
+	 * @param source - Bytes to Scramble.
+	 * @param source_offset - Position of the first Byte within 'source'.
+	 * @param target - Array to write the scrambled Bytes to.
+	 * @param target_offset - Position of the first Byte within 'target'.
+	 * @param first_word - Word of the first entry.
+	 * @param words - Amount of words to Scramble.
+	 * @param data_length - Length of the whole Data, for the report.
+	 * @param report - Report to add faults to, may be Null.
+	 * @return Report of each fault, or Null if there were none.
+	 */
+	ValidationReport words(final byte[] source, final int source_offset, final byte[] target, 
+			final int target_offset, final int first_word, final int words, final int data_length, 
+			ValidationReport report)
+	{
+		final ByteBuffer in = ByteBuffer.wrap(source).order(ByteOrder.LITTLE_ENDIAN),
+				out = ByteBuffer.wrap(target).order(ByteOrder.LITTLE_ENDIAN);
+		final int first_plane = (words > 0) ? plane(first_word) : 0;
+		for(int w = 0; w < words; w ++)
+		{
+			final int offset = w * LANES, word = first_word + w, plane = first_plane + w;
+			final long x = in.getLong(source_offset + offset);
+			long scrambled = apply(x, swap[plane], xor[plane], dynamic[plane]),
+					invalid = invalid(x, need[plane], always[plane], forbid[plane]);
+			// Patch the Bytes the masks aren't exact for.
+			while(invalid != 0)
+			{
+				final int lane = Long.numberOfTrailingZeros(invalid) / Byte.SIZE, shift = lane * Byte.SIZE,
+						position = (word * LANES) + lane;
+				final int entry = ScrambleTable.lookup((byte) (x >>> shift), cipher, position);
+				scrambled = (scrambled & ~(0xFFL << shift)) | ((entry & 0xFFL) << shift);
+				if(entry > 0xFF)
+					report = ScrambleTable.report(report, cipher, data_length, position, entry);
+				invalid &= invalid - 1;
+			}
+			out.putLong(target_offset + offset, scrambled);
+		}
+		return report;
+	}
+
+	/**
+	 * Loads the Vector API {@link WordKernel} if the 'jdk.incubator.vector'
+	 * module is present and the kernel was compiled alongside, otherwise
+	 * the scalar one. Setting the System Property 'scrambler.scalar' to
+	 * true always selects the scalar one.
+	 * @return {@link WordKernel} to use.
+	 */
+	private static WordKernel loadKernel()
+	{
+		if(Boolean.getBoolean(SCALAR_PROPERTY))
+			return SCALAR;
+		try
+		{
+			Class.forName(VECTOR_MODULE_CLASS);
+			return (WordKernel) Class.forName(VECTOR_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+		}
+		catch (ReflectiveOperationException | LinkageError | RuntimeException e)
+		{
+			return SCALAR;
+		}
+	}
+
+	/**
+	 * Returns the name of the {@link WordKernel} in use.
+	 * @return "scalar" or the name of the vectorised kernel.
+	 */
+	public static String kernelName()
+	{
+		return KERNEL.toString();
+	}
+
+	/**
+	 * Scrambles a run of Bytes through the {@link ScrambleTable}.
+	 */
+	private ValidationReport table(final byte[] source, final int source_offset, final byte[] target,
+			final int target_offset, final int length, final int key_offset, final int data_length, ValidationReport report)
+	{
+		for(int i = 0; i < length; i ++)
+		{
+			final int entry = ScrambleTable.lookup(source[source_offset + i], cipher, key_offset + i);
+			target[target_offset + i] = (byte) entry;
+			if(entry > 0xFF)
+				report = ScrambleTable.report(report, cipher, data_length, key_offset + i, entry);
+		}
+		return report;
+	}
+
+	/**
+	 * Compiles the masks of every {@link Type} and Index. The masks follow
+	 * from each {@link Type}'s definition, then every Byte value is run
+	 * through them and compared with the {@link ScrambleTable}. Bytes are
+	 * grouped by their length (1 - 7, or 8 for negative Bytes, whose
+	 * Binary Strings are 32 Bits long). The masks are used for the
+	 * longest lengths up to 7 they're exact for, and for negative Bytes
+	 * if exact for them.
+	 */
+	private static void compileRows()
+	{
+		final Type[] types = Type.values();
+		for(final Type type : types)
+			for(int index = 0; index < ScrambleTable.INDEX_COUNT; index ++)
+			{
+				int swap_mask = 0, xor_mask = 0, dynamic_mask = 0;
+				boolean defined = true;
+				switch(type)
+				{
+					case INVERT:
+						xor_mask = 1 << index;
+						break;
+					case LEFT:
+						swap_mask = 1 << index;
+						defined = index < ByteTools.BYTE_LENGTH - 1;
+						break;
+					case RIGHT:
+						swap_mask = 1 << (index - 1);
+						defined = index > 0;
+						break;
+					case INVERSE_LEFT:
+						swap_mask = 1 << index;
+						xor_mask = 3 << index;
+						defined = index < ByteTools.BYTE_LENGTH - 1;
+						break;
+					case INVERSE_RIGHT:
+						swap_mask = 1 << (index - 1);
+						xor_mask = 3 << (index - 1);
+						defined = index > 0;
+						break;
+					case INVERSE_ALL:
+						dynamic_mask = 0xFF;
+						break;
+					case SHREDDED:
+						xor_mask = 0x55;
+						break;
+				}
+				if(!defined)
+					continue;
+
+				final boolean[] exact = new boolean[ByteTools.BYTE_LENGTH + 1];
+				Arrays.fill(exact, true);
+				for(int value = 0; value < ScrambleTable.BYTE_VALUES; value ++)
+				{
+					final int entry = ScrambleTable.lookup((byte) value, (byte) index, type);
+					final long masked = apply(value, swap_mask, xor_mask, dynamic_mask) & 0xFF;
+					// Faulted entries never match.
+					if(entry != masked)
+						exact[lengthClass(value)] = false;
+				}
+
+				int shortest = ByteTools.BYTE_LENGTH;
+				while(shortest > 1 && exact[shortest - 1])
+					shortest --;
+				final int row = (type.ordinal() << Blueprint.PACKED_TYPE_SHIFT) | index;
+				final boolean negative = exact[ByteTools.BYTE_LENGTH];
+				ROW_SWAP[row] = (byte) swap_mask;
+				ROW_XOR[row] = (byte) xor_mask;
+				ROW_DYNAMIC[row] = (byte) dynamic_mask;
+				ROW_NEED[row] = (byte) (((shortest < ByteTools.BYTE_LENGTH) ? (0x7F << (shortest - 1)) & 0x7F : 0)
+						| (negative ? 0x80 : 0));
+				ROW_ALWAYS[row] = (byte) ((shortest == 1) ? 1 : 0);
+				ROW_FORBID[row] = (byte) (negative ? 0 : 0x80);
+			}
+	}
+
+	/**
+	 * Groups a Byte by its length. 1 - 7 for positive Bytes, 8 for
+	 * negative Bytes.
+	 * @param value - Unsigned Byte value.
+	 * @return Length group.
+	 */
+	private static int lengthClass(final int value)
+	{
+		return (value > Byte.MAX_VALUE) ? ByteTools.BYTE_LENGTH : KeyGenerator.bitLength((byte) value);
+	}
+
+	/**
+	 * Tests the {@link MaskPlanes} against the {@link ScrambleTable}. Every
+	 * Byte value is scrambled through the word kernel with every
+	 * {@link Type} and Index, then random Data, ASCII and otherwise, is
+	 * scrambled with a {@link Smartprint} and a {@link SeededBlueprint}
+	 * from uneven offsets, through the {@link WordKernel} in use and the
+	 * scalar one, as are {@link CyclicBlueprint}s of several periods. If
+	 * the Bytes and faults match the {@link ScrambleTable} every time, and
+	 * only a run of periods is compiled, our code works.
+	 *
+	 * @return True if {@link MaskPlanes} works as intended.
+	 */
+	static boolean test()
+	{
+		System.out.println("Beginning Mask Plane Tests...");
+		boolean rows = true;
+		for(int row = 0; row < Type.values().length * ScrambleTable.INDEX_COUNT; row ++)
+			for(int value = 0; value < ScrambleTable.BYTE_VALUES; value ++)
+			{
+				final int entry = ScrambleTable.lookup((byte) value, (byte) (row & Blueprint.PACKED_INDEX_MASK),
+						Type.values()[row >> Blueprint.PACKED_TYPE_SHIFT]);
+				final boolean valid = invalid(value, ROW_NEED[row] & 0xFF, ROW_ALWAYS[row] & 0xFF, ROW_FORBID[row] & 0xFF) == 0;
+				if(valid && entry != (apply(value, ROW_SWAP[row] & 0xFF, ROW_XOR[row] & 0xFF, ROW_DYNAMIC[row] & 0xFF) & 0xFF))
+					rows = false;
+			}
+
+		boolean match = true;
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		final byte[] test_bytes = ByteTools.TEST_STR.getBytes();
+		for(int round = 0; round < 4; round ++)
+		{
+			final byte[] data = new byte[4099];
+			if(round % 2 == 0)
+				random.nextBytes(data);
+			else
+				for(int i = 0; i < data.length; i ++)
+					data[i] = test_bytes[i % test_bytes.length];
+			final Blueprint cipher = (round < 2) ? new Smartprint(data) : new SeededBlueprint(data.length);
+			final MaskPlanes planes = compile(cipher);
+			final int offset = 3, length = data.length - 8;
+
+			final byte[] expected = new byte[data.length], actual = new byte[data.length], scalar = new byte[data.length];
+			final ValidationReport expected_report = ScrambleTable.scramble(data, offset, expected, 1, length, cipher, offset, data.length),
+					actual_report = planes.run(data, offset, actual, 1, length, offset, data.length),
+					scalar_report = planes.run(data, offset, scalar, 1, length, offset, data.length, SCALAR);
+			match &= Arrays.equals(expected, actual) && sameFaults(expected_report, actual_report)
+					&& Arrays.equals(expected, scalar) && sameFaults(expected_report, scalar_report);
+
+			final byte[] whole = ByteTools.scrambleUnchecked(data, cipher);
+			match &= Arrays.equals(whole, planesScramble(planes, data));
+		}
+
+		// Cyclic keys compile a word aligned run of periods, far from the
+		// start of an unbounded key as well.
+		boolean cyclic = true;
+		final byte[] data = new byte[4099];
+		for(int i = 0; i < data.length; i ++)
+			data[i] = test_bytes[i % test_bytes.length];
+		for(final int period : new int[] {1, 5, 12, 64, 4099})
+			for(final int key_offset : new int[] {3, CyclicBlueprint.UNBOUNDED - data.length - 5})
+			{
+				final Blueprint base = new Smartprint(Arrays.copyOf(data, period));
+				final CyclicBlueprint cipher = (key_offset == 3) ? new CyclicBlueprint(base, 1 << 20) : new CyclicBlueprint(base);
+				final MaskPlanes planes = compile(cipher);
+				final int length = data.length - 8;
+				final byte[] expected = new byte[data.length], actual = new byte[data.length], scalar = new byte[data.length];
+				final ValidationReport expected_report = ScrambleTable.scramble(data, 3, expected, 1, length, cipher, key_offset, data.length),
+						actual_report = planes.run(data, 3, actual, 1, length, key_offset, data.length),
+						scalar_report = planes.run(data, 3, scalar, 1, length, key_offset, data.length, SCALAR);
+				cyclic &= Arrays.equals(expected, actual) && sameFaults(expected_report, actual_report)
+						&& Arrays.equals(expected, scalar) && sameFaults(expected_report, scalar_report)
+						&& planes.swap.length * LANES == compiledLength(cipher)
+						&& compiledLength(cipher) % (period * LANES / gcd(period, LANES)) == 0
+						&& compiledLength(cipher) <= Math.max(TILE_LENGTH, period * LANES);
+			}
+		final boolean success = rows && match && cyclic;
+		System.out.println("Kernel: " + kernelName());
+		System.out.println("Rows: " + rows);
+		System.out.println("Match: " + match);
+		System.out.println("Cyclic: " + cyclic);
+		System.out.println("Success: " + success + "\n");
+		return success;
+	}
+
+	/**
+	 * Scrambles a whole Array in place through the word kernel, without
+	 * printing faults.
+	 */
+	private static byte[] planesScramble(final MaskPlanes planes, final byte[] data)
+	{
+		final byte[] copy = data.clone();
+		planes.run(copy, 0, copy, 0, copy.length, 0, copy.length);
+		return copy;
+	}
+
+	/**
+	 * Checks two reports hold the same faults.
+	 */
+	private static boolean sameFaults(final ValidationReport first, final ValidationReport second)
+	{
+		if(first == null || second == null)
+			return first == second;
+		if(!Arrays.equals(first.getPositions(), second.getPositions()))
+			return false;
+		for(int i = 0; i < first.getFaultCount(); i ++)
+			if(first.getFault(i) != second.getFault(i))
+				return false;
+		return true;
+	}
+}
@@ -0,0 +1,417 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Encodes many records at once, each with its own random
+ * {@link Blueprint}, as a batch of {@link EncodedMessage}s. Rather than
+ * generating a {@link Smartprint} then scrambling for every record, the
+ * records are laid out one after another within a single backing Array,
+ * and runs of them up to 'TASK_BYTES' long are keyed by one
+ * {@link KeyGenerator} draw and scrambled by one pass. Each record is
+ * then handed a {@link Smartprint} holding a copy of its own part of the
+ * run's key, so no record's key keeps the rest of the run reachable.
+ * <br><br>
+ *
+ * Runs are encoded as separate tasks on an {@link Executor}, by default
+ * the common ForkJoinPool, so key generation for one run overlaps the
+ * scrambling of others across its Threads. Records of 'PACKED_RECORD_LENGTH'
+ * Bytes or more are given their own Array and task rather than being
+ * packed. <br><br>
+ *
+ * Packed records are read from the backing Array through 'getArray' and
+ * 'getOffset' without copying. 'getMessage' copies a record into an
+ * {@link EncodedMessage} of its own.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see EncodedMessage
+ * @see KeyGenerator
+ */
+public final class MessageBatch
+{
+
+	/**
+	 * Records this long or longer are given their own Array.
+	 */
+	public static final int PACKED_RECORD_LENGTH = 1 << 16;
+
+	/**
+	 * Most Bytes of packed records keyed and scrambled by one task.
+	 */
+	public static final int TASK_BYTES = 1 << 16;
+
+	/**
+	 * Generator used when none is given, drawing from the shared
+	 * {@link EntropyPool}.
+	 */
+	private static final KeyGenerator GENERATOR = new KeyGenerator();
+
+	/**
+	 * Executor used when none is given. The common pool, unless it has
+	 * a single Thread, where tasks would each be given a new Thread and
+	 * are run by the caller instead.
+	 */
+	private static final Executor EXECUTOR = (ForkJoinPool.getCommonPoolParallelism() > 1)
+			? ForkJoinPool.commonPool() : Runnable::run;
+
+	/**
+	 * Writes the unscrambled records into the batch.
+	 */
+	private interface Records
+	{
+		/**
+		 * @param record - Position of the record.
+		 * @return Length of the record in Bytes.
+		 */
+		int length(int record);
+
+		/**
+		 * Writes a record into 'target' from 'offset'.
+		 * @param record - Position of the record.
+		 * @param target - Array to write into.
+		 * @param offset - Position within 'target' of the first Byte.
+		 */
+		void write(int record, byte[] target, int offset);
+	}
+
+	/**
+	 * Backing Array of the packed records.
+	 */
+	private final byte[] backing;
+
+	/**
+	 * Array holding each record, 'backing' unless it's too long to pack.
+	 */
+	private final byte[][] arrays;
+
+	private final int[] offsets, lengths;
+
+	private final Blueprint[] maps;
+
+	/**
+	 * Lays out and encodes every record.
+	 * @param count - Amount of records.
+	 * @param records - Writes each record.
+	 * @param executor - Runs the encoding tasks.
+	 * @param generator - {@link KeyGenerator} to draw the keys from.
+	 */
+	private MessageBatch(final int count, final Records records, final Executor executor, final KeyGenerator generator)
+	{
+		arrays = new byte[count][];
+		offsets = new int[count];
+		lengths = new int[count];
+		maps = new Blueprint[count];
+
+		long packed_length = 0;
+		for(int i = 0; i < count; i ++)
+		{
+			lengths[i] = records.length(i);
+			if(lengths[i] < PACKED_RECORD_LENGTH)
+			{
+				offsets[i] = (int) packed_length;
+				packed_length += lengths[i];
+			}
+		}
+		if(packed_length > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException("Packed records too long for one Array: " + packed_length);
+		backing = new byte[(int) packed_length];
+		for(int i = 0; i < count; i ++)
+			arrays[i] = (lengths[i] < PACKED_RECORD_LENGTH) ? backing : new byte[lengths[i]];
+
+		final List<CompletableFuture<Void>> tasks = new ArrayList<>();
+		for(int first = 0, last; first < count; first = last)
+		{
+			last = first + 1;
+			if(lengths[first] < PACKED_RECORD_LENGTH)
+				for(long run_length = lengths[first]; last < count && lengths[last] < PACKED_RECORD_LENGTH
+						&& run_length + lengths[last] <= TASK_BYTES; last ++)
+					run_length += lengths[last];
+			final int from = first, to = last;
+			tasks.add(CompletableFuture.runAsync(() -> encode(from, to, records, generator), executor));
+		}
+		try
+		{
+			CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+		}
+		catch (CompletionException e)
+		{
+			if(e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw e;
+		}
+	}
+
+	/**
+	 * Writes, keys and scrambles a run of records lying one after another
+	 * within the same Array.
+	 * @param from - First record of the run.
+	 * @param to - Record after the last of the run.
+	 * @param records - Writes each record.
+	 * @param generator - {@link KeyGenerator} to draw the key from.
+	 */
+	private void encode(final int from, final int to, final Records records, final KeyGenerator generator)
+	{
+		for(int i = from; i < to; i ++)
+			records.write(i, arrays[i], offsets[i]);
+		final byte[] array = arrays[from];
+		final int start = offsets[from], length = offsets[to - 1] + lengths[to - 1] - start;
+		final Smartprint key = new Smartprint(array, start, length, generator);
+		ByteTools.scramble(array, start, array, start, length, key);
+		for(int i = from; i < to; i ++)
+			maps[i] = (to - from == 1) ? key : new Smartprint(key, offsets[i] - start, lengths[i]);
+	}
+
+	/**
+	 * Encodes every Byte Array with a random {@link Blueprint} each.
+	 * @param payloads - Records to encode, not modified.
+	 * @return Encoded batch.
+	 */
+	public static MessageBatch encode(final byte[][] payloads)
+	{
+		return encode(payloads, EXECUTOR, GENERATOR);
+	}
+
+	/**
+	 * Encodes every Byte Array with a random {@link Blueprint} each.
+	 * @param payloads - Records to encode, not modified.
+	 * @return Encoded batch.
+	 */
+	public static MessageBatch encode(final List<byte[]> payloads)
+	{
+		return encode(payloads.toArray(new byte[0][]));
+	}
+
+	/**
+	 * Encodes every Byte Array with a random {@link Blueprint} each, as
+	 * tasks on 'executor' drawing keys from 'generator'.
+	 * @param payloads - Records to encode, not modified.
+	 * @param executor - Runs the encoding tasks.
+	 * @param generator - {@link KeyGenerator} to draw the keys from.
+	 * @return Encoded batch.
+	 */
+	public static MessageBatch encode(final byte[][] payloads, final Executor executor, final KeyGenerator generator)
+	{
+		return new MessageBatch(payloads.length, new Records() {
+			public int length(final int record)
+			{
+				return payloads[record].length;
+			}
+
+			public void write(final int record, final byte[] target, final int offset)
+			{
+				System.arraycopy(payloads[record], 0, target, offset, payloads[record].length);
+			}
+		}, executor, generator);
+	}
+
+	/**
+	 * Encodes every Text in the specified Charset with a random
+	 * {@link Blueprint} each.
+	 * @param texts - Records to encode.
+	 * @param charset - Charset of the encoded Texts.
+	 * @return Encoded batch.
+	 */
+	public static MessageBatch encode(final List<? extends CharSequence> texts, final Charset charset)
+	{
+		return encode(texts, charset, EXECUTOR, GENERATOR);
+	}
+
+	/**
+	 * Encodes every Text in the specified Charset with a random
+	 * {@link Blueprint} each, as tasks on 'executor' drawing keys from
+	 * 'generator'. UTF-8 is written straight into the batch, other
+	 * Charsets are encoded first.
+	 * @param texts - Records to encode.
+	 * @param charset - Charset of the encoded Texts.
+	 * @param executor - Runs the encoding tasks.
+	 * @param generator - {@link KeyGenerator} to draw the keys from.
+	 * @return Encoded batch.
+	 */
+	public static MessageBatch encode(final List<? extends CharSequence> texts, final Charset charset,
+			final Executor executor, final KeyGenerator generator)
+	{
+		final CharSequence[] records = texts.toArray(new CharSequence[0]);
+		if(!charset.equals(StandardCharsets.UTF_8))
+		{
+			final byte[][] payloads = new byte[records.length][];
+			for(int i = 0; i < records.length; i ++)
+				payloads[i] = EncodedMessage.encode(records[i], charset);
+			return encode(payloads, executor, generator);
+		}
+		return new MessageBatch(records.length, new Records() {
+			public int length(final int record)
+			{
+				return EncodedMessage.utf8Length(records[record]);
+			}
+
+			public void write(final int record, final byte[] target, final int offset)
+			{
+				EncodedMessage.utf8(records[record], target, offset);
+			}
+		}, executor, generator);
+	}
+
+	/**
+	 * Returns the amount of records.
+	 * @return Size of the batch.
+	 */
+	public int size()
+	{
+		return maps.length;
+	}
+
+	/**
+	 * Returns the {@link Blueprint} a record was encoded with.
+	 * @param record - Position of the record.
+	 * @return Encoding {@link Blueprint}.
+	 */
+	public Blueprint getMap(final int record)
+	{
+		return maps[record];
+	}
+
+	/**
+	 * Returns the {@link Blueprint}s of every record, in order.
+	 * @return Encoding {@link Blueprint}s.
+	 */
+	public List<Blueprint> getMaps()
+	{
+		return java.util.Collections.unmodifiableList(Arrays.asList(maps));
+	}
+
+	/**
+	 * Returns the Array holding an encoded record, the backing Array if
+	 * it's packed. Not copied.
+	 * @param record - Position of the record.
+	 * @return Array holding the record from 'getOffset'.
+	 */
+	public byte[] getArray(final int record)
+	{
+		return arrays[record];
+	}
+
+	/**
+	 * Returns the position of a record within its Array.
+	 * @param record - Position of the record.
+	 * @return Position of its first Byte.
+	 */
+	public int getOffset(final int record)
+	{
+		return offsets[record];
+	}
+
+	/**
+	 * Returns the length of an encoded record.
+	 * @param record - Position of the record.
+	 * @return Amount of Bytes.
+	 */
+	public int getLength(final int record)
+	{
+		return lengths[record];
+	}
+
+	/**
+	 * Returns the backing Array every packed record lies within. Not
+	 * copied.
+	 * @return Backing Array.
+	 */
+	public byte[] getBacking()
+	{
+		return backing;
+	}
+
+	/**
+	 * Returns a record as an {@link EncodedMessage} of its own, copied
+	 * out of the backing Array if it's packed.
+	 * @param record - Position of the record.
+	 * @return Encoded Message with its {@link Blueprint}.
+	 */
+	public EncodedMessage getMessage(final int record)
+	{
+		final byte[] encoded = (arrays[record] == backing)
+				? Arrays.copyOfRange(backing, offsets[record], offsets[record] + lengths[record]) : arrays[record];
+		return EncodedMessage.encoded(encoded, maps[record]);
+	}
+
+	/**
+	 * Returns every record as an {@link EncodedMessage}, as above.
+	 * @return Encoded Messages, in order.
+	 */
+	public List<EncodedMessage> getMessages()
+	{
+		final List<EncodedMessage> messages = new ArrayList<>(size());
+		for(int i = 0; i < size(); i ++)
+			messages.add(getMessage(i));
+		return messages;
+	}
+
+	/**
+	 * Decodes a record into a new Array.
+	 * @param record - Position of the record.
+	 * @return Decoded Bytes.
+	 */
+	public byte[] getDecoded(final int record)
+	{
+		final byte[] decoded = new byte[lengths[record]];
+		ByteTools.scramble(arrays[record], offsets[record], decoded, 0, lengths[record], maps[record]);
+		return decoded;
+	}
+
+	/**
+	 * Tests the {@link MessageBatch}. A batch of records of many lengths,
+	 * some too long to be packed, is encoded as Byte Arrays and as UTF-8
+	 * Text. If every record comes back, both through the batch and its
+	 * {@link EncodedMessage}, and was scrambled with its own
+	 * {@link Blueprint}, our code works.
+	 *
+	 * @return True if {@link MessageBatch} works as intended.
+	 */
+	public static boolean test()
+	{
+		System.out.println("Beginning Message Batch Tests...");
+		final Random random = new Random(11);
+		final byte[] test_bytes = ByteTools.TEST_STR.getBytes();
+		final byte[][] payloads = new byte[600][];
+		final List<String> texts = new ArrayList<>();
+		for(int i = 0; i < payloads.length; i ++)
+		{
+			final int length = (i % 250 == 7) ? PACKED_RECORD_LENGTH + random.nextInt(1000) : random.nextInt(2000);
+			payloads[i] = new byte[length];
+			for(int b = 0; b < length; b ++)
+				payloads[i][b] = test_bytes[(b + i) % test_bytes.length];
+			texts.add(new String(payloads[i], StandardCharsets.UTF_8));
+		}
+
+		final MessageBatch batch = encode(payloads), text_batch = encode(texts, StandardCharsets.UTF_8);
+		boolean decodes = batch.size() == payloads.length && encode(new byte[0][]).size() == 0, keyed = true;
+		for(int i = 0; i < payloads.length; i ++)
+		{
+			final EncodedMessage message = batch.getMessage(i);
+			decodes &= Arrays.equals(batch.getDecoded(i), payloads[i])
+					&& Arrays.equals(message.getDecoded(message.getMap()), payloads[i])
+					&& Arrays.equals(text_batch.getDecoded(i), payloads[i]);
+			keyed &= batch.getMap(i).length() == payloads[i].length
+					&& batch.getMap(i).getPacked().length == payloads[i].length
+					&& Arrays.equals(ByteTools.scramble(payloads[i], batch.getMap(i)), message.getEncoded())
+					&& (payloads[i].length < PACKED_RECORD_LENGTH) == (batch.getArray(i) == batch.getBacking());
+		}
+		final boolean success = decodes && keyed;
+
+		System.out.println("Decodes: " + decodes);
+		System.out.println("Keyed: " + keyed);
+		System.out.println("Success: " + success + "\n");
+		return success;
+	}
+}
@@ -0,0 +1,473 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.util.Arrays;
+
+/**
+ * Several {@link Blueprint}s layered over the same Data, fused so that
+ * every round is scrambled within a single pass and a single allocation.
+ * Scrambling each round with {@link ByteTools#scramble(byte[], Blueprint)}
+ * instead reads and writes the whole Data once per round. <br><br>
+ *
+ * Every round at a position is one row of the {@link ScrambleTable}, so
+ * the rounds at a position collapse into one Table of 256 Bytes. When
+ * constructed, each distinct sequence of rows is compiled into such a
+ * Table once, and each position keeps the number of its Table. A
+ * {@link CyclicBlueprint} or any repeating key has few distinct
+ * sequences, so every Byte costs two loads no matter how many rounds are
+ * layered. Past 255 distinct sequences, the rounds are scrambled a block
+ * at a time instead, each round over a block while it stays in Cache.
+ * Positions with an Index outside of the Byte are scrambled round after
+ * round. <br><br>
+ *
+ * Faults of every round are collected into one {@link ValidationReport},
+ * each at its position, the same faults scrambling the rounds one at a
+ * time would raise. Every {@link Type} undoes itself, so the rounds in
+ * reverse order unscramble the Data, see 'inverse'. The {@link Blueprint}s
+ * must not be changed once fused.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see Blueprint
+ * @see ScrambleTable
+ * @see MaskPlanes
+ */
+public final class Rounds
+{
+
+	/**
+	 * Most rounds whose rows fit within the long a sequence is keyed by.
+	 */
+	private static final int MAX_FUSED_ROUNDS = Long.SIZE / Byte.SIZE;
+
+	/**
+	 * Most distinct sequences of rows compiled into Tables.
+	 */
+	private static final int MAX_TABLES = 255;
+
+	/**
+	 * Table number of positions scrambled round after round.
+	 */
+	private static final int CHAINED = 0xFF;
+
+	/**
+	 * Amount of entries read from each round at a time while compiling.
+	 */
+	private static final int KEY_WINDOW = 4096;
+
+	/**
+	 * Bit set within a fused Table entry when a round faulted.
+	 */
+	private static final int FAULTED = 0x100;
+
+	/**
+	 * Cached {@link Type} values, to avoid cloning them per row.
+	 */
+	private static final Type[] TYPES = Type.values();
+
+	/**
+	 * Each round, in the order they're applied.
+	 */
+	private final Blueprint[] rounds;
+
+	/**
+	 * Amount of positions every round covers.
+	 */
+	private final int length;
+
+	/**
+	 * Table number of each position, or Null if the rounds weren't fused.
+	 */
+	private final byte[] tables;
+
+	/**
+	 * Fused Tables laid out as [Table][Byte]. The lower 8 Bits hold the
+	 * scrambled Byte, 'FAULTED' is set when any round faulted on the way.
+	 */
+	private final short[] fused;
+
+	/**
+	 * Layers the parameter 'rounds', applied first to last, and fuses them.
+	 * @param rounds - {@link Blueprint}s to apply, at least one.
+	 * @throws IllegalArgumentException - If no rounds are given, or one is
+	 * Null.
+	 */
+	public Rounds(final Blueprint... rounds)
+	{
+		if(rounds == null || rounds.length == 0)
+			throw new IllegalArgumentException("At least one round is needed.");
+		this.rounds = rounds.clone();
+		int shortest = Integer.MAX_VALUE;
+		for(final Blueprint round : this.rounds)
+		{
+			if(round == null)
+				throw new IllegalArgumentException("Null round.");
+			shortest = Math.min(shortest, round.length());
+		}
+		length = shortest;
+
+		byte[] table_numbers = null;
+		short[] tables_built = null;
+		if(this.rounds.length <= MAX_FUSED_ROUNDS && length < CyclicBlueprint.UNBOUNDED)
+		{
+			table_numbers = new byte[length];
+			tables_built = fuse(table_numbers);
+			if(tables_built == null)
+				table_numbers = null;
+		}
+		tables = table_numbers;
+		fused = tables_built;
+	}
+
+	/**
+	 * Compiles each distinct sequence of rows into a Table, numbering the
+	 * Table of each position within 'table_numbers'.
+	 * @param table_numbers - Table number of each position, filled.
+	 * @return Fused Tables, or Null if there are too many.
+	 */
+	private short[] fuse(final byte[] table_numbers)
+	{
+		final long[] sequences = new long[MAX_TABLES];
+		final short[] built = new short[MAX_TABLES * ScrambleTable.BYTE_VALUES];
+		int count = 0;
+
+		final byte[][] windows = new byte[rounds.length][Math.min(length, KEY_WINDOW)];
+		for(int done = 0; done < length; done += KEY_WINDOW)
+		{
+			final int run_length = Math.min(KEY_WINDOW, length - done);
+			for(int r = 0; r < rounds.length; r ++)
+				rounds[r].fillPacked(done, windows[r], 0, run_length);
+
+			long last = -1;
+			int last_table = CHAINED;
+			for(int i = 0; i < run_length; i ++)
+			{
+				long sequence = 0;
+				boolean escaped = false;
+				for(int r = 0; r < rounds.length; r ++)
+				{
+					escaped |= (windows[r][i] & Blueprint.PACKED_ESCAPE) != 0;
+					sequence |= (long) (windows[r][i] & Blueprint.PACKED_ROW_MASK) << (r * Byte.SIZE);
+				}
+				if(escaped)
+				{
+					table_numbers[done + i] = (byte) CHAINED;
+					continue;
+				}
+				if(sequence != last)
+				{
+					last_table = CHAINED;
+					for(int t = 0; t < count && last_table == CHAINED; t ++)
+						if(sequences[t] == sequence)
+							last_table = t;
+					if(last_table == CHAINED)
+					{
+						if(count == MAX_TABLES)
+							return null;
+						sequences[count] = sequence;
+						compile(sequence, built, count * ScrambleTable.BYTE_VALUES);
+						last_table = count ++;
+					}
+					last = sequence;
+				}
+				table_numbers[done + i] = (byte) last_table;
+			}
+		}
+		return Arrays.copyOf(built, count * ScrambleTable.BYTE_VALUES);
+	}
+
+	/**
+	 * Runs every Byte value through a sequence of rows, one row per round.
+	 * @param sequence - Row of each round, a Byte each, first round lowest.
+	 * @param table - Tables to write into.
+	 * @param offset - Position of the Table within 'table'.
+	 */
+	private void compile(final long sequence, final short[] table, final int offset)
+	{
+		for(int value = 0; value < ScrambleTable.BYTE_VALUES; value ++)
+		{
+			int byte_ = value, faulted = 0;
+			for(int r = 0; r < rounds.length; r ++)
+			{
+				final int row = (int) (sequence >>> (r * Byte.SIZE)) & Blueprint.PACKED_ROW_MASK;
+				final int entry = ScrambleTable.lookup((byte) byte_, (byte) (row & Blueprint.PACKED_INDEX_MASK),
+						TYPES[row >> Blueprint.PACKED_TYPE_SHIFT]);
+				byte_ = entry & 0xFF;
+				if(entry > 0xFF)
+					faulted = FAULTED;
+			}
+			table[offset + value] = (short) (byte_ | faulted);
+		}
+	}
+
+	/**
+	 * Returns the rounds in reverse order, which unscramble whatever these
+	 * rounds scrambled.
+	 * @return Inverse rounds.
+	 */
+	public Rounds inverse()
+	{
+		final Blueprint[] reversed = new Blueprint[rounds.length];
+		for(int r = 0; r < rounds.length; r ++)
+			reversed[r] = rounds[rounds.length - 1 - r];
+		return new Rounds(reversed);
+	}
+
+	/**
+	 * Returns the amount of rounds.
+	 * @return Amount of rounds.
+	 */
+	public int getRoundCount()
+	{
+		return rounds.length;
+	}
+
+	/**
+	 * Returns the amount of positions every round covers.
+	 * @return Length of the shortest round.
+	 */
+	public int length()
+	{
+		return length;
+	}
+
+	/**
+	 * Checks whether the rounds were compiled into Tables.
+	 * @return True if fused, false if scrambled round after round.
+	 */
+	public boolean isFused()
+	{
+		return tables != null;
+	}
+
+	/**
+	 * Scrambles a Byte Array with every round, into one new Array. If a
+	 * round can't operate on some of the Bytes, a single
+	 * {@link ValidationReport} is printed listing them.
+	 * @param bytes - Scrambled or Unscrambled Bytes.
+	 * @return New Scrambled or Unscrambled Byte Array.
+	 * @throws IndexOutOfBoundsException - If a round is shorter than the
+	 * Array.
+	 */
+	public byte[] scramble(final byte[] bytes)
+	{
+		final byte[] scrambled = new byte[bytes.length];
+		scramble(bytes, 0, scrambled, 0, bytes.length, 0);
+		return scrambled;
+	}
+
+	/**
+	 * Scrambles a region of 'source' with every round into 'target',
+	 * starting at entry 'key_offset' of each round. 'source' and 'target'
+	 * may be the same Array.
+	 * @param source - Scrambled or Unscrambled Bytes.
+	 * @param source_offset - Position of the first Byte within 'source'.
+	 * @param target - Array to write the Bytes to.
+	 * @param target_offset - Position of the first Byte within 'target'.
+	 * @param length - Amount of Bytes to Scramble.
+	 * @param key_offset - Entry of each round used by the first Byte.
+	 * @throws IndexOutOfBoundsException - If a region lies outside of its
+	 * Array, or a round has fewer than 'length' entries after 'key_offset'.
+	 */
+	public void scramble(final byte[] source, final int source_offset, final byte[] target,
+			final int target_offset, final int length, final int key_offset)
+	{
+		ByteTools.checkRegion(source.length, source_offset, length);
+		ByteTools.checkRegion(target.length, target_offset, length);
+		ByteTools.checkRegion(this.length, key_offset, length);
+		final ValidationReport report = run(source, source_offset, target, target_offset, length, key_offset, this.length);
+		if(report != null)
+			report.print();
+	}
+
+	/**
+	 * Scrambles without checking the regions or printing faults.
+	 * @param source - Bytes to Scramble.
+	 * @param source_offset - Position of the first Byte within 'source'.
+	 * @param target - Array to write the scrambled Bytes to.
+	 * @param target_offset - Position of the first Byte within 'target'.
+	 * @param length - Amount of Bytes to Scramble.
+	 * @param key_offset - Entry of each round used by the first Byte.
+	 * @param data_length - Length of the whole Data, for the report.
+	 * @return Report of each fault, or Null if there were none.
+	 */
+	ValidationReport run(final byte[] source, final int source_offset, final byte[] target,
+			final int target_offset, final int length, final int key_offset, final int data_length)
+	{
+		if(tables == null)
+			return blocks(source, source_offset, target, target_offset, length, key_offset, data_length);
+
+		ValidationReport report = null;
+
+		final short[] fused = this.fused;
+		final byte[] tables = this.tables;
+		for(int i = 0; i < length; i ++)
+		{
+			final int table = tables[key_offset + i] & 0xFF;
+			if(table == CHAINED)
+			{
+				report = chain(source, source_offset + i, target, target_offset + i, key_offset + i, data_length, report);
+				continue;
+			}
+			final int entry = fused[(table * ScrambleTable.BYTE_VALUES) + (source[source_offset + i] & 0xFF)];
+			if(entry > 0xFF)
+				report = chain(source, source_offset + i, target, target_offset + i, key_offset + i, data_length, report);
+			else
+				target[target_offset + i] = (byte) entry;
+		}
+		return report;
+	}
+
+	/**
+	 * Scrambles rounds which weren't fused, a block at a time. Each round
+	 * scrambles the whole block before the next, while it stays in Cache,
+	 * so the Data is still read and written once.
+	 * @param source - Bytes to Scramble.
+	 * @param source_offset - Position of the first Byte within 'source'.
+	 * @param target - Array to write the scrambled Bytes to.
+	 * @param target_offset - Position of the first Byte within 'target'.
+	 * @param length - Amount of Bytes to Scramble.
+	 * @param key_offset - Entry of each round used by the first Byte.
+	 * @param data_length - Length of the whole Data, for the report.
+	 * @return Report of each fault, or Null if there were none.
+	 */
+	private ValidationReport blocks(final byte[] source, final int source_offset, final byte[] target,
+			final int target_offset, final int length, final int key_offset, final int data_length)
+	{
+		final ValidationReport[] round_reports = new ValidationReport[rounds.length];
+		ValidationReport report = null;
+		for(int done = 0; done < length; done += KEY_WINDOW)
+		{
+			final int run_length = Math.min(KEY_WINDOW, length - done);
+			boolean faulted = false;
+			for(int r = 0; r < rounds.length; r ++)
+			{
+				round_reports[r] = (r == 0)
+					? ScrambleTable.scramble(source, source_offset + done, target, target_offset + done, run_length,
+							rounds[r], key_offset + done, data_length)
+					: ScrambleTable.scramble(target, target_offset + done, target, target_offset + done, run_length,
+							rounds[r], key_offset + done, data_length);
+				faulted |= round_reports[r] != null;
+			}
+			if(faulted)
+				report = merge(report, round_reports, data_length);
+		}
+		return report;
+	}
+
+	/**
+	 * Appends the faults of each round within a block to 'report', in
+	 * order of position, then of round.
+	 * @param report - Report to add to, may be Null.
+	 * @param round_reports - Report of each round within the block, each
+	 * may be Null.
+	 * @param data_length - Length of the whole Data.
+	 * @return Report holding the faults.
+	 */
+	private ValidationReport merge(ValidationReport report, final ValidationReport[] round_reports,
+			final int data_length)
+	{
+		if(report == null)
+			report = new ValidationReport(data_length, length);
+		final int[][] positions = new int[round_reports.length][];
+		final int[] next = new int[round_reports.length];
+		for(int r = 0; r < round_reports.length; r ++)
+			positions[r] = (round_reports[r] != null) ? round_reports[r].getPositions() : new int[0];
+		while(true)
+		{
+			int earliest = -1;
+			for(int r = 0; r < positions.length; r ++)
+				if(next[r] < positions[r].length
+						&& (earliest < 0 || positions[r][next[r]] < positions[earliest][next[earliest]]))
+					earliest = r;
+			if(earliest < 0)
+				return report;
+			report.add(positions[earliest][next[earliest]], round_reports[earliest].getFault(next[earliest] ++));
+		}
+	}
+
+	/**
+	 * Scrambles a single Byte round after round, reporting the faults of
+	 * each round.
+	 * @param source - Bytes to Scramble.
+	 * @param source_index - Position of the Byte within 'source'.
+	 * @param target - Array to write the scrambled Byte to.
+	 * @param target_index - Position of the Byte within 'target'.
+	 * @param position - Position of the Byte within each round.
+	 * @param data_length - Length of the whole Data, for the report.
+	 * @param report - Report to add faults to, may be Null.
+	 * @return Report of each fault, or Null if there were none.
+	 */
+	private ValidationReport chain(final byte[] source, final int source_index, final byte[] target,
+			final int target_index, final int position, final int data_length, ValidationReport report)
+	{
+		byte byte_ = source[source_index];
+		for(final Blueprint round : rounds)
+		{
+			final int entry = ScrambleTable.lookup(byte_, round, position);
+			byte_ = (byte) entry;
+			if(entry > 0xFF)
+			{
+				if(report == null)
+					report = new ValidationReport(data_length, length);
+				report.add(position, ScrambleTable.fault(entry));
+			}
+		}
+		target[target_index] = byte_;
+		return report;
+	}
+
+	/**
+	 * Tests the {@link Rounds}. A large repetition of the Test String is
+	 * scrambled with three rounds, once with repeating keys which are
+	 * fused and once with {@link Smartprint}s too varied to fuse. Each is
+	 * checked against scrambling the rounds one at a time, fault counts included,
+	 * then unscrambled with the inverse rounds. If all agree and the
+	 * repetition comes back, our code works.
+	 *
+	 * @return True if {@link Rounds} works as intended.
+	 */
+	public static boolean test()
+	{
+		System.out.println("Beginning Rounds Tests...");
+		final byte[] original_bytes = ByteTools.repeatedTestBytes(1000);
+
+		final Blueprint[][] keys = {
+			{new CyclicBlueprint(new SeededBlueprint(3), original_bytes.length),
+				new CyclicBlueprint(new SeededBlueprint(5), original_bytes.length),
+				new CyclicBlueprint(new SeededBlueprint(2), original_bytes.length)},
+			{new Smartprint(original_bytes), new Smartprint(original_bytes), new Smartprint(original_bytes)}};
+
+		boolean success = true;
+		for(final Blueprint[] key : keys)
+		{
+			final Rounds rounds = new Rounds(key);
+			byte[] expected = original_bytes;
+			final ValidationReport[] expected_reports = new ValidationReport[key.length];
+			for(int r = 0; r < key.length; r ++)
+			{
+				final byte[] scrambled = new byte[original_bytes.length];
+				expected_reports[r] = ScrambleTable.scramble(expected, 0, scrambled, 0, scrambled.length, key[r], 0, scrambled.length);
+				expected = scrambled;
+			}
+			int expected_faults = 0;
+			for(final ValidationReport expected_report : expected_reports)
+				expected_faults += (expected_report != null) ? expected_report.getFaultCount() : 0;
+
+			final byte[] actual = new byte[original_bytes.length], restored = new byte[original_bytes.length];
+			final ValidationReport report = rounds.run(original_bytes, 0, actual, 0, actual.length, 0, actual.length);
+			rounds.inverse().run(actual, 0, restored, 0, actual.length, 0, actual.length);
+
+			final boolean match = Arrays.equals(expected, actual)
+					&& ((report != null) ? report.getFaultCount() : 0) == expected_faults;
+			final boolean round_trip = expected_faults > 0 || Arrays.equals(restored, original_bytes);
+			System.out.println("Fused: " + rounds.isFused() + ", match: " + match + ", round trip: " + round_trip);
+			success &= match && round_trip;
+		}
+		success &= new Rounds(keys[0]).isFused();
+
+		System.out.println("Success: " + success + "\n");
+		return success;
+	}
+}
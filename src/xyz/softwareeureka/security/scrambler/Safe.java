@@ -1,14 +1,19 @@
 package xyz.softwareeureka.security.scrambler;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Encapsulates {@link EncodedMessage} and {@link Blueprint} into a file
@@ -20,7 +25,8 @@ import java.util.ArrayList;
  * @see Blueprint
  * @see Smartprint
  * @see FileImpl
- * @version 0.3
+ * @see MappedSafe
+ * @version 0.4
  * @since 18/11/2017 updated 19/11/2017.
  */
 public final class Safe implements FileImpl
@@ -31,6 +37,35 @@ public final class Safe implements FileImpl
 	 */
 	private static final String DEFAULT_NAME = "de_cipher.safe";
 	
+	/**
+	 * Magic number starting every Binary {@link Safe} file. Its first Byte
+	 * is neither a {@link Type} ordinal nor printable, so it can't be
+	 * confused with the older Text format.
+	 */
+	static final int MAGIC = 0x89534146;
+	
+	/**
+	 * Version of the Binary format written.
+	 */
+	static final byte FORMAT_VERSION = 2;
+	
+	/**
+	 * Key kind of a {@link Blueprint} stored by its {@link Type}s and
+	 * Indexes.
+	 */
+	static final byte STORED_KEY = 0;
+	
+	/**
+	 * Key kind of a {@link SeededBlueprint} stored by its Seed and length.
+	 */
+	static final byte SEEDED_KEY = 1;
+	
+	/**
+	 * Key kind of a {@link CyclicBlueprint} stored by its length and the
+	 * key it repeats.
+	 */
+	static final byte CYCLIC_KEY = 2;
+	
 	/**
 	 * Encoded message to store in Safe file.
 	 */
@@ -119,12 +154,21 @@ public final class Safe implements FileImpl
 	 * Saves the {@link EncodedMessage} and {@link Blueprint} to a file
 	 * at the parameter 'path'. If 'path' is empty, then the default name
 	 * 'DEFAULT_NAME' string is used. The saved {@link Safe} file is then 
-	 * returned. The format of the {@link Safe} file  is as follows:<br><br>
+	 * returned. The file is written in Binary, in bulk through a
+	 * {@link FileChannel}. All numbers are big endian. The format of the 
+	 * {@link Safe} file is as follows:<br><br>
 	 * <ul>
-	 * 	<li>(Line 1) Each byte is a {@link Type} ordinal.</li>
-	 * 	<li>(Line 2) Each byte is a index value of {@link Type}.</li>
-	 * 	<li>(Line 3) Each byte is part of the {@link EncodedMessage}.</li>
+	 * 	<li>(Header) The magic number 'MAGIC', the format version and the
+	 * 	kind of key, 'STORED_KEY', 'SEEDED_KEY' or 'CYCLIC_KEY'.</li>
+	 * 	<li>(Key) For a stored key, a section of {@link Type} ordinals then
+	 * 	a section of Bit Indexes. For a {@link SeededBlueprint}, a section
+	 * 	holding the Seed and length. For a {@link CyclicBlueprint}, a section
+	 * 	holding its length and the kind of key it repeats, then that key, so
+	 * 	only one period is stored.</li>
+	 * 	<li>(Message) A section holding the {@link EncodedMessage}.</li>
 	 * </ul>
+	 * Each section is an int length followed by that many Bytes, so any
+	 * Byte may be stored.
 	 * 
 	 * @return Saved {@link Safe} file.
 	 */
@@ -137,40 +181,25 @@ public final class Safe implements FileImpl
 			return null;
 		}
 		if(path.isEmpty()) path = DEFAULT_NAME;
-		File file = null;
-		BufferedWriter data_out = null;
-		try
+		final File file = new File(path);
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
 		{
-			file = new File(path);
-			// Init streams...
-			FileOutputStream safe_output_str = new FileOutputStream(file);
-			data_out = new BufferedWriter(new OutputStreamWriter(safe_output_str));
-			final int key_length = key.getIndexes().length;
-			// Write Type ordinal's to file...
-			for(int i = 0; i < key_length; i ++)
-				data_out.write((byte)key.getType(i).ordinal()); 
-			data_out.newLine();
-			// Write Type indexes to file...
-			for(int i = 0; i < key_length; i ++)
-				data_out.write(key.getIndex(i)); // Write Bit Index.
-			data_out.newLine();
-			// Write encoded byte's to file...
-			for(int i = 0; i < msg.getEncoded().length; i ++)
-				data_out.write(msg.getEncoded()[i]); // Write msg.
+			final List<ByteBuffer> section_list = new ArrayList<>();
+			section_list.add(header(kindOf(key)));
+			keySections(key, section_list);
+			// Pooled Messages may be padded, only their own Bytes are stored.
+			section_list.add(prefix(msg.getLength()));
+			section_list.add(ByteBuffer.wrap(msg.getEncodedArray(), 0, msg.getLength()));
+			final ByteBuffer[] sections = section_list.toArray(new ByteBuffer[0]);
+			// Write every section at once...
+			while(sections[sections.length - 1].hasRemaining())
+				channel.write(sections);
 		} 
 		catch (IOException e) 
 		{
 			e.printStackTrace();
 		}
-		finally {
-			try {
-				if(data_out != null)
-					data_out.close();
-			} catch (IOException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			}
-		}
 		return file;
 	}
 
@@ -178,7 +207,9 @@ public final class Safe implements FileImpl
 	 * Reads the {@link EncodedMessage} and {@link Blueprint} from a file
 	 * at the parameter 'path'. If 'path' is empty, then the default name
 	 * 'DEFAULT_NAME' string is used. The read {@link Safe} is then returned.
-	 * The format of the {@link Safe} file  is as follows:<br><br>
+	 * Files in the Binary format written by 'toFile' are read in bulk 
+	 * through a {@link FileChannel}. Files without the magic number 'MAGIC'
+	 * are read in the older Text format:<br><br>
 	 * <ul>
 	 * 	<li>(Line 1) Each byte is a {@link Type} ordinal.</li>
 	 * 	<li>(Line 2) Each byte is a index value of {@link Type}.</li>
@@ -192,13 +223,153 @@ public final class Safe implements FileImpl
 	{
 		if(path.isEmpty()) path = DEFAULT_NAME;
 		Safe loaded_safe = null;
-		BufferedReader data_in = null;
-		try
+		try(FileChannel channel = FileChannel.open(new File(path).toPath(), StandardOpenOption.READ))
 		{
-			// Init streams..
-			FileInputStream safe_output_str = new FileInputStream(new File(path));
-			data_in = new BufferedReader(new InputStreamReader(safe_output_str, "UTF-8"));
+			final ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+			while(magic.hasRemaining())
+				if(channel.read(magic) < 0)
+					break;
+			if(!magic.hasRemaining() && magic.getInt(0) == MAGIC)
+				loaded_safe = fromChannel(channel);
+			else
+				loaded_safe = fromLegacyFile();
+		} 
+		catch (IOException e) 
+		{
+			e.printStackTrace();
+		}
+		return loaded_safe;
+	}
+	
+	/**
+	 * Reads the remainder of a Binary {@link Safe} file, after its magic
+	 * number. Each section is read straight into its own Array.
+	 * @param channel - Channel positioned after the magic number.
+	 * @return Read {@link Safe}.
+	 * @throws IOException - If the file is truncated, corrupt or of an
+	 * unknown version.
+	 */
+	private Safe fromChannel(final FileChannel channel) throws IOException
+	{
+		final ByteBuffer header = read(channel, ByteBuffer.allocate(2));
+		final byte version = header.get(), kind = header.get();
+		if(version != FORMAT_VERSION)
+			throw new IOException("Unsupported Safe version: " + version);
+		
+		final Blueprint key = readKey(channel, kind);
+		
+		final byte[] data = read(channel, ByteBuffer.allocate(sectionLength(channel))).array();
+		return new Safe(path, new EncodedMessage(data), key);
+	}
+	
+	/**
+	 * Chooses the key kind a {@link Blueprint} is stored as.
+	 * @param key - {@link Blueprint} to store.
+	 * @return 'SEEDED_KEY', 'CYCLIC_KEY' or 'STORED_KEY'.
+	 */
+	static byte kindOf(final Blueprint key)
+	{
+		if(key instanceof SeededBlueprint)
+			return SEEDED_KEY;
+		return (key instanceof CyclicBlueprint) ? CYCLIC_KEY : STORED_KEY;
+	}
+	
+	/**
+	 * Creates the sections storing a {@link Blueprint}, by its kind. A
+	 * {@link CyclicBlueprint} is followed by the key it repeats, so even
+	 * an unbounded one is stored within a single period.
+	 * @param key - {@link Blueprint} to store.
+	 * @param sections - List to add the sections to, ready to write.
+	 */
+	static void keySections(final Blueprint key, final List<ByteBuffer> sections)
+	{
+		final int key_length = key.length();
+		if(key instanceof SeededBlueprint)
+		{
+			final ByteBuffer seed = ByteBuffer.allocate(Long.BYTES + Integer.BYTES);
+			seed.putLong(((SeededBlueprint) key).getSeed()).putInt(key_length);
+			seed.flip();
+			sections.add(prefix(seed.remaining()));
+			sections.add(seed);
+		}
+		else if(key instanceof CyclicBlueprint)
+		{
+			final Blueprint base = ((CyclicBlueprint) key).getBase();
+			final ByteBuffer cyclic = ByteBuffer.allocate(Integer.BYTES + 1);
+			cyclic.putInt(key_length).put(kindOf(base));
+			cyclic.flip();
+			sections.add(prefix(cyclic.remaining()));
+			sections.add(cyclic);
+			keySections(base, sections);
+		}
+		else
+		{
+			final byte[] types = new byte[key_length];
+			for(int i = 0; i < key_length; i ++)
+				types[i] = (byte) key.getType(i).ordinal();
+			sections.add(prefix(key_length));
+			sections.add(ByteBuffer.wrap(types));
+			sections.add(prefix(key_length));
+			sections.add(ByteBuffer.wrap(key.getIndexes()));
+		}
+	}
+	
+	/**
+	 * Reads a {@link Blueprint} stored by 'keySections'.
+	 * @param channel - Channel positioned at the key's sections.
+	 * @param kind - Kind of key stored.
+	 * @return Read {@link Blueprint}.
+	 * @throws IOException - If the key is truncated or corrupt.
+	 */
+	static Blueprint readKey(final FileChannel channel, final byte kind) throws IOException
+	{
+		if(kind == SEEDED_KEY)
+		{
+			final ByteBuffer seed = read(channel, section(channel, Long.BYTES + Integer.BYTES));
+			return new SeededBlueprint(seed.getLong(), seed.getInt());
+		}
+		else if(kind == CYCLIC_KEY)
+		{
+			final ByteBuffer cyclic = read(channel, section(channel, Integer.BYTES + 1));
+			final int key_length = cyclic.getInt();
+			final Blueprint base = readKey(channel, cyclic.get());
+			try
+			{
+				return new CyclicBlueprint(base, key_length);
+			}
+			catch (IllegalArgumentException | IndexOutOfBoundsException e)
+			{
+				throw new IOException("Corrupt Safe, invalid cyclic key: " + e.getMessage());
+			}
+		}
+		else if(kind == STORED_KEY)
+		{
+			final int key_length = sectionLength(channel);
+			final byte[] types = read(channel, ByteBuffer.allocate(key_length)).array(),
+					indexes = read(channel, section(channel, key_length)).array();
+			for(int i = 0; i < key_length; i ++)
+				if(types[i] < 0 || types[i] >= Type.values().length)
+					throw new IOException("Corrupt Safe, unknown Type ordinal at " + i + ": " + types[i]);
 			
+			// Recreate cipher key...
+			return new Blueprint(types, indexes) {
+				public void populateIndexes(){}
+				public ArrayList<Type> populate(){return null;}
+			};
+		}
+		throw new IOException("Corrupt Safe, unknown key kind: " + kind);
+	}
+	
+	/**
+	 * Reads the {@link EncodedMessage} and {@link Blueprint} from a file
+	 * in the older Text format, line by line.
+	 * @return Read {@link Safe}.
+	 * @throws IOException - If the file can't be read.
+	 */
+	private Safe fromLegacyFile() throws IOException
+	{
+		try(BufferedReader data_in = new BufferedReader(new InputStreamReader(new FileInputStream(new File(path)), "UTF-8")))
+		{
 			// Read in data...
 			byte[] types = data_in.readLine().getBytes();
 			byte[] indexes = data_in.readLine().getBytes();
@@ -211,22 +382,80 @@ public final class Safe implements FileImpl
 			};
 			
 			// Recreate Safe object.
-			loaded_safe = new Safe(path, new EncodedMessage(data), key);
-		} 
-		catch (IOException e) 
-		{
-			e.printStackTrace();
-		}
-		finally 
-		{
-			try {
-				if(data_in != null)
-					data_in.close();
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
+			return new Safe(path, new EncodedMessage(data), key);
 		}
-		return loaded_safe;
+	}
+	
+	/**
+	 * Creates the header of a Binary {@link Safe} file.
+	 * @param kind - Kind of key stored.
+	 * @return Header, ready to write.
+	 */
+	private static ByteBuffer header(final byte kind)
+	{
+		final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 2);
+		header.putInt(MAGIC).put(FORMAT_VERSION).put(kind);
+		header.flip();
+		return header;
+	}
+	
+	/**
+	 * Creates the length prefix of a section.
+	 * @param length - Length of the section.
+	 * @return Prefix, ready to write.
+	 */
+	private static ByteBuffer prefix(final int length)
+	{
+		final ByteBuffer prefix = ByteBuffer.allocate(Integer.BYTES);
+		prefix.putInt(length);
+		prefix.flip();
+		return prefix;
+	}
+	
+	/**
+	 * Reads the length prefix of a section.
+	 * @param channel - Channel positioned at the section.
+	 * @return Length of the section.
+	 * @throws IOException - If the length is negative or the file is
+	 * truncated.
+	 */
+	static int sectionLength(final FileChannel channel) throws IOException
+	{
+		final int length = read(channel, ByteBuffer.allocate(Integer.BYTES)).getInt();
+		if(length < 0 || length > channel.size() - channel.position())
+			throw new IOException("Corrupt Safe, invalid section length: " + length);
+		return length;
+	}
+	
+	/**
+	 * Reads the length prefix of a section of a known length.
+	 * @param channel - Channel positioned at the section.
+	 * @param expected - Length the section must have.
+	 * @return Buffer to read the section into.
+	 * @throws IOException - If the length doesn't match.
+	 */
+	static ByteBuffer section(final FileChannel channel, final int expected) throws IOException
+	{
+		final int length = sectionLength(channel);
+		if(length != expected)
+			throw new IOException("Corrupt Safe, expected a section of " + expected + " Bytes, found " + length);
+		return ByteBuffer.allocate(length);
+	}
+	
+	/**
+	 * Fills the parameter 'buffer' from the parameter 'channel'.
+	 * @param channel - Channel to read from.
+	 * @param buffer - Buffer to fill.
+	 * @return The filled Buffer, flipped for reading.
+	 * @throws IOException - If the file ends first.
+	 */
+	static ByteBuffer read(final FileChannel channel, final ByteBuffer buffer) throws IOException
+	{
+		while(buffer.hasRemaining())
+			if(channel.read(buffer) < 0)
+				throw new EOFException("Truncated Safe.");
+		buffer.flip();
+		return buffer;
 	}
 	
 	/**
@@ -269,12 +498,104 @@ public final class Safe implements FileImpl
 		System.out.println("Decoded: " + new String(decoded));
 		
 		boolean match = text_str.getBytes().equals(safe.msg.getEncoded()),
-				success = new String(decoded).equals(text_str) && !match;
+				formats = formatTests(),
+				success = new String(decoded).equals(text_str) && !match && formats;
 		
 		
 		System.out.println("Match: " + match);
+		System.out.println("Formats: " + formats);
 		System.out.println("Success: " + success + "\n");
 		
 		return success;
 	}
+	
+	/**
+	 * Tests both file formats. Every possible Byte, line breaks included,
+	 * is stored within a Binary {@link Safe} and read back, as is a pooled
+	 * {@link EncodedMessage} without its padding. Then a file in
+	 * the older Text format is written by hand and read back. If both come
+	 * back unchanged, our code works.
+	 * 
+	 * @return True if both formats are read as intended.
+	 */
+	private static boolean formatTests()
+	{
+		boolean binary = false, legacy = false;
+		try
+		{
+			final byte[] all_bytes = new byte[256];
+			for(int i = 0; i < all_bytes.length; i ++)
+				all_bytes[i] = (byte) i;
+			final Blueprint key = new Smartprint(ByteTools.TEST_STR.getBytes());
+			final File binary_file = File.createTempFile("binary", ".safe");
+			binary_file.deleteOnExit();
+			new Safe(binary_file.getAbsolutePath(), new EncodedMessage(all_bytes), key).toFile();
+			final Safe binary_safe = new Safe(binary_file);
+			binary = Arrays.equals(binary_safe.msg.getEncoded(), all_bytes) && sameKey(binary_safe.key, key);
+			
+			// An unbounded cyclic key is stored by its period alone.
+			final CyclicBlueprint cyclic = new CyclicBlueprint(key);
+			final File cyclic_file = File.createTempFile("cyclic", ".safe");
+			cyclic_file.deleteOnExit();
+			new Safe(cyclic_file.getAbsolutePath(), new EncodedMessage(all_bytes), cyclic).toFile();
+			final Safe cyclic_safe = new Safe(cyclic_file);
+			binary &= cyclic_file.length() < 2 * all_bytes.length && cyclic_safe.key instanceof CyclicBlueprint
+					&& cyclic_safe.key.length() == CyclicBlueprint.UNBOUNDED
+					&& sameKey(((CyclicBlueprint) cyclic_safe.key).getBase(), key)
+					&& Arrays.equals(cyclic_safe.msg.getEncoded(), all_bytes);
+			
+			// A pooled Message is stored without the padding of its Array.
+			final File pooled_file = File.createTempFile("pooled", ".safe");
+			pooled_file.deleteOnExit();
+			try(ScratchArena scratch = ScratchArena.open())
+			{
+				final EncodedMessage pooled = new EncodedMessage(ByteTools.TEST_STR, StandardCharsets.US_ASCII, scratch);
+				new Safe(pooled_file.getAbsolutePath(), pooled, pooled.getMap()).toFile();
+			}
+			final Safe pooled_safe = new Safe(pooled_file);
+			binary &= pooled_safe.msg.getEncoded().length == ByteTools.TEST_STR.length()
+					&& new String(pooled_safe.msg.getDecoded(pooled_safe.key), StandardCharsets.US_ASCII).equals(ByteTools.TEST_STR);
+			
+			final byte[] types = {0, 3, 6}, indexes = {2, 3, 4}, data = "abc".getBytes();
+			final File legacy_file = File.createTempFile("legacy", ".safe");
+			legacy_file.deleteOnExit();
+			try(FileOutputStream legacy_out = new FileOutputStream(legacy_file))
+			{
+				legacy_out.write(types);
+				legacy_out.write('\n');
+				legacy_out.write(indexes);
+				legacy_out.write('\n');
+				legacy_out.write(data);
+			}
+			final Safe legacy_safe = new Safe(legacy_file);
+			legacy = Arrays.equals(legacy_safe.msg.getEncoded(), data) 
+					&& sameKey(legacy_safe.key, new Blueprint(types, indexes) {
+						public void populateIndexes(){}
+						public ArrayList<Type> populate(){return null;}
+					});
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+		System.out.println("Binary format: " + binary);
+		System.out.println("Text format: " + legacy);
+		return binary && legacy;
+	}
+	
+	/**
+	 * Checks two {@link Blueprint}s hold the same entries.
+	 * @param first - First {@link Blueprint}.
+	 * @param second - Second {@link Blueprint}.
+	 * @return True if every {@link Type} and Index match.
+	 */
+	private static boolean sameKey(final Blueprint first, final Blueprint second)
+	{
+		if(first.length() != second.length())
+			return false;
+		for(int i = 0; i < first.length(); i ++)
+			if(first.getType(i) != second.getType(i) || first.getIndex(i) != second.getIndex(i))
+				return false;
+		return true;
+	}
 }
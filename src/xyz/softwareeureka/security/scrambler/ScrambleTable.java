@@ -0,0 +1,485 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import xyz.softwareeureka.security.scrambler.BitException.ExceptionType;
+
+/**
+ * A Table driven Scramble Engine. For every {@link Type} and every Bit
+ * Index within a Byte (0 - 7), the outcome of
+ * {@link ByteTools#scramble(byte, byte, Type)} is precomputed for all
+ * 256 Byte values once, when this Class is initialised. Scrambling a
+ * Byte then becomes a single Array load instead of a chain of Binary
+ * String length calculations. <br><br>
+ *
+ * The Tables are built from the Byte Functions within {@link ByteTools}
+ * themselves, so the results are identical to them, including the
+ * length dependent behaviour of {@link Type#INVERSE_ALL}. Indexes
+ * outside of the Byte fall back onto {@link ByteTools}.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see ByteTools
+ * @see Type
+ */
+final class ScrambleTable
+{
+
+	/**
+	 * Number of Byte values covered per Table row.
+	 */
+	static final int BYTE_VALUES = 256;
+
+	/**
+	 * Number of Bit Indexes covered per {@link Type}.
+	 */
+	static final int INDEX_COUNT = ByteTools.BYTE_LENGTH;
+
+	/**
+	 * Bit shift of the fault code stored above the scrambled Byte.
+	 */
+	private static final int FAULT_SHIFT = 8;
+
+	/**
+	 * Mask of the scrambled Byte within a Table entry.
+	 */
+	private static final int VALUE_MASK = 0xFF;
+
+	/**
+	 * Amount of derived {@link Blueprint} entries produced at a time.
+	 */
+	private static final int KEY_WINDOW = 4096;
+
+	/**
+	 * Each entry holds the scrambled Byte within the lower 8 Bits. If the
+	 * {@link Type} can't operate on that Byte, the upper Bits hold the
+	 * ordinal (plus One) of the {@link ExceptionType} raised. When that
+	 * Error was thrown the lower Bits hold Zero, when it was recovered 
+	 * from they hold the recovered Byte. Laid out as
+	 * [{@link Type}][Index][Byte].
+	 */
+	private static final short[] TABLE = build();
+
+	/**
+	 * Private Constructor as this is a Static Class.
+	 */
+	private ScrambleTable(){}
+
+	/**
+	 * Builds the lookup Table by running every {@link Type}, Index and
+	 * Byte combination through {@link ByteTools}.
+	 * @return Filled lookup Table.
+	 */
+	private static short[] build()
+	{
+		final Type[] types = Type.values();
+		final short[] table = new short[types.length * INDEX_COUNT * BYTE_VALUES];
+		for(int t = 0; t < types.length; t ++)
+			for(byte index = 0; index < INDEX_COUNT; index ++)
+				for(int value = 0; value < BYTE_VALUES; value ++)
+					table[slot(t, index, value)] = (short) compute((byte) value, index, types[t]);
+		return table;
+	}
+
+	/**
+	 * Runs a single Byte through {@link ByteTools} and encodes the outcome
+	 * as a Table entry. Thrown Errors leave Zero as the Byte, recovered 
+	 * Errors leave the recovered Byte. In both cases the first Error is
+	 * recorded as the fault code.
+	 * @param byte_ - Byte to Scramble with {@link Type}.
+	 * @param index - Index within Byte to modify.
+	 * @param scramble_type - {@link Type} of Bit modification.
+	 * @return Table entry.
+	 */
+	private static int compute(final byte byte_, final byte index, final Type scramble_type)
+	{
+		final BitException[] recovered = new BitException[1];
+		try
+		{
+			final byte scrambled = ByteTools.scramble(byte_, index, scramble_type, e -> {
+				if(recovered[0] == null)
+					recovered[0] = e;
+			});
+			return (recovered[0] == null) ? (scrambled & VALUE_MASK) : entry(scrambled, recovered[0].getType());
+		}
+		catch (BitException e)
+		{
+			return entry((byte) 0, e.getType());
+		}
+	}
+
+	/**
+	 * Encodes a Byte and a fault into a Table entry.
+	 * @param byte_ - Scrambled Byte.
+	 * @param fault - Error raised while scrambling.
+	 * @return Table entry.
+	 */
+	private static int entry(final byte byte_, final ExceptionType fault)
+	{
+		return ((fault.ordinal() + 1) << FAULT_SHIFT) | (byte_ & VALUE_MASK);
+	}
+
+	/**
+	 * Calculates the position of a Byte within the Table.
+	 * @param type_ordinal - Ordinal of the {@link Type}.
+	 * @param index - Bit Index, 0 - 7.
+	 * @param byte_ - Byte value.
+	 * @return Position within the Table.
+	 */
+	private static int slot(final int type_ordinal, final int index, final int byte_)
+	{
+		return (((type_ordinal * INDEX_COUNT) + index) * BYTE_VALUES) + (byte_ & VALUE_MASK);
+	}
+
+	/**
+	 * Checks whether the parameter 'index' is covered by the Table.
+	 * @param index - Bit Index to check.
+	 * @return True if the Index is within 0 - 7.
+	 */
+	static boolean covers(final byte index)
+	{
+		return index >= 0 && index < INDEX_COUNT;
+	}
+
+	/**
+	 * Decodes the fault of a Table entry.
+	 * @param entry - Table entry.
+	 * @return Error the entry was raised with, or Null if there was none.
+	 */
+	static ExceptionType fault(final int entry)
+	{
+		return (entry > VALUE_MASK) ? ExceptionType.values()[(entry >> FAULT_SHIFT) - 1] : null;
+	}
+
+	/**
+	 * Looks up the Table entry of a single Byte. {@link Type}s which 
+	 * don't use the Index are looked up regardless of it, other Indexes 
+	 * outside of the Byte are calculated via {@link ByteTools}.
+	 * @param byte_ - Byte to Scramble with {@link Type}.
+	 * @param index - Index within Byte to modify.
+	 * @param scramble_type - {@link Type} of Bit modification.
+	 * @return Table entry.
+	 */
+	static int lookup(final byte byte_, final byte index, final Type scramble_type)
+	{
+		if(scramble_type == Type.INVERSE_ALL || scramble_type == Type.SHREDDED)
+			return TABLE[slot(scramble_type.ordinal(), 0, byte_)];
+		if(!covers(index))
+			return compute(byte_, index, scramble_type);
+		return TABLE[slot(scramble_type.ordinal(), index, byte_)];
+	}
+
+	/**
+	 * Looks up the Table entry of a single Byte at a position within a
+	 * {@link Blueprint}.
+	 * @param byte_ - Byte to Scramble.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher with.
+	 * @param position - Position within the {@link Blueprint}.
+	 * @return Table entry.
+	 */
+	static int lookup(final byte byte_, final Blueprint cipher, final int position)
+	{
+		final byte packed_entry = cipher.getPacked(position);
+		if((packed_entry & Blueprint.PACKED_ESCAPE) != 0)
+			return lookup(byte_, cipher.getIndex(position), cipher.getType(position));
+		return TABLE[((packed_entry & Blueprint.PACKED_ROW_MASK) * BYTE_VALUES) + (byte_ & VALUE_MASK)];
+	}
+
+	/**
+	 * Scrambles a run of Bytes via the lookup Table, without printing
+	 * Errors. Each Byte is a single Table load of its packed 
+	 * {@link Blueprint} entry. Bytes the {@link Blueprint} can't operate 
+	 * on come out as they always have and are collected into a 
+	 * {@link ValidationReport}, which is only created once a fault occurs.
+	 * 'source' and 'target' may be the same Array. Derived 
+	 * {@link Blueprint}s are produced a window at a time, a
+	 * {@link CyclicBlueprint} is looped over instead.
+	 * @param source - Bytes to Scramble.
+	 * @param source_offset - Position of the first Byte within 'source'.
+	 * @param target - Array to write the scrambled Bytes to.
+	 * @param target_offset - Position of the first Byte within 'target'.
+	 * @param length - Amount of Bytes to Scramble.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher with.
+	 * @param key_offset - Position within the {@link Blueprint} of the 
+	 * first Byte. Faults are reported at their {@link Blueprint} position.
+	 * @param data_length - Length of the whole Data, for the report.
+	 * @return Report of each fault, or Null if the run had none.
+	 */
+	static ValidationReport scramble(final byte[] source, final int source_offset, final byte[] target, 
+			final int target_offset, final int length, final Blueprint cipher, final int key_offset, 
+			final int data_length)
+	{
+		final byte[] packed = cipher.getPacked();
+		if(packed != null)
+			return run(source, source_offset, target, target_offset, length, cipher, packed, key_offset, key_offset, data_length, null);
+		if(cipher instanceof CyclicBlueprint)
+			return cycle(source, source_offset, target, target_offset, length, (CyclicBlueprint) cipher, key_offset, data_length);
+
+		final byte[] window = new byte[Math.min(length, KEY_WINDOW)];
+		ValidationReport report = null;
+		for(int done = 0; done < length; done += window.length)
+		{
+			final int run_length = Math.min(window.length, length - done);
+			cipher.fillPacked(key_offset + done, window, 0, run_length);
+			report = run(source, source_offset + done, target, target_offset + done, run_length, cipher, 
+					window, 0, key_offset + done, data_length, report);
+		}
+		return report;
+	}
+
+	/**
+	 * Scrambles a run of Bytes between two {@link ByteBuffer}s via the 
+	 * lookup Table, using absolute Buffer access so neither Buffer's 
+	 * position is touched. Works with heap and direct Buffers alike, 
+	 * without copying through an intermediate Array. Otherwise behaves
+	 * as the Array kernel.
+	 * @param source - Bytes to Scramble.
+	 * @param source_index - Absolute index of the first Byte within 'source'.
+	 * @param target - Buffer to write the scrambled Bytes to.
+	 * @param target_index - Absolute index of the first Byte within 'target'.
+	 * @param length - Amount of Bytes to Scramble.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher with.
+	 * @param key_offset - Position within the {@link Blueprint} of the 
+	 * first Byte.
+	 * @param data_length - Length of the whole Data, for the report.
+	 * @return Report of each fault, or Null if the run had none.
+	 */
+	static ValidationReport scramble(final ByteBuffer source, final int source_index, final ByteBuffer target, 
+			final int target_index, final int length, final Blueprint cipher, final int key_offset, 
+			final int data_length)
+	{
+		final byte[] packed = cipher.getPacked();
+		if(packed != null)
+			return run(source, source_index, target, target_index, length, cipher, packed, key_offset, key_offset, data_length, null);
+		if(cipher instanceof CyclicBlueprint)
+			return cycle(source, source_index, target, target_index, length, (CyclicBlueprint) cipher, key_offset, data_length);
+
+		final byte[] window = new byte[Math.min(length, KEY_WINDOW)];
+		ValidationReport report = null;
+		for(int done = 0; done < length; done += window.length)
+		{
+			final int run_length = Math.min(window.length, length - done);
+			cipher.fillPacked(key_offset + done, window, 0, run_length);
+			report = run(source, source_index + done, target, target_index + done, run_length, cipher, 
+					window, 0, key_offset + done, data_length, report);
+		}
+		return report;
+	}
+
+	/**
+	 * Scrambles a run of Bytes with a {@link CyclicBlueprint}, looping over
+	 * its Tile rather than producing a window of entries. A period of one
+	 * entry without an escape holds its Table row aside and loads nothing
+	 * else per Byte.
+	 * @param source - Bytes to Scramble.
+	 * @param source_offset - Position of the first Byte within 'source'.
+	 * @param target - Array to write the scrambled Bytes to.
+	 * @param target_offset - Position of the first Byte within 'target'.
+	 * @param length - Amount of Bytes to Scramble.
+	 * @param cipher - {@link CyclicBlueprint} to Cipher/Decipher with.
+	 * @param key_offset - Position within the {@link Blueprint} of the 
+	 * first Byte.
+	 * @param data_length - Length of the whole Data, for the report.
+	 * @return Report of each fault, or Null if the run had none.
+	 */
+	private static ValidationReport cycle(final byte[] source, final int source_offset, final byte[] target, 
+			final int target_offset, final int length, final CyclicBlueprint cipher, final int key_offset, 
+			final int data_length)
+	{
+		final byte[] tile = cipher.getTile();
+		ValidationReport report = null;
+		if(cipher.getPeriod() == 1 && (tile[0] & Blueprint.PACKED_ESCAPE) == 0)
+		{
+			final short[] table = TABLE;
+			final int row = (tile[0] & Blueprint.PACKED_ROW_MASK) * BYTE_VALUES;
+			for(int i = 0; i < length; i ++)
+			{
+				final int entry = table[row + (source[source_offset + i] & VALUE_MASK)];
+				target[target_offset + i] = (byte) entry;
+				if(entry > VALUE_MASK)
+					report = report(report, cipher, data_length, key_offset + i, entry);
+			}
+			return report;
+		}
+
+		int phase = key_offset % cipher.getPeriod();
+		for(int done = 0; done < length; phase = 0)
+		{
+			final int run_length = Math.min(tile.length - phase, length - done);
+			report = run(source, source_offset + done, target, target_offset + done, run_length, cipher, 
+					tile, phase, key_offset + done, data_length, report);
+			done += run_length;
+		}
+		return report;
+	}
+
+	/**
+	 * The {@link ByteBuffer} form of the {@link CyclicBlueprint} loop.
+	 * @param source - Bytes to Scramble.
+	 * @param source_index - Absolute index of the first Byte within 'source'.
+	 * @param target - Buffer to write the scrambled Bytes to.
+	 * @param target_index - Absolute index of the first Byte within 'target'.
+	 * @param length - Amount of Bytes to Scramble.
+	 * @param cipher - {@link CyclicBlueprint} to Cipher/Decipher with.
+	 * @param key_offset - Position within the {@link Blueprint} of the 
+	 * first Byte.
+	 * @param data_length - Length of the whole Data, for the report.
+	 * @return Report of each fault, or Null if the run had none.
+	 */
+	private static ValidationReport cycle(final ByteBuffer source, final int source_index, final ByteBuffer target, 
+			final int target_index, final int length, final CyclicBlueprint cipher, final int key_offset, 
+			final int data_length)
+	{
+		final byte[] tile = cipher.getTile();
+		ValidationReport report = null;
+		int phase = key_offset % cipher.getPeriod();
+		for(int done = 0; done < length; phase = 0)
+		{
+			final int run_length = Math.min(tile.length - phase, length - done);
+			report = run(source, source_index + done, target, target_index + done, run_length, cipher, 
+					tile, phase, key_offset + done, data_length, report);
+			done += run_length;
+		}
+		return report;
+	}
+
+	/**
+	 * The Array kernel loop, over packed entries held within 'key'.
+	 * @param source - Bytes to Scramble.
+	 * @param source_offset - Position of the first Byte within 'source'.
+	 * @param target - Array to write the scrambled Bytes to.
+	 * @param target_offset - Position of the first Byte within 'target'.
+	 * @param length - Amount of Bytes to Scramble.
+	 * @param cipher - {@link Blueprint} the entries belong to.
+	 * @param key - Packed entries.
+	 * @param key_index - Position within 'key' of the first entry.
+	 * @param position - Position within the {@link Blueprint} of the first entry.
+	 * @param data_length - Length of the whole Data, for the report.
+	 * @param report - Report to add faults to, may be Null.
+	 * @return Report of each fault, or Null if there were none.
+	 */
+	private static ValidationReport run(final byte[] source, final int source_offset, final byte[] target, 
+			final int target_offset, final int length, final Blueprint cipher, final byte[] key, 
+			final int key_index, final int position, final int data_length, ValidationReport report)
+	{
+		final short[] table = TABLE;
+		for(int i = 0; i < length; i ++)
+		{
+			final byte packed_entry = key[key_index + i];
+			final int entry = ((packed_entry & Blueprint.PACKED_ESCAPE) == 0)
+					? table[((packed_entry & Blueprint.PACKED_ROW_MASK) * BYTE_VALUES) + (source[source_offset + i] & VALUE_MASK)]
+					: lookup(source[source_offset + i], cipher.getIndex(position + i), cipher.getType(position + i));
+			target[target_offset + i] = (byte) entry;
+			if(entry > VALUE_MASK)
+				report = report(report, cipher, data_length, position + i, entry);
+		}
+		return report;
+	}
+
+	/**
+	 * The {@link ByteBuffer} kernel loop, over packed entries held within
+	 * 'key'.
+	 * @param source - Bytes to Scramble.
+	 * @param source_index - Absolute index of the first Byte within 'source'.
+	 * @param target - Buffer to write the scrambled Bytes to.
+	 * @param target_index - Absolute index of the first Byte within 'target'.
+	 * @param length - Amount of Bytes to Scramble.
+	 * @param cipher - {@link Blueprint} the entries belong to.
+	 * @param key - Packed entries.
+	 * @param key_index - Position within 'key' of the first entry.
+	 * @param position - Position within the {@link Blueprint} of the first entry.
+	 * @param data_length - Length of the whole Data, for the report.
+	 * @param report - Report to add faults to, may be Null.
+	 * @return Report of each fault, or Null if there were none.
+	 */
+	private static ValidationReport run(final ByteBuffer source, final int source_index, final ByteBuffer target, 
+			final int target_index, final int length, final Blueprint cipher, final byte[] key, 
+			final int key_index, final int position, final int data_length, ValidationReport report)
+	{
+		final short[] table = TABLE;
+		for(int i = 0; i < length; i ++)
+		{
+			final byte packed_entry = key[key_index + i], byte_ = source.get(source_index + i);
+			final int entry = ((packed_entry & Blueprint.PACKED_ESCAPE) == 0)
+					? table[((packed_entry & Blueprint.PACKED_ROW_MASK) * BYTE_VALUES) + (byte_ & VALUE_MASK)]
+					: lookup(byte_, cipher.getIndex(position + i), cipher.getType(position + i));
+			target.put(target_index + i, (byte) entry);
+			if(entry > VALUE_MASK)
+				report = report(report, cipher, data_length, position + i, entry);
+		}
+		return report;
+	}
+
+	/**
+	 * Adds a fault to a report, creating the report if need be.
+	 * @param report - Report to add to, may be Null.
+	 * @param cipher - {@link Blueprint} the fault was raised by.
+	 * @param data_length - Length of the whole Data.
+	 * @param position - Position of the fault.
+	 * @param entry - Table entry holding the fault.
+	 * @return Report holding the fault.
+	 */
+	static ValidationReport report(ValidationReport report, final Blueprint cipher, final int data_length, 
+			final int position, final int entry)
+	{
+		if(report == null)
+			report = new ValidationReport(data_length, cipher.length());
+		report.add(position, fault(entry));
+		return report;
+	}
+
+	/**
+	 * Tests that the lookup Table matches {@link ByteTools} for every
+	 * {@link Type}, Index and Byte combination it can operate on, and
+	 * that a random {@link Smartprint} still round trips.
+	 * @return True if the Table matches.
+	 */
+	static boolean test()
+	{
+		System.out.println("Beginning Scramble Table Tests...");
+		boolean matches = true;
+		for(Type type : Type.values())
+			for(byte index = 0; index < INDEX_COUNT; index ++)
+				for(int value = 0; value < BYTE_VALUES; value ++)
+				{
+					final int entry = TABLE[slot(type.ordinal(), index, value)];
+					if(entry > VALUE_MASK)
+						continue;
+					try
+					{
+						matches &= (byte) entry == ByteTools.scramble((byte) value, index, type);
+					}
+					catch (BitException e)
+					{
+						matches = false;
+					}
+				}
+
+		final byte[] original_bytes = ByteTools.TEST_STR.getBytes();
+		final Smartprint cipher = new Smartprint(original_bytes);
+		final String translated = new String(ByteTools.scramble(ByteTools.scramble(original_bytes, cipher), cipher));
+
+		final byte[] invalid_types = { (byte) Type.LEFT.ordinal(), (byte) Type.INVERT.ordinal(), (byte) Type.INVERT.ordinal() },
+				invalid_indexes = { 7, 2, 2 }, invalid_data = { 'H', 'e', 0 };
+		final Blueprint invalid_key = new Blueprint(invalid_types, invalid_indexes) {
+			public void populateIndexes(){}
+			public ArrayList<Type> populate(){return null;}
+		};
+		final ValidationReport report = ByteTools.validate(invalid_data, invalid_key);
+		final boolean validated = ByteTools.validate(original_bytes, cipher).isValid()
+				&& Arrays.equals(report.getPositions(), new int[]{ 0, 2 })
+				&& report.getFault(0) == ExceptionType.SWAP_END
+				&& report.getFault(1) == ExceptionType.GREATER_THAN_LENGTH;
+		final boolean success = matches && validated && translated.equals(ByteTools.TEST_STR);
+
+		System.out.println("Table Matches: " + matches);
+		System.out.println("Validation: " + validated);
+		System.out.println("Decoded: " + translated);
+		System.out.println("Success: " + success + "\n");
+		return success;
+	}
+}
@@ -0,0 +1,74 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Scrambles a run of Bytes across a {@link java.util.concurrent.ForkJoinPool}.
+ * As each scrambled Byte depends only upon its own position within the
+ * {@link Blueprint}, the run is split in half until each part fits within
+ * a cache sized chunk, which is then scrambled via {@link ScrambleTable}.
+ * Results in a {@link ValidationReport} of the run, or Null if no Byte
+ * within it raised a fault.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see ByteTools
+ * @see ScrambleTable
+ */
+final class ScrambleTask extends RecursiveTask<ValidationReport>
+{
+
+	private static final long serialVersionUID = -2961416453062211843L;
+
+	/**
+	 * Largest run of Bytes scrambled by a single task. Sized so the
+	 * source, target and packed key of a chunk sit within the L2 cache.
+	 */
+	static final int CHUNK_SIZE = 64 * 1024;
+
+	private final byte[] source, target;
+	private final Blueprint cipher;
+	private final int offset, length, dataLength;
+
+	/**
+	 * Creates a task scrambling Bytes from 'source' into 'target' at the
+	 * same positions.
+	 * @param source - Bytes to Scramble.
+	 * @param target - Array to write the scrambled Bytes to.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher with.
+	 * @param offset - Position of the first Byte.
+	 * @param length - Amount of Bytes to Scramble.
+	 * @param data_length - Length of the whole Data, for the report.
+	 */
+	ScrambleTask(final byte[] source, final byte[] target, final Blueprint cipher, final int offset, final int length,
+			final int data_length)
+	{
+		this.source = source;
+		this.target = target;
+		this.cipher = cipher;
+		this.offset = offset;
+		this.length = length;
+		this.dataLength = data_length;
+	}
+
+	@Override
+	protected ValidationReport compute()
+	{
+		if(length <= CHUNK_SIZE)
+			return ByteTools.scrambleRun(source, offset, target, offset, length, cipher, offset, dataLength);
+
+		// Keep the split on a chunk boundary.
+		final int half = ((length / CHUNK_SIZE + 1) / 2) * CHUNK_SIZE;
+		final ScrambleTask left = new ScrambleTask(source, target, cipher, offset, half, dataLength);
+		left.fork();
+		final ValidationReport right_report = new ScrambleTask(source, target, cipher, offset + half, length - half, dataLength).compute(),
+				left_report = left.join();
+		if(left_report == null)
+			return right_report;
+		if(right_report != null)
+			left_report.addAll(right_report);
+		return left_report;
+	}
+}
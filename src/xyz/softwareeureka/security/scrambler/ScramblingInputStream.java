@@ -0,0 +1,219 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * An {@link InputStream} which scrambles every Byte read through it with
+ * a {@link Blueprint}. The position within the {@link Blueprint} carries
+ * over between reads and skips, so the Data may be read in any amount of
+ * pieces. Bytes are scrambled in place within the caller's Array as they
+ * arrive, no further memory is used.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see ScramblingOutputStream
+ * @see ByteTools
+ * @see Blueprint
+ */
+public final class ScramblingInputStream extends FilterInputStream
+{
+
+	/**
+	 * {@link Blueprint} to scramble with.
+	 */
+	private final Blueprint cipher;
+
+	/**
+	 * Position within the {@link Blueprint} of the next Byte.
+	 */
+	private int keyPosition = 0;
+
+	/**
+	 * Buffer single Bytes are scrambled within.
+	 */
+	private final byte[] single = new byte[1];
+
+	/**
+	 * Wraps an {@link InputStream}, scrambling with the parameter 'cipher'
+	 * from its first entry.
+	 * @param in - Stream to read Bytes from.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher with.
+	 */
+	public ScramblingInputStream(final InputStream in, final Blueprint cipher)
+	{
+		super(in);
+		if(cipher == null)
+			throw new IllegalArgumentException("Null Blueprint.");
+		this.cipher = cipher;
+	}
+
+	/**
+	 * Returns the position within the {@link Blueprint} of the next Byte.
+	 * An unbounded {@link CyclicBlueprint} wraps it back into its first
+	 * period, otherwise it's the amount of Bytes read or skipped so far.
+	 * @return Position within the {@link Blueprint} of the next Byte.
+	 */
+	public int getKeyPosition()
+	{
+		return keyPosition;
+	}
+
+	@Override
+	public int read() throws IOException
+	{
+		if(keyRemaining() == 0)
+			return checkEnd();
+		final int b = in.read();
+		if(b < 0)
+			return b;
+		single[0] = (byte) b;
+		ByteTools.scramble(single, 0, single, 0, 1, cipher, keyPosition);
+		keyPosition = cipher.wrap(keyPosition + 1);
+		return single[0] & 0xFF;
+	}
+
+	@Override
+	public int read(final byte[] b, final int off, final int len) throws IOException
+	{
+		if(len > 0 && keyRemaining() == 0)
+			return checkEnd();
+		final int read = in.read(b, off, Math.min(len, keyRemaining()));
+		if(read > 0)
+		{
+			ByteTools.scramble(b, off, b, off, read, cipher, keyPosition);
+			keyPosition = cipher.wrap(keyPosition + read);
+		}
+		return read;
+	}
+
+	@Override
+	public long skip(final long n) throws IOException
+	{
+		final long skipped = in.skip(Math.min(n, keyRemaining()));
+		keyPosition = cipher.wrap(keyPosition + (int) skipped);
+		return skipped;
+	}
+
+	/**
+	 * Marking isn't supported, as the position within the {@link Blueprint}
+	 * can't be rewound alongside the wrapped Stream.
+	 * @return False.
+	 */
+	@Override
+	public boolean markSupported()
+	{
+		return false;
+	}
+
+	@Override
+	public synchronized void mark(final int readlimit) {}
+
+	@Override
+	public synchronized void reset() throws IOException
+	{
+		throw new IOException("mark/reset not supported");
+	}
+
+	/**
+	 * Returns the amount of Bytes the {@link Blueprint} has entries left for.
+	 * @return Remaining entries.
+	 */
+	private int keyRemaining()
+	{
+		return cipher.length() - keyPosition;
+	}
+
+	/**
+	 * Called once the {@link Blueprint} is exhausted, checks the wrapped
+	 * Stream has ended too. Reads are limited to the remaining entries, so
+	 * no unscrambled Byte ever reaches the caller. If the wrapped Stream
+	 * supports marking, it's reset after the check, otherwise the Byte 
+	 * checked is consumed from it.
+	 * @return -1, if the wrapped Stream has ended.
+	 * @throws IOException - If the wrapped Stream has more Bytes.
+	 */
+	private int checkEnd() throws IOException
+	{
+		final boolean marked = in.markSupported();
+		if(marked)
+			in.mark(1);
+		final int next = in.read();
+		if(marked)
+			in.reset();
+		if(next >= 0)
+			throw new IOException("Blueprint exhausted at Byte " + keyPosition + " of " + cipher.length());
+		return -1;
+	}
+
+	/**
+	 * Tests the Stream scrambling functionality of the library. A large
+	 * repetition of the Test String is written through a
+	 * {@link ScramblingOutputStream} in uneven pieces, then read back
+	 * through a {@link ScramblingInputStream} in different pieces. If the
+	 * written Bytes match the Byte Array scramble and read back as the
+	 * repetition, our code works.
+	 *
+	 * @return True if {@link ScramblingOutputStream} and
+	 * {@link ScramblingInputStream} work as intended.
+	 */
+	public static boolean test()
+	{
+		System.out.println("Beginning Scrambling Stream Tests...");
+		final byte[] test_bytes = ByteTools.TEST_STR.getBytes(), original_bytes = ByteTools.repeatedTestBytes(1000);
+		final Smartprint cipher = new Smartprint(original_bytes);
+
+		boolean success = false;
+		try
+		{
+			final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+			final ScramblingOutputStream scrambling_out = new ScramblingOutputStream(sink, cipher, 1000);
+			scrambling_out.write(original_bytes[0]);
+			scrambling_out.write(original_bytes, 1, 2999);
+			scrambling_out.write(original_bytes, 3000, original_bytes.length - 3000);
+			scrambling_out.close();
+
+			final ScramblingInputStream scrambling_in = new ScramblingInputStream(new ByteArrayInputStream(sink.toByteArray()), cipher);
+			final byte[] unscrambled = new byte[original_bytes.length];
+			unscrambled[0] = (byte) scrambling_in.read();
+			int read = 1, count;
+			while((count = scrambling_in.read(unscrambled, read, Math.min(777, unscrambled.length - read))) > 0)
+				read += count;
+			scrambling_in.close();
+
+			final boolean match = Arrays.equals(sink.toByteArray(), ByteTools.scramble(original_bytes, cipher));
+			final byte[] short_bytes = Arrays.copyOf(test_bytes, 10), overrun = new byte[test_bytes.length];
+			final ByteArrayInputStream short_source = new ByteArrayInputStream(test_bytes);
+			final ScramblingInputStream short_in = new ScramblingInputStream(short_source, new Smartprint(short_bytes));
+			boolean exhausted = short_in.read(overrun, 0, overrun.length) == short_bytes.length;
+			try
+			{
+				short_in.read(overrun, short_bytes.length, overrun.length - short_bytes.length);
+				exhausted = false;
+			}
+			catch (IOException e)
+			{
+				// The Byte checked is left within the wrapped Stream.
+				exhausted &= overrun[short_bytes.length] == 0 && short_source.available() == test_bytes.length - short_bytes.length;
+			}
+			exhausted &= new ScramblingInputStream(new ByteArrayInputStream(test_bytes, 0, 1), new Smartprint(Arrays.copyOf(test_bytes, 1))).read(overrun) == 1
+					&& scrambling_in.read() == -1;
+			success = match && exhausted && read == original_bytes.length && Arrays.equals(unscrambled, original_bytes);
+			System.out.println("Match: " + match);
+			System.out.println("Exhausted: " + exhausted);
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+
+		System.out.println("Success: " + success + "\n");
+		return success;
+	}
+}
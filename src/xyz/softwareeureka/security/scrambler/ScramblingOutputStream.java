@@ -0,0 +1,119 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An {@link OutputStream} which scrambles every Byte written through it
+ * with a {@link Blueprint}, before passing it on to the wrapped Stream.
+ * The position within the {@link Blueprint} carries over between writes,
+ * so the Data may be written in any amount of pieces. Bytes are scrambled
+ * chunk by chunk through a fixed size buffer, the caller's Arrays are
+ * never modified.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see ScramblingInputStream
+ * @see ByteTools
+ * @see Blueprint
+ */
+public final class ScramblingOutputStream extends FilterOutputStream
+{
+
+	/**
+	 * Default size of the scrambling buffer.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+	/**
+	 * {@link Blueprint} to scramble with.
+	 */
+	private final Blueprint cipher;
+
+	/**
+	 * Buffer each chunk is scrambled into.
+	 */
+	private final byte[] chunk;
+
+	/**
+	 * Position within the {@link Blueprint} of the next Byte.
+	 */
+	private int keyPosition = 0;
+
+	/**
+	 * Wraps an {@link OutputStream}, scrambling with the parameter 'cipher'
+	 * from its first entry.
+	 * @param out - Stream to write the scrambled Bytes to.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher with.
+	 */
+	public ScramblingOutputStream(final OutputStream out, final Blueprint cipher)
+	{
+		this(out, cipher, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Wraps an {@link OutputStream}, scrambling with the parameter 'cipher'
+	 * from its first entry, through a buffer of 'chunk_size' Bytes.
+	 * @param out - Stream to write the scrambled Bytes to.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher with.
+	 * @param chunk_size - Size of the scrambling buffer.
+	 */
+	public ScramblingOutputStream(final OutputStream out, final Blueprint cipher, final int chunk_size)
+	{
+		super(out);
+		if(cipher == null || chunk_size <= 0)
+			throw new IllegalArgumentException("Null Blueprint or invalid chunk size: " + chunk_size);
+		this.cipher = cipher;
+		this.chunk = new byte[chunk_size];
+	}
+
+	/**
+	 * Returns the position within the {@link Blueprint} of the next Byte.
+	 * An unbounded {@link CyclicBlueprint} wraps it back into its first
+	 * period, otherwise it's the amount of Bytes scrambled so far.
+	 * @return Position within the {@link Blueprint} of the next Byte.
+	 */
+	public int getKeyPosition()
+	{
+		return keyPosition;
+	}
+
+	@Override
+	public void write(final int b) throws IOException
+	{
+		checkKey(1);
+		chunk[0] = (byte) b;
+		ByteTools.scramble(chunk, 0, chunk, 0, 1, cipher, keyPosition);
+		keyPosition = cipher.wrap(keyPosition + 1);
+		out.write(chunk, 0, 1);
+	}
+
+	@Override
+	public void write(final byte[] b, final int off, final int len) throws IOException
+	{
+		ByteTools.checkRegion(b.length, off, len);
+		checkKey(len);
+		for(int written = 0; written < len; )
+		{
+			final int length = Math.min(chunk.length, len - written);
+			ByteTools.scramble(b, off + written, chunk, 0, length, cipher, keyPosition);
+			out.write(chunk, 0, length);
+			keyPosition = cipher.wrap(keyPosition + length);
+			written += length;
+		}
+	}
+
+	/**
+	 * Checks the {@link Blueprint} has entries left for 'length' Bytes.
+	 * @param length - Amount of Bytes about to be scrambled.
+	 * @throws IOException - If the {@link Blueprint} is exhausted.
+	 */
+	private void checkKey(final int length) throws IOException
+	{
+		if(length > cipher.length() - keyPosition)
+			throw new IOException("Blueprint exhausted at Byte " + keyPosition + " of " + cipher.length());
+	}
+}
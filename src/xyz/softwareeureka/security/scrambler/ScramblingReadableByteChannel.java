@@ -0,0 +1,192 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * A {@link ReadableByteChannel} which scrambles every Byte read through it
+ * with a {@link Blueprint}. The position within the {@link Blueprint}
+ * carries over between reads. Bytes are scrambled in place within the
+ * caller's {@link ByteBuffer} as they arrive, heap and direct alike.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see ScramblingWritableByteChannel
+ * @see ByteTools
+ * @see Blueprint
+ */
+public final class ScramblingReadableByteChannel implements ReadableByteChannel
+{
+
+	/**
+	 * Channel to read Bytes from.
+	 */
+	private final ReadableByteChannel channel;
+
+	/**
+	 * {@link Blueprint} to scramble with.
+	 */
+	private final Blueprint cipher;
+
+	/**
+	 * Position within the {@link Blueprint} of the next Byte.
+	 */
+	private int keyPosition = 0;
+
+	/**
+	 * Wraps a {@link ReadableByteChannel}, scrambling with the parameter
+	 * 'cipher' from its first entry.
+	 * @param channel - Channel to read Bytes from.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher with.
+	 */
+	public ScramblingReadableByteChannel(final ReadableByteChannel channel, final Blueprint cipher)
+	{
+		if(channel == null || cipher == null)
+			throw new IllegalArgumentException("Null Channel or Blueprint.");
+		this.channel = channel;
+		this.cipher = cipher;
+	}
+
+	/**
+	 * Returns the position within the {@link Blueprint} of the next Byte.
+	 * An unbounded {@link CyclicBlueprint} wraps it back into its first
+	 * period, otherwise it's the amount of Bytes read so far.
+	 * @return Position within the {@link Blueprint} of the next Byte.
+	 */
+	public int getKeyPosition()
+	{
+		return keyPosition;
+	}
+
+	/**
+	 * Reads and unscrambles up to the remaining entries of the
+	 * {@link Blueprint}. Once it's exhausted, a Byte is read from the
+	 * wrapped Channel to check it has ended too. That Byte is consumed,
+	 * as a Channel can't be rewound.
+	 * @param dst - Buffer to read the unscrambled Bytes into.
+	 * @return Amount of Bytes read, or -1 once the wrapped Channel ends.
+	 * @throws IOException - If the wrapped Channel has more Bytes than the
+	 * {@link Blueprint}, or fails.
+	 */
+	@Override
+	public int read(final ByteBuffer dst) throws IOException
+	{
+		final int start = dst.position(), limit = dst.limit(), remaining = cipher.length() - keyPosition;
+		if(remaining == 0 && dst.hasRemaining())
+		{
+			final int probe = channel.read(ByteBuffer.allocate(1));
+			if(probe > 0)
+				throw new IOException("Blueprint exhausted at Byte " + keyPosition + " of " + cipher.length());
+			return probe;
+		}
+		final int read;
+		dst.limit(start + Math.min(dst.remaining(), remaining));
+		try
+		{
+			read = channel.read(dst);
+		}
+		finally
+		{
+			dst.limit(limit);
+		}
+		if(read > 0)
+		{
+			ByteTools.scramble(dst, start, dst, start, read, cipher, keyPosition);
+			keyPosition = cipher.wrap(keyPosition + read);
+		}
+		return read;
+	}
+
+	@Override
+	public boolean isOpen()
+	{
+		return channel.isOpen();
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+
+	/**
+	 * Tests the Channel scrambling functionality of the library. A large
+	 * repetition of the Test String is written through a
+	 * {@link ScramblingWritableByteChannel} from a direct Buffer in one
+	 * write, then read back through a {@link ScramblingReadableByteChannel}
+	 * into a small heap Buffer. A Channel accepting nothing stands in for a
+	 * full non blocking one. If the written Bytes match the Byte Array
+	 * scramble and read back as the repetition, and the full Channel takes
+	 * one chunk then nothing and fails to close, our code works.
+	 *
+	 * @return True if {@link ScramblingWritableByteChannel} and
+	 * {@link ScramblingReadableByteChannel} work as intended.
+	 */
+	public static boolean test()
+	{
+		System.out.println("Beginning Scrambling Channel Tests...");
+		final byte[] original_bytes = ByteTools.repeatedTestBytes(1000);
+		final Smartprint cipher = new Smartprint(original_bytes);
+
+		boolean success = false;
+		try
+		{
+			final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+			final WritableByteChannel scrambling_out = new ScramblingWritableByteChannel(Channels.newChannel(sink), cipher, 1000);
+			final ByteBuffer direct = ByteBuffer.allocateDirect(original_bytes.length);
+			direct.put(original_bytes).flip();
+			final boolean drained = scrambling_out.write(direct) == original_bytes.length && !direct.hasRemaining();
+			scrambling_out.close();
+
+			final ReadableByteChannel scrambling_in = new ScramblingReadableByteChannel(
+					Channels.newChannel(new ByteArrayInputStream(sink.toByteArray())), cipher);
+			final ByteBuffer heap = ByteBuffer.allocate(777);
+			final ByteArrayOutputStream unscrambled = new ByteArrayOutputStream();
+			while(scrambling_in.read(heap) > 0)
+			{
+				heap.flip();
+				unscrambled.write(heap.array(), heap.arrayOffset(), heap.limit());
+				heap.clear();
+			}
+			scrambling_in.close();
+
+			// A full non blocking Channel keeps the first chunk waiting.
+			final WritableByteChannel full_out = new ScramblingWritableByteChannel(new WritableByteChannel() {
+				private boolean open = true;
+				public int write(ByteBuffer src){return 0;}
+				public boolean isOpen(){return open;}
+				public void close(){open = false;}
+			}, cipher, 1000);
+			direct.rewind();
+			boolean full = full_out.write(direct) == 1000 && full_out.write(direct) == 0;
+			try
+			{
+				full_out.close();
+				full = false;
+			}
+			catch (IOException e)
+			{
+				full &= !full_out.isOpen();
+			}
+
+			final boolean match = Arrays.equals(sink.toByteArray(), ByteTools.scramble(original_bytes, cipher));
+			success = match && drained && full && Arrays.equals(unscrambled.toByteArray(), original_bytes);
+			System.out.println("Match: " + match + ", drained: " + drained + ", full: " + full);
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+
+		System.out.println("Success: " + success + "\n");
+		return success;
+	}
+}
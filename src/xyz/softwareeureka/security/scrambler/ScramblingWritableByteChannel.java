@@ -0,0 +1,160 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A {@link WritableByteChannel} which scrambles every Byte written through
+ * it with a {@link Blueprint}, before passing it on to the wrapped Channel.
+ * The position within the {@link Blueprint} carries over between writes.
+ * Bytes are scrambled chunk by chunk into a fixed size direct Buffer, the
+ * caller's Buffer is never modified. <br><br>
+ *
+ * Each write takes every remaining Byte, unless the wrapped Channel is
+ * non blocking and stops accepting Bytes. Bytes it doesn't accept are kept
+ * and written before any further Bytes. Closing this Channel tries once
+ * more to write out any such Bytes, and fails if they still aren't all
+ * accepted.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see ScramblingReadableByteChannel
+ * @see ByteTools
+ * @see Blueprint
+ */
+public final class ScramblingWritableByteChannel implements WritableByteChannel
+{
+
+	/**
+	 * Default size of the scrambling buffer.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+	/**
+	 * Channel to write the scrambled Bytes to.
+	 */
+	private final WritableByteChannel channel;
+
+	/**
+	 * {@link Blueprint} to scramble with.
+	 */
+	private final Blueprint cipher;
+
+	/**
+	 * Buffer each chunk is scrambled into. Holds scrambled Bytes not yet
+	 * accepted by the wrapped Channel between its position and limit.
+	 */
+	private final ByteBuffer chunk;
+
+	/**
+	 * Position within the {@link Blueprint} of the next Byte.
+	 */
+	private int keyPosition = 0;
+
+	/**
+	 * Wraps a {@link WritableByteChannel}, scrambling with the parameter
+	 * 'cipher' from its first entry.
+	 * @param channel - Channel to write the scrambled Bytes to.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher with.
+	 */
+	public ScramblingWritableByteChannel(final WritableByteChannel channel, final Blueprint cipher)
+	{
+		this(channel, cipher, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Wraps a {@link WritableByteChannel}, scrambling with the parameter
+	 * 'cipher' from its first entry, through a buffer of 'chunk_size' Bytes.
+	 * @param channel - Channel to write the scrambled Bytes to.
+	 * @param cipher - {@link Blueprint} to Cipher/Decipher with.
+	 * @param chunk_size - Size of the scrambling buffer.
+	 */
+	public ScramblingWritableByteChannel(final WritableByteChannel channel, final Blueprint cipher, final int chunk_size)
+	{
+		if(channel == null || cipher == null || chunk_size <= 0)
+			throw new IllegalArgumentException("Null Channel, Blueprint or invalid chunk size: " + chunk_size);
+		this.channel = channel;
+		this.cipher = cipher;
+		this.chunk = ByteBuffer.allocateDirect(chunk_size);
+		this.chunk.limit(0);
+	}
+
+	/**
+	 * Returns the position within the {@link Blueprint} of the next Byte.
+	 * An unbounded {@link CyclicBlueprint} wraps it back into its first
+	 * period, otherwise it's the amount of Bytes scrambled so far.
+	 * @return Position within the {@link Blueprint} of the next Byte.
+	 */
+	public int getKeyPosition()
+	{
+		return keyPosition;
+	}
+
+	/**
+	 * Scrambles the remaining Bytes within 'src' chunk by chunk and writes
+	 * them to the wrapped Channel.
+	 * @param src - Bytes to Scramble, left unmodified.
+	 * @return Amount of Bytes taken from 'src'. Every remaining Byte, 
+	 * unless a non blocking wrapped Channel stopped accepting Bytes, then
+	 * possibly Zero.
+	 * @throws IOException - If the {@link Blueprint} runs out before any
+	 * Byte is taken, or the wrapped Channel fails.
+	 */
+	@Override
+	public int write(final ByteBuffer src) throws IOException
+	{
+		int taken = 0;
+		while(src.hasRemaining())
+		{
+			if(chunk.hasRemaining() && channel.write(chunk) >= 0 && chunk.hasRemaining())
+				break;
+
+			final int length = Math.min(src.remaining(), chunk.capacity());
+			if(length > cipher.length() - keyPosition)
+			{
+				if(taken > 0)
+					break;
+				throw new IOException("Blueprint exhausted at Byte " + keyPosition + " of " + cipher.length());
+			}
+
+			chunk.clear().limit(length);
+			ByteTools.scramble(src, src.position(), chunk, 0, length, cipher, keyPosition);
+			src.position(src.position() + length);
+			keyPosition = cipher.wrap(keyPosition + length);
+			channel.write(chunk);
+			taken += length;
+		}
+		return taken;
+	}
+
+	@Override
+	public boolean isOpen()
+	{
+		return channel.isOpen();
+	}
+
+	/**
+	 * Writes out any scrambled Bytes still waiting on the wrapped Channel,
+	 * then closes it.
+	 * @throws IOException - If a non blocking wrapped Channel still doesn't
+	 * accept every waiting Byte, they're lost.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			if(chunk.hasRemaining() && channel.isOpen())
+				channel.write(chunk);
+			if(chunk.hasRemaining())
+				throw new IOException(chunk.remaining() + " scrambled Bytes not accepted before closing.");
+		}
+		finally
+		{
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,352 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reusable scratch Arrays, one arena per Thread, for scrambling many
+ * small Messages without allocating. Arrays are lent from the arena while
+ * it's open, and returned to it, cleared, once it's closed. They're kept
+ * in power of two size classes, so a lent Array may be longer than asked
+ * for. <br><br>
+ *
+ * 'open' may be nested, each close returns only the Arrays lent since its
+ * own open. Use within try-with-resources:
+ *
+ * <pre>
+ * try(ScratchArena arena = ScratchArena.open())
+ * {
+ *     final EncodedMessage message = new EncodedMessage(text, charset, arena);
+ *     ...
+ * }
+ * </pre>
+ *
+ * Anything built over lent Arrays, such as a pooled {@link EncodedMessage}
+ * or {@link Smartprint}, must not be used once its arena is closed, its
+ * Arrays are cleared and lent again. An arena belongs to the Thread which
+ * opened it and must not be passed to another. Arrays too large to be
+ * kept are still lent, but are dropped when returned.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see EncodedMessage
+ * @see Smartprint
+ * @see KeyGenerator
+ */
+public final class ScratchArena implements AutoCloseable
+{
+
+	/**
+	 * Longest Array kept for reuse, in elements.
+	 */
+	public static final int MAX_RETAINED_LENGTH = 1 << 16;
+
+	/**
+	 * Most Arrays kept per size class, per kind.
+	 */
+	public static final int MAX_PER_CLASS = 8;
+
+	/**
+	 * Shortest Array lent, as a power of two.
+	 */
+	private static final int MIN_CLASS = 6;
+
+	private static final int CLASSES = Integer.numberOfTrailingZeros(MAX_RETAINED_LENGTH) - MIN_CLASS + 1;
+
+	/**
+	 * Kinds of Array kept, indexing 'free'.
+	 */
+	private static final int BYTES = 0, LONGS = 1, CHARS = 2, KINDS = 3;
+
+	private static final ThreadLocal<ScratchArena> ARENAS = ThreadLocal.withInitial(ScratchArena::new);
+
+	private static final LongAdder hits = new LongAdder(), misses = new LongAdder();
+
+	/**
+	 * Kept Arrays, laid out as [kind][size class][slot].
+	 */
+	private final Object[][][] free = new Object[KINDS][CLASSES][MAX_PER_CLASS];
+
+	/**
+	 * Amount of kept Arrays, laid out as [kind][size class].
+	 */
+	private final int[][] freeCount = new int[KINDS][CLASSES];
+
+	/**
+	 * Arrays currently lent, in the order lent.
+	 */
+	private Object[] lent = new Object[16];
+	private int lentCount = 0;
+
+	/**
+	 * 'lentCount' at each nested open.
+	 */
+	private int[] marks = new int[4];
+	private int depth = 0;
+
+	private long retainedBytes = 0;
+
+	private ScratchArena(){}
+
+	/**
+	 * Opens the arena of the calling Thread. Every open must be closed, by
+	 * the same Thread.
+	 * @return Arena of the calling Thread.
+	 */
+	public static ScratchArena open()
+	{
+		final ScratchArena arena = ARENAS.get();
+		if(arena.depth == arena.marks.length)
+			arena.marks = Arrays.copyOf(arena.marks, arena.depth * 2);
+		arena.marks[arena.depth ++] = arena.lentCount;
+		return arena;
+	}
+
+	/**
+	 * Lends a Byte Array of at least 'length' Bytes, all Zero.
+	 * @param length - Minimum length.
+	 * @return Lent Array.
+	 */
+	public byte[] bytes(final int length)
+	{
+		final Object kept = take(BYTES, length);
+		return (byte[]) lend((kept != null) ? kept : new byte[lengthOf(length)]);
+	}
+
+	/**
+	 * Lends a long Array of at least 'length' longs, all Zero.
+	 * @param length - Minimum length.
+	 * @return Lent Array.
+	 */
+	public long[] longs(final int length)
+	{
+		final Object kept = take(LONGS, length);
+		return (long[]) lend((kept != null) ? kept : new long[lengthOf(length)]);
+	}
+
+	/**
+	 * Lends a char Array of at least 'length' Characters, all Zero.
+	 * @param length - Minimum length.
+	 * @return Lent Array.
+	 */
+	public char[] chars(final int length)
+	{
+		final Object kept = take(CHARS, length);
+		return (char[]) lend((kept != null) ? kept : new char[lengthOf(length)]);
+	}
+
+	/**
+	 * Returns every Array lent since the matching 'open', cleared.
+	 * @throws IllegalStateException - If not open.
+	 */
+	@Override
+	public void close()
+	{
+		if(depth == 0)
+			throw new IllegalStateException("Scratch arena isn't open.");
+		final int mark = marks[-- depth];
+		while(lentCount > mark)
+		{
+			keep(lent[-- lentCount]);
+			lent[lentCount] = null;
+		}
+	}
+
+	/**
+	 * Calculates the size class of an Array length.
+	 * @param length - Minimum length.
+	 * @return Size class, or -1 if too long to be kept.
+	 */
+	private static int classOf(final int length)
+	{
+		if(length < 0)
+			throw new NegativeArraySizeException(Integer.toString(length));
+		if(length > MAX_RETAINED_LENGTH)
+			return -1;
+		final int bits = (length <= 1) ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(length - 1);
+		return Math.max(0, bits - MIN_CLASS);
+	}
+
+	/**
+	 * Calculates the length of a new Array.
+	 * @param length - Minimum length.
+	 * @return Length of its size class, or 'length' if too long to be kept.
+	 */
+	private static int lengthOf(final int length)
+	{
+		final int size_class = classOf(length);
+		return (size_class < 0) ? length : 1 << (size_class + MIN_CLASS);
+	}
+
+	/**
+	 * Takes a kept Array, counting a hit or miss.
+	 * @param kind - Kind of Array.
+	 * @param length - Minimum length.
+	 * @return Kept Array, or Null if none.
+	 */
+	private Object take(final int kind, final int length)
+	{
+		final int size_class = classOf(length);
+		if(size_class < 0 || freeCount[kind][size_class] == 0)
+		{
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		final int slot = -- freeCount[kind][size_class];
+		final Object kept = free[kind][size_class][slot];
+		free[kind][size_class][slot] = null;
+		retainedBytes -= bytesOf(kept);
+		return kept;
+	}
+
+	private Object lend(final Object array)
+	{
+		if(lentCount == lent.length)
+			lent = Arrays.copyOf(lent, lentCount * 2);
+		lent[lentCount ++] = array;
+		return array;
+	}
+
+	/**
+	 * Clears a returned Array, then keeps it if there's room.
+	 * @param array - Returned Array.
+	 */
+	private void keep(final Object array)
+	{
+		final int kind, length;
+		if(array instanceof byte[])
+		{
+			kind = BYTES;
+			length = ((byte[]) array).length;
+			Arrays.fill((byte[]) array, (byte) 0);
+		}
+		else if(array instanceof long[])
+		{
+			kind = LONGS;
+			length = ((long[]) array).length;
+			Arrays.fill((long[]) array, 0L);
+		}
+		else
+		{
+			kind = CHARS;
+			length = ((char[]) array).length;
+			Arrays.fill((char[]) array, '\0');
+		}
+		final int size_class = classOf(length);
+		if(size_class < 0 || freeCount[kind][size_class] == MAX_PER_CLASS)
+			return;
+		free[kind][size_class][freeCount[kind][size_class] ++] = array;
+		retainedBytes += bytesOf(array);
+	}
+
+	private static long bytesOf(final Object array)
+	{
+		if(array instanceof byte[])
+			return ((byte[]) array).length;
+		if(array instanceof long[])
+			return (long) ((long[]) array).length * Long.BYTES;
+		return (long) ((char[]) array).length * Character.BYTES;
+	}
+
+	/**
+	 * Returns the amount of Bytes kept for reuse by this arena.
+	 * @return Kept Bytes.
+	 */
+	public long getRetainedBytes()
+	{
+		return retainedBytes;
+	}
+
+	/**
+	 * Returns the amount of Arrays currently lent by this arena.
+	 * @return Lent Arrays.
+	 */
+	public int getLentCount()
+	{
+		return lentCount;
+	}
+
+	/**
+	 * Returns the amount of Arrays lent from those kept, by every arena.
+	 * @return Amount of hits.
+	 */
+	public static long getHitCount()
+	{
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the amount of Arrays allocated to be lent, by every arena.
+	 * @return Amount of misses.
+	 */
+	public static long getMissCount()
+	{
+		return misses.sum();
+	}
+
+	/**
+	 * Tests the {@link ScratchArena}. Nested opens lend and return Arrays,
+	 * then pooled {@link EncodedMessage}s are encoded and decoded many
+	 * times over. If returned Arrays are cleared and lent again, the
+	 * Messages round trip and the steady state only hits, our code works.
+	 *
+	 * @return True if {@link ScratchArena} works as intended.
+	 */
+	public static boolean test()
+	{
+		System.out.println("Beginning Scratch Arena Tests...");
+		boolean reused;
+		try(ScratchArena outer = ScratchArena.open())
+		{
+			final byte[] kept = outer.bytes(100);
+			Arrays.fill(kept, (byte) 1);
+			final byte[] inner_bytes;
+			try(ScratchArena inner = ScratchArena.open())
+			{
+				inner_bytes = inner.bytes(100);
+				inner_bytes[0] = 1;
+			}
+			try(ScratchArena inner = ScratchArena.open())
+			{
+				final byte[] again = inner.bytes(128);
+				reused = again == inner_bytes && again[0] == 0 && kept[0] == 1 && kept.length == 128
+						&& inner.longs(3).length == 1 << MIN_CLASS && inner.chars(MAX_RETAINED_LENGTH + 1).length == MAX_RETAINED_LENGTH + 1;
+			}
+			reused &= outer.getLentCount() == 1;
+		}
+
+		boolean round_trip = true;
+		final String text = ByteTools.TEST_STR;
+		final CharBuffer chars = CharBuffer.allocate(text.length());
+		long steady_misses = 0;
+		for(int i = 0; i < 1000; i ++)
+		{
+			if(i == 10)
+				steady_misses = getMissCount();
+			try(ScratchArena arena = ScratchArena.open())
+			{
+				final EncodedMessage message = new EncodedMessage(text, StandardCharsets.UTF_8, arena);
+				chars.clear();
+				message.getDecoded(message.getMap(), StandardCharsets.UTF_8, chars);
+				chars.flip();
+				final byte[] decoded = message.getDecoded(message.getMap(), arena);
+				round_trip &= chars.toString().equals(text) && message.getLength() == text.length()
+						&& message.getEncoded().length == text.length()
+						&& new String(decoded, 0, message.getLength()).equals(text);
+			}
+		}
+		steady_misses = getMissCount() - steady_misses;
+		final boolean success = reused && round_trip && steady_misses == 0;
+
+		System.out.println("Reused: " + reused);
+		System.out.println("Round trip: " + round_trip);
+		System.out.println("Steady misses: " + steady_misses + ", Hits: " + getHitCount());
+		System.out.println("Success: " + success + "\n");
+		return success;
+	}
+}
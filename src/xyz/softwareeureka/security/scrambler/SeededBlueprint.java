@@ -0,0 +1,181 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * A {@link Blueprint} defined entirely by a Seed and a length. No
+ * {@link Type}s or Indexes are stored, each entry is derived on demand
+ * from the Seed and its position via a counter based generator. Any entry
+ * can be produced directly, without producing those before it, so the
+ * {@link Blueprint} may be accessed at random and costs the same to keep
+ * regardless of its length. Storing the Seed and length is enough to
+ * recreate it, see {@link Safe}.
+ *
+ * <br><br>
+ * As the Data isn't known, Indexes are drawn from 2 - 3, the range a
+ * {@link Smartprint} would draw from for the shortest printable
+ * Characters. Every printable ASCII Character (0x20 - 0x7F) therefore
+ * scrambles and unscrambles with any entry. Use 
+ * {@link ByteTools#validate(byte[], Blueprint)} to check it against other
+ * Data.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see Blueprint
+ * @see Smartprint
+ * @see Type
+ */
+public final class SeededBlueprint extends DerivedBlueprint
+{
+
+	/**
+	 * Increment between the generator states of neighbouring entries.
+	 * (The 64 Bit Golden Ratio, as used by SplitMix64).
+	 */
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * Smallest Index produced.
+	 */
+	private static final int MIN_INDEX = 2;
+
+	/**
+	 * Cached amount of {@link Type}s.
+	 */
+	private static final int TYPE_COUNT = Type.values().length;
+
+	/**
+	 * Seed every entry is derived from.
+	 */
+	private final long seed;
+
+	/**
+	 * Creates a {@link SeededBlueprint} of 'length' entries from a new
+	 * random Seed, drawn from the shared {@link EntropyPool}.
+	 * @param length - Amount of entries, the length of the Data.
+	 */
+	public SeededBlueprint(final int length)
+	{
+		this(EntropyPool.shared().getAsLong(), length);
+	}
+
+	/**
+	 * Recreates a {@link SeededBlueprint} of 'length' entries from a known
+	 * Seed.
+	 * @param seed - Seed to derive entries from.
+	 * @param length - Amount of entries, the length of the Data.
+	 */
+	public SeededBlueprint(final long seed, final int length)
+	{
+		super(length);
+		this.seed = seed;
+	}
+
+	/**
+	 * Returns the Seed this {@link Blueprint} is derived from.
+	 * @return Seed.
+	 */
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	/**
+	 * Produces a List of every {@link Type} within this {@link Blueprint}.
+	 * Not used by the {@link Blueprint} itself.
+	 * @return ArrayList of derived {@link Type}s.
+	 */
+	@Override
+	public ArrayList<Type> populate()
+	{
+		final ArrayList<Type> types = new ArrayList<>(length());
+		for(int i = 0; i < length(); i ++)
+			types.add(getType(i));
+		return types;
+	}
+
+	/**
+	 * Does nothing, as the Indexes are derived.
+	 */
+	@Override
+	public void populateIndexes() {}
+
+	/**
+	 * Derives the entry at 'position' by mixing the Seed with the position
+	 * (the SplitMix64 finaliser). The upper 32 Bits choose the {@link Type},
+	 * the lowest Bit chooses the Index.
+	 */
+	@Override
+	byte derive(final int position)
+	{
+		long z = seed + ((position + 1L) * GOLDEN_GAMMA);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		z = z ^ (z >>> 31);
+
+		final int type = (int) (((z >>> 32) * TYPE_COUNT) >>> 32),
+				index = MIN_INDEX + (int) (z & 1);
+		return (byte) ((type << PACKED_TYPE_SHIFT) | index);
+	}
+
+	/**
+	 * Every Index lies within the Byte, so it's held within the entry.
+	 */
+	@Override
+	byte deriveIndex(final int position)
+	{
+		return (byte) (derive(position) & PACKED_INDEX_MASK);
+	}
+
+	/**
+	 * Tests the {@link SeededBlueprint}. The Test String is scrambled with
+	 * a {@link SeededBlueprint}, then unscrambled with a second one
+	 * recreated from the Seed alone, then stored within a {@link Safe} and
+	 * read back. If all agree on every entry and the Test String comes 
+	 * back, our code works.
+	 *
+	 * @return True if {@link SeededBlueprint} works as intended.
+	 */
+	public static boolean test()
+	{
+		System.out.println("Beginning Seeded Blueprint Tests...");
+		final byte[] original_bytes = ByteTools.TEST_STR.getBytes();
+		final SeededBlueprint cipher = new SeededBlueprint(original_bytes.length),
+				recreated = new SeededBlueprint(cipher.getSeed(), original_bytes.length);
+
+		boolean match = true;
+		for(int i = 0; i < cipher.length(); i ++)
+			match &= cipher.getType(i) == recreated.getType(i) && cipher.getIndex(i) == recreated.getIndex(i);
+
+		final byte[] scrambled = ByteTools.scramble(original_bytes, cipher);
+		final String translated = new String(ByteTools.scramble(scrambled, recreated));
+
+		boolean stored = false;
+		try
+		{
+			final File file = File.createTempFile("seeded", ".safe");
+			file.deleteOnExit();
+			new Safe(file.getAbsolutePath(), new EncodedMessage(scrambled), cipher).toFile();
+			final Safe safe = new Safe(file);
+			stored = safe.getMap() instanceof SeededBlueprint
+					&& ((SeededBlueprint) safe.getMap()).getSeed() == cipher.getSeed()
+					&& new String(safe.getMsg().getDecoded(safe.getMap())).equals(ByteTools.TEST_STR);
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+		final boolean success = match && stored && translated.equals(ByteTools.TEST_STR);
+
+		System.out.println("Encoded: " + new String(scrambled));
+		System.out.println("Decoded: " + translated);
+		System.out.println("Match: " + match);
+		System.out.println("Stored: " + stored);
+		System.out.println("Success: " + success + "\n");
+		return success;
+	}
+}
@@ -1,7 +1,6 @@
 package xyz.softwareeureka.security.scrambler;
 
 import java.util.ArrayList;
-import java.util.Random;
 
 /**
  * A special type of {@link Blueprint} which molds itself to a specific 
@@ -13,12 +12,12 @@ import java.util.Random;
  * completely new Cipher each time.
  * 
  * <br><br>
- * The passed Data is Null after instantiation. This is to prevent
+ * The passed Data is never stored. This is to prevent
  * from simply decoding the Data from the {@link Blueprint} via 
  * Reflection or some such Witchcraft.
  *   
  * @author Owen McMonagle.
- * @version 0.4
+ * @version 0.5
  * @since 05/11/2017 Updated 08/11/2017
  * 
  * @see ByteTools
@@ -30,18 +29,11 @@ public final class Smartprint extends Blueprint
 {
 	
 	/**
-	 * Each Binary String in Array form. Used for the population
-	 * of {@link Type}s and Indexes within 'populate' and 
-	 * 'populateIndexes'. Null after instantiation.
+	 * Generator shared by the Constructors without one, drawing from the
+	 * shared {@link EntropyPool}.
 	 */
-	private volatile String[] binary = null;
+	private static final KeyGenerator GENERATOR = new KeyGenerator();
 	
-	/**
-	 * Alternative Storage, for non Binary Strings. Null after 
-	 * instantiation.
-	 */
-	private volatile byte[] data = null;
-
 	/**
 	 * Takes in a Binary String where each Byte is Delimited with
 	 * a '~' Character. Splits each Byte into an String Array. 
@@ -55,11 +47,7 @@ public final class Smartprint extends Blueprint
 	 */
 	public Smartprint(final String binary_str) 
 	{
-		binary = binary_str.split(ByteTools.BYTE_DELIMITER);
-		addAll(populate());
-		populateIndexes();
-		// Nullify as we no longer need it.
-		binary = null;
+		this(binary_str.split(ByteTools.BYTE_DELIMITER));
 	}
 	
 	/**
@@ -73,11 +61,22 @@ public final class Smartprint extends Blueprint
 	 */
 	public Smartprint(final String[] binary_strs) 
 	{
-		binary = binary_strs;
-		addAll(populate());
-		populateIndexes();
-		// Nullify as we no longer need it.
-		binary = null;
+		this(binary_strs, GENERATOR);
+	}
+	
+	/**
+	 * Takes in a Binary Array String where each Byte is an Element in the
+	 * Array. After which, the parameter 'generator' populates our 
+	 * {@link Blueprint} with {@link Type}s and Bit Indexes.
+	 *   
+	 * @param binary_strs - Binary Strings where each Byte is an Element in the
+	 * Array. Each of these are used as a Specification for a Cipher Map.
+	 * @param generator - {@link KeyGenerator} to draw the Cipher Map from.
+	 * @since 0.7
+	 */
+	public Smartprint(final String[] binary_strs, final KeyGenerator generator) 
+	{
+		generator.generate(this, binary_strs);
 	}
 	
 	/**
@@ -89,56 +88,112 @@ public final class Smartprint extends Blueprint
 	 */
 	public Smartprint(final byte[] byte_array) 
 	{
-		data = byte_array;
-		addAll(populate());
-		populateIndexes();
-		// Nullify as we no longer need it.
-		data = null;
+		this(byte_array, GENERATOR);
+	}
+	
+	/**
+	 * Takes in a Byte Array. After which, the parameter 'generator' 
+	 * populates our {@link Blueprint} with {@link Type}s and Bit Indexes.
+	 * The Byte Array is never stored.
+	 * @param byte_array - Byte Array to generate a Cipher Map for. Each of these 
+	 * Bytes are used as a Specification for a Cipher Map.
+	 * @param generator - {@link KeyGenerator} to draw the Cipher Map from.
+	 * @since 0.7
+	 */
+	public Smartprint(final byte[] byte_array, final KeyGenerator generator) 
+	{
+		generator.generate(this, byte_array);
+	}
+	
+	/**
+	 * Takes in a region of a Byte Array. After which, the parameter 
+	 * 'generator' populates our {@link Blueprint} with {@link Type}s and
+	 * Bit Indexes. The Byte Array is never stored.
+	 * @param byte_array - Byte Array to generate a Cipher Map for.
+	 * @param offset - Position of the first Byte within 'byte_array'.
+	 * @param length - Amount of Bytes.
+	 * @param generator - {@link KeyGenerator} to draw the Cipher Map from.
+	 * @since 0.7
+	 */
+	public Smartprint(final byte[] byte_array, final int offset, final int length, final KeyGenerator generator) 
+	{
+		generator.generate(this, byte_array, offset, length);
+	}
+	
+	/**
+	 * Takes in a region of a Byte Array. After which, we populate our 
+	 * {@link Blueprint} with {@link Type}s and Bit Indexes held within an
+	 * Array lent by the parameter 'arena', so no Array is allocated once 
+	 * the arena is warm. This {@link Smartprint} must not be used once 
+	 * 'arena' is closed.
+	 * @param byte_array - Byte Array to generate a Cipher Map for.
+	 * @param offset - Position of the first Byte within 'byte_array'.
+	 * @param length - Amount of Bytes.
+	 * @param arena - Open {@link ScratchArena} of the calling Thread.
+	 * @since 0.7
+	 */
+	public Smartprint(final byte[] byte_array, final int offset, final int length, final ScratchArena arena) 
+	{
+		GENERATOR.generate(this, byte_array, offset, length, arena);
+	}
+
+	/**
+	 * Creates an empty {@link Smartprint}, for 'scrambling' to fill.
+	 */
+	private Smartprint() {}
+
+	/**
+	 * Generates a {@link Smartprint} for the Byte Array 'byte_array' and
+	 * scrambles it in place with the entries as they're drawn, so the
+	 * Bytes are read only once. Bytes the {@link Smartprint} can't operate
+	 * on are reported, as {@link ByteTools#scrambleInPlace} would.
+	 * @param byte_array - Bytes to generate a Cipher Map for, then Scramble.
+	 * @return Cipher Map 'byte_array' was scrambled with.
+	 * @since 0.7
+	 */
+	static Smartprint scrambling(final byte[] byte_array) 
+	{
+		final Smartprint key = new Smartprint();
+		final ValidationReport report = GENERATOR.generateScrambling(key, byte_array);
+		if(report != null)
+			report.print();
+		return key;
 	}
 
 	/**
-	 * Generates a List of {@link Type}s the Length of the 'binary' or 
-	 * 'data' Arrays.
-	 * Each {@link Type} is randomly generated. Once completed the List is
-	 * returned.
-	 * @return ArrayList of randomly generated {@link Type}s. 
+	 * Takes a copy of 'length' entries of another {@link Blueprint} from
+	 * 'offset', so many keys generated together may be handed out 
+	 * separately, as {@link MessageBatch} does.
+	 * @param key - {@link Blueprint} holding the entries.
+	 * @param offset - Position within 'key' of the first entry.
+	 * @param length - Amount of entries.
+	 * @throws IndexOutOfBoundsException - If the run lies outside of 'key'.
+	 * @since 0.7
+	 */
+	Smartprint(final Blueprint key, final int offset, final int length) 
+	{
+		adoptRun(key, offset, length);
+	}
+
+	/**
+	 * Returns the {@link Type}s generated by the {@link KeyGenerator}, as
+	 * the Data they were generated for is never stored.
+	 * @return ArrayList of the generated {@link Type}s.
 	 */
 	@Override
 	public ArrayList<Type> populate() 
 	{
-		final ArrayList<Type> types = new ArrayList<>();
-		final int length = ((binary != null) ? binary.length : data.length),
-				random_bound = Type.values().length;
-		final Random random = new Random();
-		for(int i = 0; i < length; i++)
-			types.add(Type.values()[random.nextInt(random_bound)]);
+		final ArrayList<Type> types = new ArrayList<>(length());
+		for(int i = 0; i < length(); i ++)
+			types.add(getType(i));
 		return types;
 	}
 
 	/**
-	 * Generates an Array of Indexes and sets them within {@link Blueprint}. 
-	 * Where each Index is a Bit Position within a Byte on the 'binary' or
-	 * the 'data' Arrays.
-	 * The Bit Position itself is random but requires Two Bits space on each
-	 * Side of the Byte. This is so we can accommodate swapping Bits Left 
-	 * and Right.
+	 * Does nothing, as the Indexes are generated alongside the {@link Type}s
+	 * by the {@link KeyGenerator}.
 	 */
 	@Override
-	public void populateIndexes() 
-	{
-		final int length = (binary != null) ? binary.length : data.length, offset = 2;
-		final Random random = new Random();
-		setIndex(new byte[length]);
-		for(int i = 0; i < length; i ++)
-		{
-			final byte boundary = (byte) ((binary != null) ? binary[i].length():
-				(Integer.toBinaryString(data[i]).length()));
-			byte next_index = (byte) random.nextInt(boundary - offset);
-			// If Zero or One, correct in case of Swap.
-			if(next_index == 0 || next_index == 1)
-				next_index = 2;
-			setIndex(i, next_index);
-		}
-	}
+	public void populateIndexes() {}
 
 }
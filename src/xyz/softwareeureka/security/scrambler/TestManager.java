@@ -21,13 +21,23 @@ public final class TestManager
 	
 	private boolean failed = false;
 	
+	/**
+	 * Java 9 {@link java.util.concurrent.Flow} Processor, compiled from its
+	 * own source root when available.
+	 */
+	private static final String PROCESSOR_CLASS = "xyz.softwareeureka.security.scrambler.ScramblingProcessor";
+	
 	TestManager() 
 	{
 		final boolean byte_tools_tests = ByteTools.performTests(),
-				encoded_msg_tests = EncodedMessage.test(),
-				storage_tests = Safe.test();
+				encoded_msg_tests = EncodedMessage.test() && MessageBatch.test(),
+				storage_tests = Safe.test() && MappedSafe.test() && ChunkedSafe.test(),
+				stream_tests = ScramblingInputStream.test() && ScramblingReadableByteChannel.test()
+					&& optionalTest(PROCESSOR_CLASS),
+				key_tests = KeyGenerator.test() && SeededBlueprint.test() && CyclicBlueprint.test() && Rounds.test() && BlueprintRegistry.test()
+					&& EntropyPool.test() && ScratchArena.test();
 		
-		if(byte_tools_tests && encoded_msg_tests && storage_tests)
+		if(byte_tools_tests && encoded_msg_tests && storage_tests && stream_tests && key_tests)
 			System.out.println("All Tests Completed...\nNo Errors found.");
 		else
 		{
@@ -36,13 +46,45 @@ public final class TestManager
 			System.err.println("Byte tools successful: " + byte_tools_tests);
 			System.err.println("Encoding message successful: " + encoded_msg_tests);
 			System.err.println("Safe storage successful: " + storage_tests);
+			System.err.println("Scrambling streams successful: " + stream_tests);
+			System.err.println("Key generation successful: " + key_tests);
 		}
 	
 	}
 
+	/**
+	 * Runs the static 'test' method of a Class which may not have been
+	 * compiled, such as those requiring a newer Java version.
+	 * @param class_name - Name of the Class to Test.
+	 * @return Result of its Tests, or True if it isn't present.
+	 */
+	private static boolean optionalTest(final String class_name)
+	{
+		try
+		{
+			return (Boolean) Class.forName(class_name).getMethod("test").invoke(null);
+		}
+		catch (ClassNotFoundException | LinkageError e)
+		{
+			System.out.println("Skipping " + class_name + ", not compiled.\n");
+			return true;
+		}
+		catch (ReflectiveOperationException e)
+		{
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	/**
+	 * Runs every Test repeatedly, exiting with a failure status on the
+	 * first error.
+	 * @param args - Amount of runs, 10000 if not given.
+	 */
 	public static void main(String[] args) 
 	{
-		for(int i = 0; i < 10000; i ++)
+		final int runs = (args.length > 0) ? Integer.parseInt(args[0]) : 10000;
+		for(int i = 0; i < runs; i ++)
 			if(new TestManager().failed)
 				System.exit(1);
 	}
@@ -0,0 +1,160 @@
+package xyz.softwareeureka.security.scrambler;
+
+import java.util.Arrays;
+
+import xyz.softwareeureka.security.scrambler.BitException.ExceptionType;
+
+/**
+ * The outcome of checking a {@link Blueprint} against the Bytes it is to
+ * scramble. Holds every position the {@link Blueprint} can't operate on,
+ * along with the Error that position would raise. Created once per check
+ * by {@link ByteTools#validate(byte[], Blueprint)}, rather than raising an
+ * Exception per Byte.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see ByteTools
+ * @see Blueprint
+ */
+public final class ValidationReport
+{
+
+	/**
+	 * Maximum amount of positions listed by 'print'.
+	 */
+	private static final int PRINT_LIMIT = 16;
+
+	/**
+	 * Length of the checked Bytes.
+	 */
+	private final int dataLength;
+
+	/**
+	 * Length of the checked {@link Blueprint}.
+	 */
+	private final int keyLength;
+
+	/**
+	 * Each invalid position, in ascending order.
+	 */
+	private int[] positions = new int[0];
+
+	/**
+	 * Error raised at each invalid position.
+	 */
+	private ExceptionType[] faults = new ExceptionType[0];
+
+	/**
+	 * Amount of invalid positions.
+	 */
+	private int count = 0;
+
+	/**
+	 * Creates an empty report.
+	 * @param data_length - Length of the checked Bytes.
+	 * @param key_length - Length of the checked {@link Blueprint}.
+	 */
+	ValidationReport(final int data_length, final int key_length)
+	{
+		dataLength = data_length;
+		keyLength = key_length;
+	}
+
+	/**
+	 * Records an invalid position.
+	 * @param position - Position of the Byte.
+	 * @param fault - Error raised at that position.
+	 */
+	void add(final int position, final ExceptionType fault)
+	{
+		if(count == positions.length)
+		{
+			final int capacity = Math.max(8, count * 2);
+			positions = Arrays.copyOf(positions, capacity);
+			faults = Arrays.copyOf(faults, capacity);
+		}
+		positions[count] = position;
+		faults[count ++] = fault;
+	}
+
+	/**
+	 * Appends every invalid position of another report, which must only
+	 * hold positions after those of this report.
+	 * @param report - Report to append.
+	 */
+	void addAll(final ValidationReport report)
+	{
+		for(int i = 0; i < report.count; i ++)
+			add(report.positions[i], report.faults[i]);
+	}
+
+	/**
+	 * Checks whether the {@link Blueprint} can scramble every Byte.
+	 * @return True if no position is invalid and the lengths match.
+	 */
+	public boolean isValid()
+	{
+		return count == 0 && dataLength == keyLength;
+	}
+
+	/**
+	 * Checks whether the {@link Blueprint} and Bytes differ in length.
+	 * @return True if the lengths differ.
+	 */
+	public boolean isLengthMismatch()
+	{
+		return dataLength != keyLength;
+	}
+
+	/**
+	 * Returns the amount of invalid positions.
+	 * @return Amount of invalid positions.
+	 */
+	public int getFaultCount()
+	{
+		return count;
+	}
+
+	/**
+	 * Returns each invalid position, in ascending order.
+	 * @return Copy of the invalid positions.
+	 */
+	public int[] getPositions()
+	{
+		return Arrays.copyOf(positions, count);
+	}
+
+	/**
+	 * Returns the Error raised at the n'th invalid position.
+	 * @param fault_index - Index within 'getPositions'.
+	 * @return Error raised at that position.
+	 */
+	public ExceptionType getFault(final int fault_index)
+	{
+		if(fault_index < 0 || fault_index >= count)
+			throw new IndexOutOfBoundsException("Index: " + fault_index + ", Size: " + count);
+		return faults[fault_index];
+	}
+
+	/**
+	 * Prints a summary of this report to the Error stream, as a single
+	 * write.
+	 */
+	public void print()
+	{
+		final StringBuilder builder = new StringBuilder();
+		builder.append("Blueprint validation: ").append(count).append(" invalid position(s)");
+		if(isLengthMismatch())
+			builder.append(", Blueprint length ").append(keyLength)
+				.append(" differs from Data length ").append(dataLength);
+		builder.append('\n');
+		for(int i = 0; i < Math.min(count, PRINT_LIMIT); i ++)
+			builder.append("Byte: ").append(positions[i]).append(", ")
+				.append(faults[i].getMessage()).append('\n');
+		if(count > PRINT_LIMIT)
+			builder.append("... ").append(count - PRINT_LIMIT).append(" more.\n");
+		System.err.print(builder);
+	}
+}
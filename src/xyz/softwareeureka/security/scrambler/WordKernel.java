@@ -0,0 +1,35 @@
+package xyz.softwareeureka.security.scrambler;
+
+/**
+ * Scrambles whole words of 8 Bytes through the masks of a
+ * {@link MaskPlanes}. Implementations must produce exactly the Bytes and
+ * faults of the scalar kernel, {@link MaskPlanes#SCALAR}, which any
+ * implementation may hand words to.
+ *
+ * @author Owen McMonagle.
+ * @version 0.1
+ * @since 0.7
+ *
+ * @see MaskPlanes
+ */
+interface WordKernel
+{
+
+	/**
+	 * Scrambles 'words' whole words of 'source' into 'target'. The masks
+	 * of 'first_word' lie within the planes at 'planes.plane(first_word)',
+	 * and the words never run past the end of the planes.
+	 * @param planes - Compiled masks.
+	 * @param source - Bytes to Scramble.
+	 * @param source_offset - Position of the first Byte within 'source'.
+	 * @param target - Array to write the scrambled Bytes to. May be 'source'.
+	 * @param target_offset - Position of the first Byte within 'target'.
+	 * @param first_word - Word of the first entry within the {@link Blueprint}.
+	 * @param words - Amount of words to Scramble.
+	 * @param data_length - Length of the whole Data, for the report.
+	 * @param report - Report to add faults to, may be Null.
+	 * @return Report of each fault, or Null if there were none.
+	 */
+	ValidationReport words(MaskPlanes planes, byte[] source, int source_offset, byte[] target, 
+			int target_offset, int first_word, int words, int data_length, ValidationReport report);
+}